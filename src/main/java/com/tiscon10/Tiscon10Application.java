@@ -2,11 +2,18 @@ package com.tiscon10;
 
 import java.util.Map;
 
+import com.tiscon10.viewhelper.AssetHelper;
+import com.tiscon10.viewhelper.AssetInlineHelper;
 import com.tiscon10.viewhelper.SpringMVCHelper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
 import com.github.jknack.handlebars.Helper;
 import com.github.jknack.handlebars.helper.ConditionalHelpers;
@@ -19,23 +26,38 @@ import com.github.jknack.handlebars.springmvc.HandlebarsViewResolver;
  * 
  */
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(Tiscon10RuntimeHints.class)
 public class Tiscon10Application {
 
     public static void main(String[] args) {
         SpringApplication.run(Tiscon10Application.class, args);
     }
 
+    /**
+     * 画面のテンプレートのViewResolverを生成する。
+     *
+     * @param resourceUrlProvider 静的リソースのURLの解決
+     * @param resourceLoader      静的リソースの読み込み
+     * @param cache               コンパイルしたテンプレートをキャッシュする場合、真（開発時はテンプレートの変更を即時に反映するため偽）
+     * @return ViewResolver
+     */
     @Bean
-    public ViewResolver viewResolver() {
+    public ViewResolver viewResolver(ResourceUrlProvider resourceUrlProvider, ResourceLoader resourceLoader,
+                                     @Value("${tiscon.view.cache:false}") boolean cache) {
         HandlebarsViewResolver viewResolver = new HandlebarsViewResolver();
         viewResolver.setPrefix("classpath:/templates/");
         viewResolver.setSuffix(".hbs");
-        viewResolver.setCache(false);
+        viewResolver.setCache(cache);
+        AssetInlineHelper assetInlineHelper = new AssetInlineHelper(resourceUrlProvider, resourceLoader);
         Map<String, Helper<?>> helpers = Map.of(
             "eq", ConditionalHelpers.eq,
             "not", ConditionalHelpers.not,
             "fieldErrors", new SpringMVCHelper.FieldErrorsHelper(),
-            "hasFieldErrors", new SpringMVCHelper.HasFieldErrorsHelper()
+            "hasFieldErrors", new SpringMVCHelper.HasFieldErrorsHelper(),
+            "asset", new AssetHelper(resourceUrlProvider),
+            "inlineCss", assetInlineHelper.inlineCss(),
+            "svgSprite", assetInlineHelper.svgSprite()
         );
         viewResolver.setHelpers(helpers);
         return viewResolver;
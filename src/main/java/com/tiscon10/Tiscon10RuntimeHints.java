@@ -0,0 +1,71 @@
+package com.tiscon10;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+
+import com.github.jknack.handlebars.helper.ConditionalHelpers;
+import com.tiscon10.code.JobType;
+import com.tiscon10.code.MarriedType;
+import com.tiscon10.code.TreatedType;
+import com.tiscon10.domain.AgeAdjustmentRate;
+import com.tiscon10.domain.InsuranceType;
+import com.tiscon10.form.QuoteRequest;
+import com.tiscon10.form.UserOrderForm;
+import com.tiscon10.service.EstimateResult;
+import com.tiscon10.validator.CodeValueValidator;
+import com.tiscon10.validator.NumericValidator;
+import com.tiscon10.validator.YYYYMMDDValidator;
+import com.tiscon10.viewhelper.SpringMVCHelper;
+
+/**
+ * ネイティブイメージ（GraalVM）で実行する際に、リフレクションやクラスパス上のファイルの読み込みを可能にするためのヒント。
+ * <p/>
+ * Spring AOTが解析できない以下のものを登録する。
+ * <ul>
+ *     <li>Handlebarsのテンプレートから参照するオブジェクトのプロパティ（リフレクションで取得される）</li>
+ *     <li>{@link org.springframework.jdbc.core.DataClassRowMapper}で生成するレコード</li>
+ *     <li>提携先API（関数型のエンドポイント）でJSONと相互に変換するリクエスト・レスポンス（型がAOTの解析の対象とならない）</li>
+ *     <li>Bean Validationのカスタムバリデータ（リフレクションで生成される）</li>
+ *     <li>テンプレート、料金表のCSVファイル、静的ファイル、DDL、メッセージ</li>
+ * </ul>
+ */
+public class Tiscon10RuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // テンプレートから参照するオブジェクト、DataClassRowMapperで生成するレコード
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+            UserOrderForm.class, EstimateResult.class, InsuranceType.class, AgeAdjustmentRate.class,
+            MarriedType.class, JobType.class, TreatedType.class, FieldError.class, ObjectError.class);
+
+        // 提携先APIのリクエスト・レスポンス
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+            QuoteRequest.class, UserOrderForm.class, EstimateResult.class);
+
+        // Handlebarsのヘルパー
+        hints.reflection()
+            .registerType(ConditionalHelpers.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+            .registerType(SpringMVCHelper.FieldErrorsHelper.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS)
+            .registerType(SpringMVCHelper.HasFieldErrorsHelper.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Bean Validationのカスタムバリデータ
+        for (Class<?> validator : new Class<?>[] {CodeValueValidator.class, NumericValidator.class, YYYYMMDDValidator.class}) {
+            hints.reflection().registerType(validator,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        // クラスパス上のファイル
+        hints.resources()
+            .registerPattern("templates/**")
+            .registerPattern("static/**")
+            .registerPattern("data/*.csv")
+            .registerPattern("schema.sql")
+            .registerResourceBundle("ValidationMessages");
+    }
+}
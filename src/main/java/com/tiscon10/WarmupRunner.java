@@ -0,0 +1,216 @@
+package com.tiscon10;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.servlet.ViewResolver;
+
+import com.tiscon10.code.JobType;
+import com.tiscon10.code.MarriedType;
+import com.tiscon10.code.TreatedType;
+import com.tiscon10.domain.InsuranceType;
+import com.tiscon10.form.JapaneseTextNormalizer;
+import com.tiscon10.form.UserOrderForm;
+import com.tiscon10.service.EstimateService;
+import com.tiscon10.service.OrderCodec;
+import com.tiscon10.validator.UserOrderFormValidator;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * 起動直後の応答の遅さを解消するため、リクエストの受け付け前に主要な処理を実行しておくクラス（ウォームアップ）。
+ * <p/>
+ * 以下を並列に、指定の時間内で実行する。時間を超えた処理は中断し、起動は続ける。
+ * <ul>
+ *     <li>見積もりの画面遷移: 合成した入力内容の正規化・精査、全保険種別の保険料の算出、入力内容のバイナリ変換（JITコンパイル）</li>
+ *     <li>コネクションプール: 上限数までコネクションを確立する</li>
+ *     <li>テンプレート: 画面のテンプレートをコンパイルする（tiscon.view.cache=trueの場合はキャッシュに残る）</li>
+ * </ul>
+ * Spring Bootは{@link ApplicationRunner}の完了後にReadiness（/actuator/health/readiness）を受け付け可能とするため、
+ * ロードバランサにはウォームアップの完了後に組み込まれる。データベースへの登録は行わない。
+ *
+ * @author TIS Taro
+ */
+@Component
+@ConditionalOnProperty(name = "tiscon.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmupRunner.class);
+
+    /** コンパイルする画面のテンプレート */
+    private static final List<String> VIEW_NAMES = List.of("top", "input", "confirm", "result", "complete");
+
+    /** テンプレートをコンパイルするロケール（リクエストのロケールごとにキャッシュされる） */
+    private static final List<Locale> VIEW_LOCALES = List.of(Locale.JAPAN, Locale.JAPANESE, Locale.getDefault());
+
+    /** 見積もりサービス */
+    @Autowired
+    private EstimateService estimateService;
+
+    /** 入力値の精査 */
+    @Autowired
+    private UserOrderFormValidator userOrderFormValidator;
+
+    /** データソース */
+    @Autowired
+    private DataSource dataSource;
+
+    /** 画面のテンプレートのViewResolver */
+    @Autowired
+    private ViewResolver viewResolver;
+
+    /** ウォームアップにかける時間の上限 */
+    @Value("${tiscon.warmup.budget:20s}")
+    private Duration budget;
+
+    /** 見積もりの画面遷移を実行する回数 */
+    @Value("${tiscon.warmup.iterations:5000}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<Callable<String>> tasks = List.of(this::warmUpFunnel, this::warmUpConnectionPool, this::warmUpTemplates);
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<String>> results = executor.invokeAll(tasks, budget.toMillis(), TimeUnit.MILLISECONDS);
+            for (Future<String> result : results) {
+                try {
+                    LOGGER.info("warm-up: {}", result.get());
+                } catch (CancellationException e) {
+                    LOGGER.warn("warm-up task exceeded the budget of {}.", budget);
+                } catch (ExecutionException e) {
+                    LOGGER.warn("warm-up task failed.", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        LOGGER.info("warm-up completed in {} ms.", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 合成した入力内容で、見積もりの画面遷移の処理を繰り返す。
+     *
+     * @return 実行結果
+     */
+    private String warmUpFunnel() {
+        long start = System.currentTimeMillis();
+        List<InsuranceType> insurances = estimateService.getInsurances();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        LocaleContextHolder.setLocale(Locale.JAPAN);
+        try {
+            int i = 0;
+            for (; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+                // 入力エラーとなる入力内容も混ぜ、エラーメッセージの展開も実行する
+                UserOrderForm form = JapaneseTextNormalizer.normalize(syntheticForm(i, insurances));
+                userOrderFormValidator.validate(form, new BeanPropertyBindingResult(form, "userOrderForm"));
+                if (!userOrderFormValidator.isValid(form)) {
+                    continue;
+                }
+                for (InsuranceType insurance : insurances) {
+                    estimateService.calculateInsuranceFee(insurance.insuranceType(),
+                        LocalDate.parse(form.dateOfBirth().replace('/', '-')), Integer.parseInt(form.jobType()),
+                        Integer.parseInt(form.marriedType()), Integer.parseInt(form.income()),
+                        Integer.parseInt(form.treatedType()));
+                }
+                OrderCodec.encode(form, buffer.clear());
+                OrderCodec.decodeForm(buffer.flip());
+            }
+            return "funnel x" + i + " in " + (System.currentTimeMillis() - start) + " ms";
+        } finally {
+            LocaleContextHolder.resetLocaleContext();
+        }
+    }
+
+    /**
+     * コネクションプールの上限数までコネクションを確立し、有効であることを確認する。
+     *
+     * @return 実行結果
+     * @throws SQLException コネクションの取得に失敗した場合
+     */
+    private String warmUpConnectionPool() throws SQLException {
+        long start = System.currentTimeMillis();
+        int size = dataSource.isWrapperFor(HikariDataSource.class)
+            ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() : 1;
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return "connection pool x" + size + " in " + (System.currentTimeMillis() - start) + " ms";
+    }
+
+    /**
+     * 画面のテンプレートをコンパイルする。
+     *
+     * @return 実行結果
+     * @throws Exception テンプレートのコンパイルに失敗した場合
+     */
+    private String warmUpTemplates() throws Exception {
+        long start = System.currentTimeMillis();
+        for (Locale locale : VIEW_LOCALES) {
+            for (String viewName : VIEW_NAMES) {
+                viewResolver.resolveViewName(viewName, locale);
+            }
+        }
+        return "templates x" + VIEW_NAMES.size() + " in " + (System.currentTimeMillis() - start) + " ms";
+    }
+
+    /**
+     * 合成した入力内容を生成する。コード値は一通り使用し、一定の割合で入力エラーとなる内容とする。
+     *
+     * @param i          通番
+     * @param insurances 保険種別
+     * @return 入力内容
+     */
+    private UserOrderForm syntheticForm(int i, List<InsuranceType> insurances) {
+        LocalDate dateOfBirth = LocalDate.of(1950, 1, 1).plusDays(i * 37L % 18000);
+        return new UserOrderForm(
+            String.valueOf(insurances.get(i % insurances.size()).insuranceType()),
+            "東京　太郎",
+            i % 10 == 0 ? "tokyo" : "ﾄｳｷｮｳ ﾀﾛｳ",
+            String.format("%tY/%<tm/%<td", dateOfBirth),
+            "東京都江東区豊洲３－２－２０",
+            "０３-１２３４-" + String.format("%04d", i % 10000),
+            "warmup" + i + "@example.com",
+            String.valueOf(MarriedType.values()[i % MarriedType.values().length].getCode()),
+            String.valueOf(JobType.values()[i % JobType.values().length].getCode()),
+            String.valueOf(i % 2000),
+            String.valueOf(TreatedType.values()[i % TreatedType.values().length].getCode()),
+            "病歴" + i
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package com.tiscon10;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.CssLinkResourceTransformer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+/**
+ * Spring MVCの設定。
+ *
+ * @author TIS Taro
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    /**
+     * 内容のハッシュ値（{@link VersionResourceResolver#addContentVersionStrategy}のMD5）を含むファイル名のパターン。
+     * URLのパターンでは正規表現の中に「{}」を書けないため、桁数は文字クラスの繰り返しで表す。
+     */
+    private static final String VERSIONED_FILE_NAME = "{file:.+-" + "[0-9a-f]".repeat(32) + "\\.[^.]+}";
+
+    /**
+     * 静的ファイル（CSS、JavaScript、画像）の配信設定を行う。
+     * <p/>
+     * URLに内容のハッシュ値を含め（テンプレートでは{@code asset}ヘルパーでURLを出力する）、
+     * 内容が変わらない限り再取得不要であることを{@code Cache-Control: immutable}で伝える。
+     * ハッシュ値を含まないURLは、配置し直した後に古い内容を使い続けないよう、毎回再検証させる（変わっていなければ304）。
+     * ビルド時に作成した圧縮済みファイル（.br、.gz）があれば、ブラウザの対応に応じてそちらを返す。
+     *
+     * @param registry 静的ファイルの配信設定
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String directory : new String[] {"css", "js", "img"}) {
+            // パターンが具体的な方が優先されるため、ハッシュ値を含むURLは先の設定で配信される
+            addResourceHandler(registry, "/" + directory + "/" + VERSIONED_FILE_NAME, directory,
+                CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+            addResourceHandler(registry, "/" + directory + "/**", directory, CacheControl.noCache());
+        }
+    }
+
+    /**
+     * 静的ファイルの配信設定を追加する。
+     *
+     * @param registry     静的ファイルの配信設定
+     * @param pathPattern  URLのパターン
+     * @param directory    配信するディレクトリ（static以下）
+     * @param cacheControl Cache-Controlヘッダ
+     */
+    private void addResourceHandler(ResourceHandlerRegistry registry, String pathPattern, String directory,
+                                    CacheControl cacheControl) {
+        registry.addResourceHandler(pathPattern)
+            .addResourceLocations("classpath:/static/" + directory + "/")
+            .setCacheControl(cacheControl)
+            .resourceChain(true)
+            .addResolver(new EncodedResourceResolver())
+            .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"))
+            .addTransformer(new CssLinkResourceTransformer());
+    }
+}
@@ -0,0 +1,66 @@
+package com.tiscon10.batch;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.tiscon10.service.OrderImportResult;
+import com.tiscon10.service.OrderImportService;
+
+/**
+ * 保険申し込みをCSVファイルから一括で取り込むコマンド。
+ * <p/>
+ * {@code tiscon.import.file}を指定して起動した場合のみ実行される。Webサーバを起動せずに取り込みだけを行う場合は、
+ * 次のように実行する。
+ * <pre>
+ * java -jar tiscon10.jar --spring.main.web-application-type=none --tiscon.import.file=orders.csv
+ * </pre>
+ *
+ * @author TIS Taro
+ */
+@Component
+@ConditionalOnProperty(name = "tiscon.import.file")
+public class OrderImportRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderImportRunner.class);
+
+    /** 申し込み取り込みサービス */
+    @Autowired
+    private OrderImportService orderImportService;
+
+    /** 取り込むCSVファイル */
+    @Value("${tiscon.import.file}")
+    private Path input;
+
+    /** 入力エラーとなった行の出力先。未指定の場合は取り込むファイル名に「.rejected.csv」を付けたファイル */
+    @Value("${tiscon.import.reject-file:}")
+    private String rejectFile;
+
+    /** 1行目が見出し行かどうか */
+    @Value("${tiscon.import.header:true}")
+    private boolean header;
+
+    /** 1回のバッチ登録の件数 */
+    @Value("${tiscon.import.batch-size:1000}")
+    private int batchSize;
+
+    /** 並列に処理するスレッド数 */
+    @Value("${tiscon.import.parallelism:4}")
+    private int parallelism;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path rejects = rejectFile.isEmpty() ? Path.of(input + ".rejected.csv") : Path.of(rejectFile);
+        LOGGER.info("importing orders from {} (batchSize={}, parallelism={})", input, batchSize, parallelism);
+        OrderImportResult result = orderImportService.importOrders(input, rejects, header, batchSize, parallelism);
+        LOGGER.info("imported {} of {} orders in {} ms ({} rows/sec), rejected {} -> {}",
+            result.imported(), result.read(), result.elapsedMillis(), result.rowsPerSecond(), result.rejected(), rejects);
+    }
+}
@@ -2,17 +2,23 @@ package com.tiscon10.controller;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 import com.tiscon10.service.EstimateResult;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.tiscon10.code.JobType;
 import com.tiscon10.code.MarriedType;
@@ -20,6 +26,9 @@ import com.tiscon10.code.TreatedType;
 import com.tiscon10.domain.InsuranceOrder;
 import com.tiscon10.form.UserOrderForm;
 import com.tiscon10.service.EstimateService;
+import com.tiscon10.service.FunnelStateStore;
+import com.tiscon10.service.IdempotencyStore;
+import com.tiscon10.validator.UserOrderFormValidator;
 
 /**
  * 保険見積もりのコントローラークラス。
@@ -34,6 +43,28 @@ public class EstimateController {
     @Autowired
     private EstimateService estimateService;
 
+    /** 申し込みの二重送信防止 */
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    /** 入力フォームの精査 */
+    @Autowired
+    private UserOrderFormValidator userOrderFormValidator;
+
+    /** 画面遷移の途中の入力内容の保持（有効な場合のみ） */
+    @Autowired
+    private FunnelStateStore funnelStateStore;
+
+    /**
+     * 入力フォームの精査に、事前に組み立てた{@link UserOrderFormValidator}を使用する。
+     *
+     * @param binder 入力フォームのバインダ
+     */
+    @InitBinder("userOrderForm")
+    void initBinder(WebDataBinder binder) {
+        binder.setValidator(userOrderFormValidator);
+    }
+
     /**
      * トップ画面を表示する。
      *
@@ -111,8 +142,7 @@ public class EstimateController {
         // 年齢が範囲内であるか確認する
         if (!estimateService.isAgeValid(dateOfBirth)) {
             // エラーの場合、Formの生年月日の項目にFieldErrorを追加
-            result.addError(new FieldError("userOrderForm", "dateOfBirth",
-                "年齢は20歳以上100歳以下である必要があります"));
+            result.addError(new FieldError("userOrderForm", "dateOfBirth", EstimateService.AGE_ERROR_MESSAGE));
             model.addAttribute("errors", result.getAllErrors());
             return "confirm";  // 確認画面表示を指示
         }
@@ -120,9 +150,15 @@ public class EstimateController {
         // 保険種別
         int insuranceType = Integer.parseInt(userOrderForm.insuranceType());
 
-        // 誕生日と保険種別をもとに、保険料（年額）を算出する
-        EstimateResult estimateResult = estimateService.calculateInsuranceFee(insuranceType, dateOfBirth);
+        // 誕生日と保険種別、ご職業などの属性をもとに、保険料（年額）を算出する
+        EstimateResult estimateResult = estimateService.calculateInsuranceFee(insuranceType, dateOfBirth,
+            Integer.parseInt(userOrderForm.jobType()), Integer.parseInt(userOrderForm.marriedType()),
+            Integer.parseInt(userOrderForm.income()), Integer.parseInt(userOrderForm.treatedType()));
         model.addAttribute("estimateResult", estimateResult);
+        // 申し込みの二重送信を防ぐため、冪等キーを発行する
+        model.addAttribute("idempotencyKey", idempotencyStore.issueKey());
+        // 入力内容をサーバ側で保持する場合は、hidden項目の代わりにトークンで引き継ぐ
+        model.addAttribute("funnelToken", funnelStateStore.save(userOrderForm));
 
         return "result";  // 概算見積もり結果画面表示を指示
     }
@@ -151,14 +187,18 @@ public class EstimateController {
     /**
      * "/order"にPOSTリクエストが送信されたときのエンドポイント。
      * 見積もり依頼をデータベースに登録し、申し込み完了画面に遷移する。
+     * <p/>
+     * 同じ冪等キーで再送信された場合（ボタンの連打など）は、登録を行わず最初の送信と同じ画面に遷移する。
      *
-     * @param userOrderForm 顧客が入力した見積もり依頼情報
-     * @param result        精査結果
-     * @param model         遷移先に連携するデータ
+     * @param userOrderForm  顧客が入力した見積もり依頼情報
+     * @param result         精査結果
+     * @param idempotencyKey 概算見積もり結果画面で発行した冪等キー
+     * @param model          遷移先に連携するデータ
      * @return 遷移先画面ファイル名（申し込み完了画面、入力エラー時は確認画面）
      */
     @PostMapping(value = "order", params = "proceed")
-    String order(@Validated UserOrderForm userOrderForm, BindingResult result, Model model) {
+    String order(@Validated UserOrderForm userOrderForm, BindingResult result,
+                 @RequestParam(name = "idempotencyKey", required = false) String idempotencyKey, Model model) {
 
         if (result.hasErrors()) {
             // 入力エラーがある場合は、確認画面に遷移する。
@@ -172,8 +212,7 @@ public class EstimateController {
         // 年齢が範囲内であるか確認する
         if (!estimateService.isAgeValid(dateOfBirth)) {
             // エラーの場合、Formの生年月日の項目にFieldErrorを追加
-            result.addError(new FieldError("userOrderForm", "dateOfBirth",
-                "年齢は20歳以上100歳以下である必要があります"));
+            result.addError(new FieldError("userOrderForm", "dateOfBirth", EstimateService.AGE_ERROR_MESSAGE));
             model.addAttribute("errors", result.getAllErrors());
             return "confirm";  // 確認画面表示を指示
         }
@@ -184,7 +223,7 @@ public class EstimateController {
             Integer.parseInt(userOrderForm.insuranceType()),
             userOrderForm.kanjiName(),
             userOrderForm.kanaName(),
-            userOrderForm.dateOfBirth(),
+            dateOfBirth,
             userOrderForm.address(),
             userOrderForm.tel(),
             userOrderForm.email(),
@@ -194,9 +233,39 @@ public class EstimateController {
             Integer.parseInt(userOrderForm.treatedType()),
             userOrderForm.medicalHistory()
         );
-        estimateService.registerOrder(insuranceOrder);
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            estimateService.registerOrder(insuranceOrder);
+            return "complete";  // 申し込み完了画面表示を指示
+        }
+        return idempotencyStore.execute(idempotencyKey, () -> {
+            estimateService.registerOrder(insuranceOrder, idempotencyKey);
+            return "complete";  // 申し込み完了画面表示を指示
+        });
+    }
 
-        return "complete";  // 申し込み完了画面表示を指示
+    /**
+     * "/order"にPOSTリクエストが送信されたときのエンドポイント（入力内容をサーバ側で保持している場合）。
+     * トークンに対応する入力内容を取り出し、{@link #order}と同様に見積もり依頼を登録する。
+     *
+     * @param funnelToken    概算見積もり結果画面で発行した、入力内容を取り出すトークン
+     * @param idempotencyKey 概算見積もり結果画面で発行した冪等キー
+     * @param model          遷移先に連携するデータ
+     * @return 遷移先画面ファイル名（申し込み完了画面、入力エラー時は確認画面、保持期間切れの場合は入力画面）
+     */
+    @PostMapping(value = "order", params = {"proceed", "funnelToken"})
+    String orderWithFunnelState(@RequestParam("funnelToken") String funnelToken,
+                                @RequestParam(name = "idempotencyKey", required = false) String idempotencyKey,
+                                Model model) {
+
+        UserOrderForm userOrderForm = funnelStateStore.find(funnelToken);
+        if (userOrderForm == null) {
+            return funnelStateExpired(model);
+        }
+        model.addAttribute("userOrderForm", userOrderForm);
+        // 保持している入力内容は精査済みだが、精査ルールの変更に備えて再度精査する
+        BindingResult result = new BeanPropertyBindingResult(userOrderForm, "userOrderForm");
+        userOrderFormValidator.validate(userOrderForm, result);
+        return order(userOrderForm, result, idempotencyKey, model);
     }
 
     /**
@@ -215,6 +284,36 @@ public class EstimateController {
         return "confirm";  // 確認画面表示を指示
     }
 
+    /**
+     * 確認画面に戻る（入力内容をサーバ側で保持している場合）。
+     *
+     * @param funnelToken 概算見積もり結果画面で発行した、入力内容を取り出すトークン
+     * @param model       遷移先に連携するデータ
+     * @return 遷移先画面ファイル名（確認画面、保持期間切れの場合は入力画面）
+     */
+    @PostMapping(value = "order", params = {"backToConfirm", "funnelToken"})
+    String backToConfirmWithFunnelState(@RequestParam("funnelToken") String funnelToken, Model model) {
+
+        UserOrderForm userOrderForm = funnelStateStore.find(funnelToken);
+        if (userOrderForm == null) {
+            return funnelStateExpired(model);
+        }
+        model.addAttribute("userOrderForm", userOrderForm);
+        return backToConfirm(userOrderForm, model);
+    }
+
+    /**
+     * 入力内容の保持期間が過ぎている場合に、入力画面からやり直させる。
+     *
+     * @param model 遷移先に連携するデータ
+     * @return 遷移先画面ファイル名（入力画面）
+     */
+    private String funnelStateExpired(Model model) {
+        model.addAttribute("errors", List.of(new ObjectError("userOrderForm",
+            "入力内容の保持期間が過ぎました。お手数ですが、もう一度入力してください")));
+        return start(model);
+    }
+
     /**
      * 保険種別に対応する保険名を取得する。
      * @param insuranceType ユーザーが指定した保険種別
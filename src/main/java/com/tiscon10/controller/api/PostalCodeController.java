@@ -0,0 +1,54 @@
+package com.tiscon10.controller.api;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tiscon10.form.JapaneseTextNormalizer;
+import com.tiscon10.service.PostalAddress;
+import com.tiscon10.service.PostalCodeService;
+
+/**
+ * 郵便番号から住所を検索するコントローラークラス。入力画面の住所の入力補完に使用する。
+ *
+ * @author TIS Taro
+ */
+@RestController
+public class PostalCodeController {
+
+    /** ブラウザにキャッシュさせる時間（郵便番号データは起動中に変わらない） */
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    /** 1回に返す住所の最大件数 */
+    private static final int MAX_LIMIT = 100;
+
+    /** 郵便番号サービス */
+    @Autowired
+    private PostalCodeService postalCodeService;
+
+    /**
+     * 郵便番号が前方一致する住所を検索する。
+     * 郵便番号の全角数字・ハイフンは、電話番号と同様に正規化してから検索する。
+     *
+     * @param code  郵便番号の先頭（1〜7桁）
+     * @param limit 最大件数（1〜100）
+     * @return 住所の一覧（JSON）。郵便番号が不正な場合は400
+     */
+    @GetMapping("api/postal-codes")
+    ResponseEntity<List<PostalAddress>> search(@RequestParam("code") String code,
+                                               @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        String prefix = JapaneseTextNormalizer.normalizeTel(code);
+        if (!postalCodeService.isValidPrefix(prefix) || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CACHE_CONTROL)
+            .body(postalCodeService.search(prefix, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.tiscon10.controller.api;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tiscon10.service.PremiumCurve;
+import com.tiscon10.service.PremiumCurveService;
+
+/**
+ * 保険料カーブ（保険種別×年齢ごとの見積もり結果）をJSON形式で提供するコントローラークラス。
+ * <p/>
+ * マーケティングページや提携先のウィジェットから参照される。
+ * 保険料はご職業などの属性による割増・割引を適用する前の基本保険料であり、JSONの{@code premiumBasis}で示す。
+ * レスポンスには内容から算出したETagを付与し、If-None-Matchが一致する場合は本文なしの304を返す。
+ *
+ * @author TIS Taro
+ */
+@RestController
+public class PremiumCurveController {
+
+    /** CDN、ブラウザにキャッシュさせる時間 */
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    /** 保険料カーブサービス */
+    @Autowired
+    private PremiumCurveService premiumCurveService;
+
+    /**
+     * 保険料カーブを取得する。
+     * If-None-Matchの判定（304の応答）は、{@link ResponseEntity}のETagをもとにSpring MVCが行う。
+     *
+     * @return 保険料カーブ（JSON）
+     */
+    @GetMapping("api/premium-curve")
+    ResponseEntity<byte[]> premiumCurve() {
+        PremiumCurve curve = premiumCurveService.getCurve();
+        return ResponseEntity.ok()
+            .eTag(curve.etag())
+            .cacheControl(CACHE_CONTROL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(curve.json());
+    }
+}
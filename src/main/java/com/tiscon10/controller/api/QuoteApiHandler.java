@@ -0,0 +1,273 @@
+package com.tiscon10.controller.api;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.JapaneseTextNormalizer;
+import com.tiscon10.form.QuoteRequest;
+import com.tiscon10.form.UserOrderForm;
+import com.tiscon10.service.EstimateResult;
+import com.tiscon10.service.EstimateService;
+import com.tiscon10.service.IdempotencyStore;
+import com.tiscon10.service.PricingRuleTable;
+import com.tiscon10.validator.UserOrderFormValidator;
+
+/**
+ * 提携先API（見積もり、申し込み）の処理。
+ * <p/>
+ * 見積もりはメモリ上の料金表・価格ルールのみで計算し、データベースにはアクセスしない。
+ * 申し込みはデータベースへの登録を件数・待ち行列に上限のあるスレッドプールで行い、
+ * リクエストを受け付けたスレッドは登録の完了を待たずに解放する（非同期レスポンス）。
+ * 待ち行列が一杯の場合は503を返す。
+ *
+ * @author TIS Taro
+ */
+@Component
+public class QuoteApiHandler {
+
+    /** 申し込みの生年月日の形式（画面と同じ） */
+    private static final DateTimeFormatter DATE_OF_BIRTH_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    /** 冪等キーを指定するヘッダ */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /** 見積もりサービス（料金計算等に使用） */
+    @Autowired
+    private EstimateService estimateService;
+
+    /** 申し込みの二重送信防止 */
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    /** 申し込み内容の精査 */
+    @Autowired
+    private UserOrderFormValidator userOrderFormValidator;
+
+    /** JSONの読み込みに使用するObjectMapper */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** 複数件の見積もりの上限件数 */
+    @Value("${tiscon.api.bulk-max-quotes:1000}")
+    private int bulkMaxQuotes;
+
+    /** 申し込みを登録するスレッド数 */
+    @Value("${tiscon.api.order-threads:8}")
+    private int orderThreads;
+
+    /** 申し込みの登録を待たせる件数 */
+    @Value("${tiscon.api.order-queue-capacity:256}")
+    private int orderQueueCapacity;
+
+    /** 申し込みを登録するスレッドプール */
+    private ThreadPoolExecutor orderExecutor;
+
+    /**
+     * 申し込みを登録するスレッドプールを作成する。
+     */
+    @PostConstruct
+    void init() {
+        orderExecutor = new ThreadPoolExecutor(orderThreads, orderThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(orderQueueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 申し込みを登録するスレッドプールを停止する（受け付け済みの申し込みは登録する）。
+     *
+     * @throws InterruptedException 停止を待つ間に割り込まれた場合
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        orderExecutor.shutdown();
+        orderExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 1件の見積もりを行う。
+     *
+     * @param request リクエスト（{@link QuoteRequest}のJSON）
+     * @return 見積もり結果（{@link EstimateResult}のJSON）、入力エラーの場合は400
+     * @throws Exception リクエストの読み込みに失敗した場合
+     */
+    public ServerResponse quote(ServerRequest request) throws Exception {
+        QuoteRequest quote = request.body(QuoteRequest.class);
+        String error = validate(quote);
+        if (error != null) {
+            return ServerResponse.badRequest().body(Map.of("error", error));
+        }
+        return ServerResponse.ok().body(calculate(quote));
+    }
+
+    /**
+     * 複数件の見積もりを行う。
+     * <p/>
+     * リクエストは全体を読み込まずに1件ずつ読み込んで計算し、上限件数を超えた時点で読み込みを打ち切って413を返す。
+     *
+     * @param request リクエスト（{@link QuoteRequest}のJSON配列）
+     * @return 見積もり結果のJSON配列（リクエストと同じ順）、入力エラーの場合は400
+     * @throws IOException リクエストの読み込みに失敗した場合
+     */
+    public ServerResponse bulkQuote(ServerRequest request) throws IOException {
+        List<EstimateResult> results = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.servletRequest().getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return ServerResponse.badRequest().body(Map.of("error", "request body must be a JSON array"));
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (results.size() == bulkMaxQuotes) {
+                    return ServerResponse.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(Map.of("error", "too many quotes. max=" + bulkMaxQuotes));
+                }
+                QuoteRequest quote = objectMapper.readValue(parser, QuoteRequest.class);
+                String error = validate(quote);
+                if (error != null) {
+                    return ServerResponse.badRequest().body(Map.of("error", error, "index", results.size()));
+                }
+                results.add(calculate(quote));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                return ServerResponse.badRequest().body(Map.of("error", "request body must be an array of objects"));
+            }
+        }
+        return ServerResponse.ok().body(results);
+    }
+
+    /**
+     * 申し込みを登録する。
+     * <p/>
+     * ヘッダ「Idempotency-Key」を指定した場合、同じキーの再送信は登録を行わず最初の結果を返す。
+     * 最初の結果を保持していない場合（保持期間の経過後、他のサーバで登録された場合）は409を返す。
+     *
+     * @param request リクエスト（{@link UserOrderForm}のJSON）
+     * @return 登録結果（非同期）。登録した場合は201、入力エラーの場合は400、
+     *         同じ冪等キーの申し込みが登録済みの場合は409、登録が混雑している場合は503
+     * @throws Exception リクエストの読み込みに失敗した場合
+     */
+    public ServerResponse order(ServerRequest request) throws Exception {
+        // 画面からの申し込みと同様に、精査の前に氏名・シメイ・住所・電話番号を正規化する
+        UserOrderForm form = JapaneseTextNormalizer.normalize(request.body(UserOrderForm.class));
+        Errors errors = new BeanPropertyBindingResult(form, "userOrderForm");
+        userOrderFormValidator.validate(form, errors);
+        if (errors.hasErrors()) {
+            return ServerResponse.badRequest().body(Map.of("errors", errors.getFieldErrors().stream()
+                .map(e -> Map.of("field", e.getField(), "message", String.valueOf(e.getDefaultMessage())))
+                .toList()));
+        }
+        LocalDate dateOfBirth = LocalDate.parse(form.dateOfBirth(), DATE_OF_BIRTH_FORMAT);
+        if (!estimateService.isAgeValid(dateOfBirth)) {
+            return ServerResponse.badRequest().body(Map.of("errors", List.of(
+                Map.of("field", "dateOfBirth", "message", EstimateService.AGE_ERROR_MESSAGE))));
+        }
+
+        InsuranceOrder insuranceOrder = toInsuranceOrder(form, dateOfBirth);
+        String idempotencyKey = request.headers().firstHeader(IDEMPOTENCY_KEY_HEADER);
+        CompletableFuture<ServerResponse> registered;
+        try {
+            registered = CompletableFuture.supplyAsync(() -> {
+                if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+                    estimateService.registerOrder(insuranceOrder);
+                } else if (!idempotencyStore.execute(idempotencyKey,
+                    () -> estimateService.registerOrder(insuranceOrder, idempotencyKey))) {
+                    return ServerResponse.status(HttpStatus.CONFLICT).body(Map.of("registered", false,
+                        "error", "order already registered with the same Idempotency-Key"));
+                }
+                return ServerResponse.status(HttpStatus.CREATED).body(Map.of("registered", true));
+            }, orderExecutor);
+        } catch (RejectedExecutionException e) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ServerResponse.async(registered);
+    }
+
+    /**
+     * 見積もりの依頼内容を精査する。
+     *
+     * @param quote 見積もりの依頼内容
+     * @return エラーメッセージ（エラーがない場合はnull）
+     */
+    private String validate(QuoteRequest quote) {
+        if (quote.insuranceType() == null || quote.dateOfBirth() == null) {
+            return "insuranceType and dateOfBirth are required";
+        }
+        if (estimateService.getInsurances().stream().noneMatch(i -> i.insuranceType().equals(quote.insuranceType()))) {
+            return "unknown insuranceType. insuranceType=" + quote.insuranceType();
+        }
+        if (!estimateService.isAgeValid(quote.dateOfBirth())) {
+            return EstimateService.AGE_ERROR_MESSAGE;
+        }
+        return null;
+    }
+
+    /**
+     * 見積もりを計算する。
+     *
+     * @param quote 見積もりの依頼内容
+     * @return 見積もり結果
+     */
+    private EstimateResult calculate(QuoteRequest quote) {
+        return estimateService.calculateInsuranceFee(quote.insuranceType(), quote.dateOfBirth(),
+            orUnknown(quote.jobType()), orUnknown(quote.marriedType()),
+            orUnknown(quote.income()), orUnknown(quote.treatedType()));
+    }
+
+    /**
+     * 省略された属性を、価格ルールの「不明」に置き換える。
+     *
+     * @param value 属性
+     * @return 属性（省略された場合は{@link PricingRuleTable#UNKNOWN}）
+     */
+    private static int orUnknown(Integer value) {
+        return value != null ? value : PricingRuleTable.UNKNOWN;
+    }
+
+    /**
+     * 申し込み内容を保険申し込みに変換する。
+     *
+     * @param form        申し込み内容
+     * @param dateOfBirth 生年月日
+     * @return 保険申し込み
+     */
+    private static InsuranceOrder toInsuranceOrder(UserOrderForm form, LocalDate dateOfBirth) {
+        return new InsuranceOrder(
+            null,  // 受付番号はデータベース登録時に自動採番されるためnullを設定
+            Integer.parseInt(form.insuranceType()),
+            form.kanjiName(),
+            form.kanaName(),
+            dateOfBirth,
+            form.address(),
+            form.tel(),
+            form.email(),
+            Integer.parseInt(form.marriedType()),
+            Integer.parseInt(form.jobType()),
+            Integer.parseInt(form.income()),
+            Integer.parseInt(form.treatedType()),
+            form.medicalHistory()
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package com.tiscon10.controller.api;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * 提携先API（見積もり、申し込み）のルーティング。
+ * <p/>
+ * 画面向けの{@link com.tiscon10.controller.EstimateController}とは別に、関数型のエンドポイントとして定義する。
+ *
+ * <ul>
+ *     <li>POST /api/quotes : 1件の見積もり</li>
+ *     <li>POST /api/quotes/bulk : 複数件の見積もり（JSON配列）</li>
+ *     <li>POST /api/orders : 申し込み</li>
+ * </ul>
+ *
+ * @author TIS Taro
+ */
+@Configuration
+public class QuoteApiRoutes {
+
+    /**
+     * 提携先APIのルーティングを定義する。
+     *
+     * @param handler 提携先APIの処理
+     * @return ルーティング
+     */
+    @Bean
+    public RouterFunction<ServerResponse> quoteApiRouterFunction(QuoteApiHandler handler) {
+        return RouterFunctions.route()
+            .POST("/api/quotes", RequestPredicates.contentType(MediaType.APPLICATION_JSON), handler::quote)
+            .POST("/api/quotes/bulk", RequestPredicates.contentType(MediaType.APPLICATION_JSON), handler::bulkQuote)
+            .POST("/api/orders", RequestPredicates.contentType(MediaType.APPLICATION_JSON), handler::order)
+            .build();
+    }
+}
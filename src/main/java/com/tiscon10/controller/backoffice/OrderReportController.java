@@ -0,0 +1,75 @@
+package com.tiscon10.controller.backoffice;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tiscon10.service.AgeBandCount;
+import com.tiscon10.service.DailyOrderCount;
+import com.tiscon10.service.OrderReportProjection;
+
+/**
+ * バックオフィス向けに保険申し込みの集計を出力するコントローラークラス。
+ * <p/>
+ * 集計はメモリ上の読み取りモデル（{@link OrderReportProjection}）から取得し、保険申し込みテーブルにはアクセスしない。
+ *
+ * @author TIS Taro
+ */
+@RestController
+public class OrderReportController {
+
+    /** 期間を指定しない場合に出力する日数 */
+    private static final int DEFAULT_DAYS = 30;
+
+    /** 申し込みの集計 */
+    @Autowired
+    private OrderReportProjection orderReportProjection;
+
+    /**
+     * 日別・保険種別・職業別の申し込み件数を出力する。
+     *
+     * @param from 開始日（yyyy-MM-dd、省略時は終了日の29日前）
+     * @param to   終了日（yyyy-MM-dd、省略時は当日）
+     * @return 申し込み件数（JSON）。開始日が終了日より後の場合は400
+     */
+    @GetMapping("backoffice/reports/daily-orders")
+    ResponseEntity<List<DailyOrderCount>> dailyOrders(
+        @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderReportProjection.findDailyCounts(start, end));
+    }
+
+    /**
+     * 保険種別・年齢層別の申し込み件数を出力する。
+     *
+     * @return 申し込み件数（JSON）
+     */
+    @GetMapping("backoffice/reports/age-distribution")
+    List<AgeBandCount> ageDistribution() {
+        return orderReportProjection.findAgeDistribution();
+    }
+
+    /**
+     * 保険申し込みテーブルの全件から集計を作成し直す（完了を待たずに応答する）。
+     * 全件を読み出す重い処理のため、バックオフィスの認証（{@link com.tiscon10.filter.BackofficeAuthFilter}）を経た要求のみ受け付ける。
+     *
+     * @return 202
+     */
+    @PostMapping("backoffice/reports/rebuild")
+    ResponseEntity<Void> rebuild() {
+        orderReportProjection.rebuild();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.tiscon10.controller.backoffice;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.OrderSearchForm;
+import com.tiscon10.service.OrderSearchService;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * バックオフィス向けに保険申し込みを検索するコントローラークラス。
+ * <p/>
+ * 検索結果はメモリに溜めず、1件読み出すごとにレスポンスへ書き出す。
+ * 次のページは、直前のページ最後の受付番号を{@code after}に指定して取得する。
+ *
+ * @author TIS Taro
+ */
+@Controller
+public class OrderSearchController {
+
+    /** 申し込み検索サービス */
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    /** JSON出力に使用するObjectMapper */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 保険申し込みを検索し、JSON形式で出力する。
+     * <p/>
+     * 出力形式は{@code {"orders":[...],"nextAfter":最後の受付番号}}。該当がない場合、{@code nextAfter}はnull。
+     *
+     * @param condition 検索条件
+     * @param response  HTTPレスポンス
+     * @throws IOException 出力に失敗した場合
+     */
+    @GetMapping("backoffice/orders")
+    void searchAsJson(@ModelAttribute OrderSearchForm condition, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("orders");
+            Integer[] last = {null};
+            orderSearchService.searchOrders(condition, order -> {
+                try {
+                    writeJson(json, order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                last[0] = order.receiptNo();
+            });
+            json.writeEndArray();
+            if (last[0] == null) {
+                json.writeNullField("nextAfter");
+            } else {
+                json.writeNumberField("nextAfter", last[0]);
+            }
+            json.writeEndObject();
+        }
+    }
+
+    /**
+     * 保険申し込みを検索し、CSV形式（ヘッダ行付き、UTF-8）で出力する。
+     *
+     * @param condition 検索条件
+     * @param response  HTTPレスポンス
+     * @throws IOException 出力に失敗した場合
+     */
+    @GetMapping("backoffice/orders.csv")
+    void searchAsCsv(@ModelAttribute OrderSearchForm condition, HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (Writer csv = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)) {
+            csv.write("RECEIPT_NO,INSURANCE_TYPE,KANJI_NAME,KANA_NAME,DATE_OF_BIRTH,ADDRESS,TEL,EMAIL_ADDRESS,"
+                + "MARRIED,JOB,INCOME,TREATED,MEDICAL_HISTORY\r\n");
+            orderSearchService.searchOrders(condition, order -> {
+                try {
+                    writeCsv(csv, order);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 保険申し込み1件をJSONオブジェクトとして書き出す。
+     *
+     * @param json  出力先
+     * @param order 保険申し込み
+     * @throws IOException 出力に失敗した場合
+     */
+    private void writeJson(JsonGenerator json, InsuranceOrder order) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("receiptNo", order.receiptNo());
+        json.writeNumberField("insuranceType", order.insuranceType());
+        json.writeStringField("kanjiName", order.kanjiName());
+        json.writeStringField("kanaName", order.kanaName());
+        json.writeStringField("dateOfBirth", order.dateOfBirth().toString());
+        json.writeStringField("address", order.Address());
+        json.writeStringField("tel", order.tel());
+        json.writeStringField("email", order.email());
+        json.writeNumberField("marriedType", order.marriedType());
+        json.writeNumberField("jobType", order.jobType());
+        json.writeNumberField("income", order.income());
+        json.writeNumberField("treatedType", order.treatedType());
+        json.writeStringField("medicalHistory", order.medicalHistory());
+        json.writeEndObject();
+    }
+
+    /**
+     * 保険申し込み1件をCSVの1行として書き出す。
+     *
+     * @param csv   出力先
+     * @param order 保険申し込み
+     * @throws IOException 出力に失敗した場合
+     */
+    private void writeCsv(Writer csv, InsuranceOrder order) throws IOException {
+        csv.write(String.valueOf(order.receiptNo()));
+        csv.write(',');
+        csv.write(String.valueOf(order.insuranceType()));
+        csv.write(',');
+        writeCsvText(csv, order.kanjiName());
+        csv.write(',');
+        writeCsvText(csv, order.kanaName());
+        csv.write(',');
+        csv.write(order.dateOfBirth().toString());
+        csv.write(',');
+        writeCsvText(csv, order.Address());
+        csv.write(',');
+        writeCsvText(csv, order.tel());
+        csv.write(',');
+        writeCsvText(csv, order.email());
+        csv.write(',');
+        csv.write(String.valueOf(order.marriedType()));
+        csv.write(',');
+        csv.write(String.valueOf(order.jobType()));
+        csv.write(',');
+        csv.write(String.valueOf(order.income()));
+        csv.write(',');
+        csv.write(String.valueOf(order.treatedType()));
+        csv.write(',');
+        writeCsvText(csv, order.medicalHistory());
+        csv.write("\r\n");
+    }
+
+    /**
+     * 文字列をCSVの項目として書き出す。区切り文字、改行、ダブルクォートを含む場合は囲んでエスケープする。
+     *
+     * @param csv   出力先
+     * @param value 値（nullの場合は空欄）
+     * @throws IOException 出力に失敗した場合
+     */
+    private void writeCsvText(Writer csv, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.write('"');
+            }
+            csv.write(c);
+        }
+        csv.write('"');
+    }
+}
@@ -1,10 +1,20 @@
 package com.tiscon10.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.DataClassRowMapper;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
@@ -12,8 +22,11 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
 
+import com.tiscon10.domain.AgeAdjustmentRate;
 import com.tiscon10.domain.InsuranceOrder;
 import com.tiscon10.domain.InsuranceType;
+import com.tiscon10.domain.OrderPlacedEvent;
+import com.tiscon10.form.OrderSearchForm;
 
 /**
  * 保険見積もり機能においてDBとのやり取りを行うクラス。
@@ -23,6 +36,51 @@ import com.tiscon10.domain.InsuranceType;
 @Component
 public class EstimateDao {
 
+    /**
+     * 保険申し込みを大量に読み出す際のフェッチサイズ
+     */
+    private static final int ORDER_FETCH_SIZE = 500;
+
+    /**
+     * 保険申し込みの冪等キーの一意制約（インデックス）の名前
+     */
+    private static final String IDEMPOTENCY_KEY_CONSTRAINT = "UK_INSURANCE_ORDER_IDEMPOTENCY_KEY";
+
+    /**
+     * 自動採番した値を取得する列（受付番号）
+     */
+    private static final String[] RECEIPT_NO_COLUMN = {"RECEIPT_NO"};
+
+    /**
+     * 保険申し込みを登録するSQL
+     */
+    private static final String INSERT_INSURANCE_ORDER_SQL = """
+        INSERT INTO INSURANCE_ORDER(
+            INSURANCE_TYPE, KANJI_NAME, KANA_NAME, DATE_OF_BIRTH, ADDRESS, TEL, EMAIL_ADDRESS, MARRIED, JOB, INCOME, TREATED, MEDICAL_HISTORY,
+            IDEMPOTENCY_KEY
+        )
+        VALUES(
+            :insuranceType, :kanjiName, :kanaName, :dateOfBirth, :address, :tel, :email, :marriedType, :jobType, :income, :treatedType, :medicalHistory,
+            :idempotencyKey
+        )
+        """;
+
+    /**
+     * 受付番号を指定して保険申し込みを登録するSQL（複数ノード構成で、払い出し済みの受付番号を使用する場合）
+     */
+    private static final String INSERT_INSURANCE_ORDER_WITH_RECEIPT_NO_SQL = """
+        INSERT INTO INSURANCE_ORDER(
+            RECEIPT_NO,
+            INSURANCE_TYPE, KANJI_NAME, KANA_NAME, DATE_OF_BIRTH, ADDRESS, TEL, EMAIL_ADDRESS, MARRIED, JOB, INCOME, TREATED, MEDICAL_HISTORY,
+            IDEMPOTENCY_KEY
+        )
+        VALUES(
+            :receiptNo,
+            :insuranceType, :kanjiName, :kanaName, :dateOfBirth, :address, :tel, :email, :marriedType, :jobType, :income, :treatedType, :medicalHistory,
+            :idempotencyKey
+        )
+        """;
+
     /**
      * データベース・アクセスAPIである「JDBC」を使い、名前付きパラメータを用いてSQLを実行するクラス
      */
@@ -40,56 +98,355 @@ public class EstimateDao {
     }
 
     /**
-     * 保険種別名を取得する。
+     * 年齢調整率テーブルに登録されているすべての調整率を取得する。
+     *
+     * @return すべての年齢調整率
+     */
+    public List<AgeAdjustmentRate> getAllAdjustmentRates() {
+        String sql = "SELECT AGE, ADJUSTMENT_RATE FROM AGE_ADJUSTMENT_RATE";
+        return parameterJdbcTemplate.query(sql, DataClassRowMapper.newInstance(AgeAdjustmentRate.class));
+    }
+
+    /**
+     * 料金表（保険種別テーブル、年齢調整率テーブル）のバージョンを取得する。
+     *
+     * @return 料金表のバージョン
+     */
+    public long findRateTableVersion() {
+        String sql = "SELECT VERSION FROM RATE_TABLE_VERSION WHERE ID = 1";
+        return parameterJdbcTemplate.getJdbcTemplate().queryForObject(sql, Long.class);
+    }
+
+    /**
+     * 料金表の登録に使用したCSVファイルのチェックサムを、料金表バージョンの行をロックして取得する。
+     *
+     * @return チェックサム（未登録の場合はnull）
+     */
+    public String findRateTableChecksumForUpdate() {
+        String sql = "SELECT CHECKSUM FROM RATE_TABLE_VERSION WHERE ID = 1 FOR UPDATE";
+        return parameterJdbcTemplate.getJdbcTemplate().queryForObject(sql, String.class);
+    }
+
+    /**
+     * 料金表（保険種別テーブル、年齢調整率テーブル）にCSVファイルの内容を登録する。
+     */
+    public void mergeRateTables() {
+        parameterJdbcTemplate.getJdbcTemplate().batchUpdate(
+            "MERGE INTO AGE_ADJUSTMENT_RATE SELECT * FROM CSVREAD('classpath:/data/AGE_ADJUSTMENT_RATE.csv')",
+            "MERGE INTO INSURANCE_TYPE SELECT * FROM CSVREAD('classpath:/data/INSURANCE_TYPE.csv')");
+    }
+
+    /**
+     * 料金表のバージョンを更新する。
      *
-     * @param insuranceType 保険種別タイプ
-     * @return 保険種別名
+     * @param checksum 料金表の登録に使用したCSVファイルのチェックサム
      */
-    public String findInsuranceName(Integer insuranceType) {
-        String sql = "SELECT INSURANCE_NAME FROM INSURANCE_TYPE WHERE INSURANCE_TYPE = :insuranceType";
-        SqlParameterSource paramSource = new MapSqlParameterSource("insuranceType", insuranceType);
-        return parameterJdbcTemplate.queryForObject(sql, paramSource, String.class);
+    public void updateRateTableVersion(String checksum) {
+        String sql = "UPDATE RATE_TABLE_VERSION SET VERSION = VERSION + 1, CHECKSUM = :checksum WHERE ID = 1";
+        parameterJdbcTemplate.update(sql, new MapSqlParameterSource("checksum", checksum));
     }
 
     /**
-     * ユーザーが選択した保険種別の保険料を取得する。
+     * 受付番号を指定した件数分まとめて払い出す。
+     * <p/>
+     * 払い出し済みの次の番号を更新してから読み出すため、同じトランザクション内で実行すること。
      *
-     * @param insuranceType 保険種別タイプ
-     * @return 保険料
+     * @param size 払い出す件数
+     * @return 払い出した範囲の先頭の受付番号
+     */
+    public long leaseReceiptNumbers(int size) {
+        SqlParameterSource paramSource = new MapSqlParameterSource("size", size);
+        parameterJdbcTemplate.update(
+            "UPDATE RECEIPT_NO_LEASE SET NEXT_RECEIPT_NO = NEXT_RECEIPT_NO + :size WHERE ID = 1", paramSource);
+        return parameterJdbcTemplate.queryForObject(
+            "SELECT NEXT_RECEIPT_NO - :size FROM RECEIPT_NO_LEASE WHERE ID = 1", paramSource, Long.class);
+    }
+
+    /**
+     * 受付番号払い出しテーブルの次に払い出す受付番号を、登録済みの保険申し込みの受付番号の最大値の次以降とする。
+     * <p/>
+     * 単一ノード構成で自動採番された受付番号を、複数ノード構成に切り替えた後に払い出さないために使用する。
+     */
+    public void alignReceiptNoLease() {
+        parameterJdbcTemplate.getJdbcTemplate().update("""
+            UPDATE RECEIPT_NO_LEASE
+            SET NEXT_RECEIPT_NO = GREATEST(NEXT_RECEIPT_NO, (SELECT COALESCE(MAX(RECEIPT_NO), 0) + 1 FROM INSURANCE_ORDER))
+            WHERE ID = 1
+            """);
+    }
+
+    /**
+     * 受付番号の自動採番の次の値を、払い出し済みの範囲および登録済みの保険申し込みの受付番号の最大値より後ろとする。
+     * <p/>
+     * 複数ノード構成で払い出した受付番号を、単一ノード構成に切り替えた後に自動採番しないために使用する。
+     * 自動採番の次の値を変更する場合のみDDLを実行する（実行中のトランザクションはコミットされる）。
+     *
+     * @return 変更した場合は変更後の自動採番の次の値、変更しなかった場合は-1
+     */
+    public long alignReceiptNoIdentity() {
+        JdbcTemplate jdbcTemplate = parameterJdbcTemplate.getJdbcTemplate();
+        long next = jdbcTemplate.queryForObject("""
+            SELECT GREATEST(NEXT_RECEIPT_NO, (SELECT COALESCE(MAX(RECEIPT_NO), 0) + 1 FROM INSURANCE_ORDER))
+            FROM RECEIPT_NO_LEASE WHERE ID = 1
+            """, Long.class);
+        Long base = jdbcTemplate.queryForObject("""
+            SELECT IDENTITY_BASE FROM INFORMATION_SCHEMA.COLUMNS
+            WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = 'INSURANCE_ORDER' AND COLUMN_NAME = 'RECEIPT_NO'
+            """, Long.class);
+        if (base == null || base >= next) {
+            return -1;
+        }
+        jdbcTemplate.execute("ALTER TABLE INSURANCE_ORDER ALTER COLUMN RECEIPT_NO RESTART WITH " + next);
+        return next;
+    }
+
+    /**
+     * コミット済みの変更をディスクに書き込む（H2の{@code CHECKPOINT SYNC}）。
+     * コミット後のディスクへの書き込みを遅延させる設定（WRITE_DELAY）でも、戻った時点で変更は失われない。
      */
-    public int findMonthlyFee(Integer insuranceType) {
-        String sql = "SELECT MONTHLY_FEE FROM INSURANCE_TYPE WHERE INSURANCE_TYPE = :insuranceType";
-        SqlParameterSource paramSource = new MapSqlParameterSource("insuranceType", insuranceType);
-        return parameterJdbcTemplate.queryForObject(sql, paramSource, Integer.class);
+    public void checkpointSync() {
+        parameterJdbcTemplate.getJdbcTemplate().execute("CHECKPOINT SYNC");
     }
 
     /**
-     * ユーザーの年齢に合致する調整率を取得する。
+     * 一意制約違反が、冪等キーの重複によるものかを判定する。
+     * 受付番号（主キー）の重複など、冪等キー以外の一意制約違反の場合は偽とする。
      *
-     * @param age 年齢
-     * @return 保険料年齢別調整率
+     * @param e 一意制約違反
+     * @return 冪等キーの重複による場合、真
      */
-    public double findAdjustmentRateByAge(int age) {
-        String sql = "SELECT ADJUSTMENT_RATE FROM AGE_ADJUSTMENT_RATE WHERE AGE = :age";
-        SqlParameterSource paramSource = new MapSqlParameterSource("age", age);
-        return parameterJdbcTemplate.queryForObject(sql, paramSource, Double.class);
+    public static boolean isIdempotencyKeyViolation(DuplicateKeyException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toUpperCase().contains(IDEMPOTENCY_KEY_CONSTRAINT);
     }
 
     /**
      * データベースに見積もり依頼を登録する。
      *
      * @param insuranceOrder 見積もり依頼情報
+     * @return 登録した見積もり依頼情報（受付番号を自動採番した場合は、その受付番号を設定したもの）
+     */
+    public InsuranceOrder insertInsuranceOrder(InsuranceOrder insuranceOrder) {
+        return insertInsuranceOrder(insuranceOrder, null);
+    }
+
+    /**
+     * データベースに見積もり依頼を冪等キーとともに登録する。
+     * <p/>
+     * 同じ冪等キーの見積もり依頼が登録済みの場合は、一意制約違反により{@link DuplicateKeyException}が送出される。
+     * 受付番号の重複も同じ例外となるため、{@link #isIdempotencyKeyViolation(DuplicateKeyException)}で区別すること。
+     *
+     * @param insuranceOrder 見積もり依頼情報
+     * @param idempotencyKey 冪等キー（指定しない場合はnull）
+     * @return 登録した見積もり依頼情報（受付番号を自動採番した場合は、その受付番号を設定したもの）
      */
-    public void insertInsuranceOrder(InsuranceOrder insuranceOrder) {
-        String sql = """
-            INSERT INTO INSURANCE_ORDER(
-                INSURANCE_TYPE, KANJI_NAME, KANA_NAME, DATE_OF_BIRTH, ADDRESS, TEL, EMAIL_ADDRESS, MARRIED, JOB, INCOME, TREATED, MEDICAL_HISTORY
-            )
-            VALUES(
-                :insuranceType, :kanjiName, :kanaName, :dateOfBirth, :address, :tel, :email, :marriedType, :jobType, :income, :treatedType, :medicalHistory
-            )
-            """;
+    public InsuranceOrder insertInsuranceOrder(InsuranceOrder insuranceOrder, String idempotencyKey) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
-        parameterJdbcTemplate.update(sql, new BeanPropertySqlParameterSource(insuranceOrder), keyHolder);
+        MapSqlParameterSource paramSource = toParameterSource(insuranceOrder)
+            .addValue("idempotencyKey", idempotencyKey);
+        parameterJdbcTemplate.update(insertSql(insuranceOrder), paramSource, keyHolder, RECEIPT_NO_COLUMN);
+        if (insuranceOrder.receiptNo() != null) {
+            return insuranceOrder;
+        }
+        return insuranceOrder.withReceiptNo(keyHolder.getKey().intValue());
+    }
+
+    /**
+     * データベースに見積もり依頼をまとめて登録する（JDBCバッチ更新）。
+     * 受付番号は、すべての見積もり依頼で指定するか、すべてで指定しない（自動採番）かのいずれかとすること。
+     *
+     * @param insuranceOrders 見積もり依頼情報
+     * @return 登録した見積もり依頼情報（受付番号を自動採番した場合は、その受付番号を設定したもの）
+     */
+    public List<InsuranceOrder> insertInsuranceOrders(List<InsuranceOrder> insuranceOrders) {
+        SqlParameterSource[] batch = new SqlParameterSource[insuranceOrders.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = toParameterSource(insuranceOrders.get(i)).addValue("idempotencyKey", null);
+        }
+        if (batch.length == 0 || insuranceOrders.get(0).receiptNo() != null) {
+            if (batch.length > 0) {
+                parameterJdbcTemplate.batchUpdate(INSERT_INSURANCE_ORDER_WITH_RECEIPT_NO_SQL, batch);
+            }
+            return insuranceOrders;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        parameterJdbcTemplate.batchUpdate(INSERT_INSURANCE_ORDER_SQL, batch, keyHolder, RECEIPT_NO_COLUMN);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<InsuranceOrder> inserted = new ArrayList<>(insuranceOrders.size());
+        for (int i = 0; i < insuranceOrders.size(); i++) {
+            Number receiptNo = (Number) keys.get(i).values().iterator().next();
+            inserted.add(insuranceOrders.get(i).withReceiptNo(receiptNo.intValue()));
+        }
+        return inserted;
+    }
+
+    /**
+     * 受付番号の有無に応じた登録SQLを取得する。
+     *
+     * @param insuranceOrder 見積もり依頼情報
+     * @return 登録SQL
+     */
+    private static String insertSql(InsuranceOrder insuranceOrder) {
+        return insuranceOrder.receiptNo() == null ? INSERT_INSURANCE_ORDER_SQL : INSERT_INSURANCE_ORDER_WITH_RECEIPT_NO_SQL;
+    }
+
+    /**
+     * 見積もり依頼情報を登録SQLのパラメータに変換する。
+     *
+     * @param insuranceOrder 見積もり依頼情報
+     * @return SQLパラメータ
+     */
+    private MapSqlParameterSource toParameterSource(InsuranceOrder insuranceOrder) {
+        return new MapSqlParameterSource()
+            .addValue("receiptNo", insuranceOrder.receiptNo())
+            .addValue("insuranceType", insuranceOrder.insuranceType())
+            .addValue("kanjiName", insuranceOrder.kanjiName())
+            .addValue("kanaName", insuranceOrder.kanaName())
+            .addValue("dateOfBirth", insuranceOrder.dateOfBirth())
+            .addValue("address", insuranceOrder.Address())
+            .addValue("tel", insuranceOrder.tel())
+            .addValue("email", insuranceOrder.email())
+            .addValue("marriedType", insuranceOrder.marriedType())
+            .addValue("jobType", insuranceOrder.jobType())
+            .addValue("income", insuranceOrder.income())
+            .addValue("treatedType", insuranceOrder.treatedType())
+            .addValue("medicalHistory", insuranceOrder.medicalHistory());
+    }
+
+    /**
+     * 検索条件に合致する保険申し込みを受付番号の昇順に取得し、1件ずつ{@code consumer}に渡す。
+     * <p/>
+     * 結果はメモリに溜めずに前方向カーソルで読み進める。
+     * ページングは{@code OFFSET}ではなく受付番号によるキーセット方式で行う。
+     * 生年月日の範囲は{@code DATE_OF_BIRTH}、申し込み日の範囲は{@code ORDERED_AT}で絞り込む。
+     *
+     * @param condition 検索条件
+     * @param limit     取得件数の上限
+     * @param consumer  取得した保険申し込みを受け取る処理
+     */
+    public void findInsuranceOrders(OrderSearchForm condition, int limit, Consumer<InsuranceOrder> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+            .append(InsuranceOrderRowMapper.COLUMNS)
+            .append(" FROM INSURANCE_ORDER WHERE RECEIPT_NO > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(condition.after() == null ? 0 : condition.after());
+        if (condition.insuranceType() != null) {
+            sql.append(" AND INSURANCE_TYPE = ?");
+            args.add(condition.insuranceType());
+        }
+        if (condition.dateOfBirthFrom() != null) {
+            sql.append(" AND DATE_OF_BIRTH >= ?");
+            args.add(condition.dateOfBirthFrom());
+        }
+        if (condition.dateOfBirthTo() != null) {
+            sql.append(" AND DATE_OF_BIRTH <= ?");
+            args.add(condition.dateOfBirthTo());
+        }
+        if (condition.orderedFrom() != null) {
+            sql.append(" AND ORDERED_AT >= ?");
+            args.add(condition.orderedFrom().atStartOfDay());
+        }
+        if (condition.orderedTo() != null) {
+            // 終了日を含めるため、翌日の0時より前を条件とする
+            sql.append(" AND ORDERED_AT < ?");
+            args.add(condition.orderedTo().plusDays(1).atStartOfDay());
+        }
+        if (condition.jobType() != null) {
+            sql.append(" AND JOB = ?");
+            args.add(condition.jobType());
+        }
+        if (condition.marriedType() != null) {
+            sql.append(" AND MARRIED = ?");
+            args.add(condition.marriedType());
+        }
+        sql.append(" ORDER BY RECEIPT_NO FETCH FIRST ? ROWS ONLY");
+        args.add(limit);
+
+        parameterJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Math.min(limit, ORDER_FETCH_SIZE));
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(InsuranceOrderRowMapper.INSTANCE.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    /**
+     * 指定の位置（申し込み日時、受付番号）より後に登録された保険申し込みを申し込み日時、受付番号の昇順に取得し、
+     * 申し込み日時とともに1件ずつ{@code consumer}に渡す。申し込み日時から{@code delay}が過ぎていない申し込みは取得しない。
+     * <p/>
+     * 分析基盤向けの差分エクスポートに使用する。結果はメモリに溜めずに前方向カーソルで読み進める。
+     * 申し込み日時が未設定の申し込みは取得しない。
+     *
+     * @param afterOrderedAt 前回取得した最後の申し込み日時（nullの場合は先頭から）
+     * @param afterReceiptNo 前回取得した最後の受付番号
+     * @param delay          申し込み日時から取得するまでに置く時間
+     * @param consumer       取得した保険申し込みと申し込み日時を受け取る処理
+     */
+    public void scanInsuranceOrdersOrderedAfter(LocalDateTime afterOrderedAt, Integer afterReceiptNo, Duration delay,
+                                                BiConsumer<InsuranceOrder, LocalDateTime> consumer) {
+        // 先頭の条件で索引の範囲を絞り込み、同じ申し込み日時の中は受付番号で続きから読む
+        String sql = "SELECT " + InsuranceOrderRowMapper.COLUMNS + ", ORDERED_AT FROM INSURANCE_ORDER"
+            + " WHERE ORDERED_AT < DATEADD(SECOND, ?, LOCALTIMESTAMP)"
+            + (afterOrderedAt == null ? "" : " AND ORDERED_AT >= ? AND (ORDERED_AT > ? OR RECEIPT_NO > ?)")
+            + " ORDER BY ORDERED_AT, RECEIPT_NO";
+        parameterJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(ORDER_FETCH_SIZE);
+            ps.setLong(1, -delay.toSeconds());
+            if (afterOrderedAt != null) {
+                ps.setObject(2, afterOrderedAt);
+                ps.setObject(3, afterOrderedAt);
+                ps.setInt(4, afterReceiptNo);
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(InsuranceOrderRowMapper.INSTANCE.mapRow(rs, rs.getRow()),
+                rs.getObject(14, LocalDateTime.class));
+        });
+    }
+
+    /**
+     * すべての保険申し込みを受付番号の昇順に取得し、1件ずつ{@code consumer}に渡す。
+     * <p/>
+     * 起動時の索引の作成など、全件を読み出す処理に使用する。結果はメモリに溜めずに前方向カーソルで読み進める。
+     *
+     * @param consumer 取得した保険申し込みを受け取る処理
+     */
+    public void scanInsuranceOrders(Consumer<InsuranceOrder> consumer) {
+        String sql = "SELECT " + InsuranceOrderRowMapper.COLUMNS + " FROM INSURANCE_ORDER ORDER BY RECEIPT_NO";
+        parameterJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(ORDER_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            consumer.accept(InsuranceOrderRowMapper.INSTANCE.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    /**
+     * すべての保険申し込みについて、集計に使用する項目を取得し、1件ずつ{@code consumer}に渡す。
+     * <p/>
+     * バックオフィス向けの集計を作成し直す際に使用する。結果はメモリに溜めずに前方向カーソルで読み進める。
+     * 読み出しを始めた時点（データベースの時刻）から{@code recent}以内に登録された申し込みには、その旨をあわせて渡す。
+     *
+     * @param recent   直近とみなす期間
+     * @param consumer 取得した項目（登録イベントの形式）と、直近に登録された場合は真を受け取る処理
+     */
+    public void scanOrderPlacedEvents(Duration recent, BiConsumer<OrderPlacedEvent, Boolean> consumer) {
+        String sql = "SELECT RECEIPT_NO, INSURANCE_TYPE, JOB, DATE_OF_BIRTH, CAST(ORDERED_AT AS DATE), "
+            + "ORDERED_AT >= DATEADD(SECOND, ?, LOCALTIMESTAMP) FROM INSURANCE_ORDER";
+        parameterJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(ORDER_FETCH_SIZE);
+            ps.setLong(1, -recent.toSeconds());
+            return ps;
+        }, rs -> {
+            consumer.accept(new OrderPlacedEvent(rs.getInt(1), rs.getInt(2), rs.getInt(3),
+                rs.getObject(4, LocalDate.class), rs.getObject(5, LocalDate.class)), rs.getBoolean(6));
+        });
     }
 }
@@ -0,0 +1,47 @@
+package com.tiscon10.dao;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * 保険申し込みテーブルの1行を{@link InsuranceOrder}に変換するクラス。
+ * <p/>
+ * 大量件数を読み出すため、リフレクションを用いず列番号で値を取得する。
+ * SELECT句の列順は{@link #COLUMNS}に合わせること。
+ *
+ * @author TIS Taro
+ */
+public class InsuranceOrderRowMapper implements RowMapper<InsuranceOrder> {
+
+    /** 読み出す列（この順で値を取得する） */
+    public static final String COLUMNS = """
+        RECEIPT_NO, INSURANCE_TYPE, KANJI_NAME, KANA_NAME, DATE_OF_BIRTH, ADDRESS, TEL, EMAIL_ADDRESS, MARRIED, JOB, INCOME, TREATED, MEDICAL_HISTORY""";
+
+    /** 共有インスタンス（状態を持たないためスレッドセーフ） */
+    public static final InsuranceOrderRowMapper INSTANCE = new InsuranceOrderRowMapper();
+
+    @Override
+    public InsuranceOrder mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Date dateOfBirth = rs.getDate(5);
+        return new InsuranceOrder(
+            rs.getInt(1),
+            rs.getInt(2),
+            rs.getString(3),
+            rs.getString(4),
+            dateOfBirth == null ? null : dateOfBirth.toLocalDate(),
+            rs.getString(6),
+            rs.getString(7),
+            rs.getString(8),
+            rs.getInt(9),
+            rs.getInt(10),
+            rs.getInt(11),
+            rs.getInt(12),
+            rs.getString(13)
+        );
+    }
+}
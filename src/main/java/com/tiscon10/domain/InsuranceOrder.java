@@ -1,5 +1,7 @@
 package com.tiscon10.domain;
 
+import java.time.LocalDate;
+
 /**
  * 保険申し込み
  * 
@@ -24,7 +26,7 @@ public record InsuranceOrder(
     Integer insuranceType,   // 保険種別
     String kanjiName,        // 漢字氏名
     String kanaName,         // カナ氏名
-    String dateOfBirth,      // 生年月日
+    LocalDate dateOfBirth,   // 生年月日
     String Address,          // 住所
     String tel,              // 電話番号
     String email,            // メールアドレス
@@ -35,4 +37,14 @@ public record InsuranceOrder(
     String medicalHistory    // 病歴
 ) {
 
+    /**
+     * 受付番号を設定した保険申し込みを生成する。
+     *
+     * @param receiptNo 受付番号
+     * @return 受付番号以外が同じ保険申し込み
+     */
+    public InsuranceOrder withReceiptNo(Integer receiptNo) {
+        return new InsuranceOrder(receiptNo, insuranceType, kanjiName, kanaName, dateOfBirth, Address, tel, email,
+            marriedType, jobType, income, treatedType, medicalHistory);
+    }
 }
@@ -0,0 +1,36 @@
+package com.tiscon10.domain;
+
+import java.time.LocalDate;
+
+/**
+ * 保険申し込みが登録されたことを通知するイベント。
+ * 集計（バックオフィス向けの読み取りモデル）に必要な項目のみを持つ。
+ *
+ * @param receiptNo     受付番号
+ * @param insuranceType 保険種別
+ * @param jobType       職業
+ * @param dateOfBirth   生年月日
+ * @param orderedOn     申し込み日
+ */
+public record OrderPlacedEvent(
+
+    Integer receiptNo,      // 受付番号
+    Integer insuranceType,  // 保険種別
+    Integer jobType,        // 職業
+    LocalDate dateOfBirth,  // 生年月日
+    LocalDate orderedOn     // 申し込み日
+
+) {
+
+    /**
+     * 登録した保険申し込みのイベントを生成する。
+     *
+     * @param order     保険申し込み
+     * @param orderedOn 申し込み日
+     * @return イベント
+     */
+    public static OrderPlacedEvent of(InsuranceOrder order, LocalDate orderedOn) {
+        return new OrderPlacedEvent(order.receiptNo(), order.insuranceType(), order.jobType(), order.dateOfBirth(),
+            orderedOn);
+    }
+}
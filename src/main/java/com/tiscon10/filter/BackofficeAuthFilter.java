@@ -0,0 +1,86 @@
+package com.tiscon10.filter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * バックオフィス（/backoffice/以下）へのリクエストにBasic認証を求めるフィルタ。
+ * <p/>
+ * 申し込みの検索結果には個人情報が含まれるため、利用者名とパスワードが一致しない場合は401（Unauthorized）を返す。
+ * パスワードを設定していない場合は、バックオフィスへのリクエストはすべて403（Forbidden）を返す。
+ */
+@Component
+public class BackofficeAuthFilter extends OncePerRequestFilter {
+
+    /** 認証の対象のパス */
+    private static final String BACKOFFICE_PATH = "/backoffice";
+
+    /** 認証方式の接頭辞 */
+    private static final String BASIC_PREFIX = "Basic ";
+
+    /** 利用者名 */
+    @Value("${tiscon.backoffice.username:backoffice}")
+    private String username;
+
+    /** パスワード（空の場合はバックオフィスを利用不可とする） */
+    @Value("${tiscon.backoffice.password:}")
+    private String password;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // URLエンコードや「//」で認証を回避されないよう、デコード・正規化したパスで判定する
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        return !path.equals(BACKOFFICE_PATH) && !path.startsWith(BACKOFFICE_PATH + "/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        if (password == null || password.isEmpty()) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+        if (!authenticated(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"backoffice\", charset=\"UTF-8\"");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Authorizationヘッダの利用者名とパスワードが設定と一致するかを判定する。
+     *
+     * @param authorization Authorizationヘッダの値
+     * @return 一致する場合、真
+     */
+    private boolean authenticated(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            return false;
+        }
+        byte[] credentials;
+        try {
+            credentials = Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length()).trim());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // 一致しない位置により応答時間が変わらないよう、全体を比較する
+        byte[] expected = (username + ":" + password).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, credentials);
+    }
+}
@@ -0,0 +1,135 @@
+package com.tiscon10.filter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * クライアント単位のトークンバケットによる流量制限。
+ * <p/>
+ * バケットの状態は「次のトークンが空く時刻（TAT: Theoretical Arrival Time）」1つで表現し（GCRA）、
+ * ロックを使わずにCASで更新する。
+ * <p/>
+ * トークンが満タンまで回復したバケットは新規のバケットと区別がつかないため、タイミングホイールで破棄する。
+ * ホイールへの登録はバケットの生成時のみ行い、掃除の際にまだ回復していないバケットを登録し直す。
+ */
+final class ClientRateLimiter {
+
+    /** タイミングホイールのスロット数 */
+    private static final int WHEEL_SLOTS = 64;
+
+    /** タイミングホイールの1スロットの時間幅 */
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** トークン1つが回復する時間 */
+    private final long emissionIntervalNanos;
+
+    /** トークンが満タンから空になるまでの時間（容量×回復時間） */
+    private final long burstNanos;
+
+    /** クライアントごとのバケット（値はTAT） */
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /** 破棄を確認する時刻ごとのクライアント */
+    private final List<Queue<String>> wheel =
+        Stream.<Queue<String>>generate(ConcurrentLinkedQueue::new).limit(WHEEL_SLOTS).toList();
+
+    /** 掃除済みのスロットの時刻 */
+    private final AtomicLong sweptTick;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param limit 流量制限
+     * @param now   現在時刻（{@link System#nanoTime()}）
+     */
+    ClientRateLimiter(RateLimitProperties.Limit limit, long now) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.refillPerSecond());
+        this.burstNanos = emissionIntervalNanos * limit.capacity();
+        this.sweptTick = new AtomicLong(Math.floorDiv(now, TICK_NANOS));
+    }
+
+    /**
+     * クライアントのバケットからトークンを1つ取得する。
+     *
+     * @param client クライアントの識別子
+     * @param now    現在時刻（{@link System#nanoTime()}）
+     * @return 取得できた場合は0、取得できなかった場合は次のトークンが空くまでの時間（ナノ秒）
+     */
+    long tryAcquire(String client, long now) {
+        sweep(now);
+
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = buckets.putIfAbsent(client, created);
+            if (bucket == null) {
+                bucket = created;
+                schedule(client, now + burstNanos);
+            }
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long excess = newTat - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 指定した時刻以降に破棄を確認するよう、クライアントをタイミングホイールに登録する。
+     *
+     * @param client クライアントの識別子
+     * @param at     確認する時刻（{@link System#nanoTime()}）
+     */
+    private void schedule(String client, long at) {
+        long tick = Math.floorDiv(at, TICK_NANOS) + 1;
+        wheel.get(Math.floorMod(tick, WHEEL_SLOTS)).add(client);
+    }
+
+    /**
+     * 経過したスロットのクライアントのうち、トークンが満タンまで回復したものを破棄する。
+     * 掃除は1つのスレッドのみが行い、他のスレッドは待たずにトークンの取得に進む。
+     *
+     * @param now 現在時刻（{@link System#nanoTime()}）
+     */
+    private void sweep(long now) {
+        long current = Math.floorDiv(now, TICK_NANOS);
+        long swept = sweptTick.get();
+        if (current <= swept || !sweptTick.compareAndSet(swept, current)) {
+            return;
+        }
+        long from = Math.max(swept + 1, current - WHEEL_SLOTS + 1);
+        for (long tick = from; tick <= current; tick++) {
+            Queue<String> slot = wheel.get(Math.floorMod(tick, WHEEL_SLOTS));
+            // 登録し直したクライアントを同じ掃除で再度処理しないよう、開始時点の件数のみ処理する
+            for (int i = slot.size(); i > 0; i--) {
+                String client = slot.poll();
+                if (client == null) {
+                    break;
+                }
+                AtomicLong bucket = buckets.get(client);
+                if (bucket == null) {
+                    continue;
+                }
+                long tat = bucket.get();
+                if (tat - now <= 0) {
+                    buckets.remove(client, bucket);
+                } else {
+                    schedule(client, tat);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tiscon10.filter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.tiscon10.form.JapaneseTextNormalizer;
+
+/**
+ * 見積もりの画面遷移で送信された氏名、シメイ、住所、電話番号を、精査（入力フォームへのバインド）の前に正規化するフィルタ。
+ * <p/>
+ * 正規化の内容は{@link JapaneseTextNormalizer}を参照。正規化した値は確認画面以降にも引き継がれる。
+ */
+@Component
+public class InputNormalizationFilter extends OncePerRequestFilter {
+
+    /** 正規化するリクエストパラメータと、その正規化処理 */
+    private static final Map<String, UnaryOperator<String>> NORMALIZERS = Map.of(
+        "kanjiName", JapaneseTextNormalizer::normalizeName,
+        "kanaName", JapaneseTextNormalizer::normalizeKana,
+        "address", JapaneseTextNormalizer::normalizeAddress,
+        "tel", JapaneseTextNormalizer::normalizeTel);
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        filterChain.doFilter(new NormalizedRequest(request), response);
+    }
+
+    /**
+     * 対象のリクエストパラメータを正規化して返すリクエスト。
+     */
+    private static class NormalizedRequest extends HttpServletRequestWrapper {
+
+        /** 正規化したリクエストパラメータ（初回の参照時に作成する） */
+        private Map<String, String[]> parameters;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param request 元のリクエスト
+         */
+        NormalizedRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = getParameterMap().get(name);
+            return values == null || values.length == 0 ? null : values[0];
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            String[] values = getParameterMap().get(name);
+            return values == null ? null : values.clone();
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            if (parameters == null) {
+                Map<String, String[]> normalized = new LinkedHashMap<>(super.getParameterMap());
+                NORMALIZERS.forEach((name, normalizer) -> normalized.computeIfPresent(name, (key, values) -> {
+                    String[] result = new String[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        result[i] = normalizer.apply(values[i]);
+                    }
+                    return result;
+                }));
+                parameters = Collections.unmodifiableMap(normalized);
+            }
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tiscon10.filter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 見積もりの画面遷移（入力〜申し込み）へのリクエストの流量を制限するフィルタ。
+ * <p/>
+ * 以下の場合に、処理を行わず429（Too Many Requests）を返す。
+ * <ul>
+ *     <li>クライアント（IPアドレス）ごと・エンドポイントごとのトークンバケットが空の場合</li>
+ *     <li>サーバが処理中のリクエスト数が上限に達している場合（負荷制限）</li>
+ * </ul>
+ * 拒否したリクエストの件数は、メトリクス「tiscon.rate-limit.rejected」（タグ：endpoint, reason）として記録する。
+ */
+@Component
+@ConditionalOnProperty(name = "tiscon.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** 拒否したリクエストのメトリクス名 */
+    private static final String REJECTED_METRIC = "tiscon.rate-limit.rejected";
+
+    /** エンドポイントごとの流量制限 */
+    private final Map<String, Endpoint> endpoints = new HashMap<>();
+
+    /** 処理中のリクエスト数の上限 */
+    private final Semaphore inFlight;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param properties    流量制限の設定
+     * @param meterRegistry メトリクスの登録先
+     */
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.inFlight = new Semaphore(properties.maxConcurrentRequests());
+        if (properties.endpoints() != null) {
+            long now = System.nanoTime();
+            properties.endpoints().forEach((path, limit) -> endpoints.put(path, new Endpoint(
+                new ClientRateLimiter(limit, now),
+                rejectedCounter(meterRegistry, path, "throttled"),
+                rejectedCounter(meterRegistry, path, "shed"))));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !endpoints.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        Endpoint endpoint = endpoints.get(request.getServletPath());
+
+        long waitNanos = endpoint.limiter().tryAcquire(request.getRemoteAddr(), System.nanoTime());
+        if (waitNanos > 0) {
+            endpoint.throttled().increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        if (!inFlight.tryAcquire()) {
+            endpoint.shed().increment();
+            reject(response, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * リクエストを拒否する。
+     *
+     * @param response   レスポンス
+     * @param waitNanos  再送信まで待つべき時間（ナノ秒）
+     */
+    private static void reject(HttpServletResponse response, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+
+    /**
+     * 拒否したリクエストのカウンタを登録する。
+     *
+     * @param meterRegistry メトリクスの登録先
+     * @param path          エンドポイント
+     * @param reason        拒否の理由
+     * @return カウンタ
+     */
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String path, String reason) {
+        return Counter.builder(REJECTED_METRIC)
+            .description("流量制限により拒否したリクエスト数")
+            .tag("endpoint", path)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * エンドポイントごとの流量制限とメトリクス。
+     *
+     * @param limiter   クライアント単位の流量制限
+     * @param throttled クライアント単位の流量制限により拒否したリクエスト数
+     * @param shed      負荷制限により拒否したリクエスト数
+     */
+    private record Endpoint(ClientRateLimiter limiter, Counter throttled, Counter shed) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.tiscon10.filter;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * リクエスト流量制限の設定。
+ *
+ * 設定例
+ * <code><pre>
+ * tiscon.rate-limit.max-concurrent-requests=200
+ * tiscon.rate-limit.endpoints.[/estimate].capacity=30
+ * tiscon.rate-limit.endpoints.[/estimate].refill-per-second=0.5
+ * </pre></code>
+ *
+ * @param maxConcurrentRequests 流量制限の対象のエンドポイント全体で同時に処理するリクエスト数の上限
+ * @param endpoints             エンドポイント（サーブレットパス）ごとの、クライアント単位の流量制限
+ */
+@ConfigurationProperties("tiscon.rate-limit")
+public record RateLimitProperties(
+    @DefaultValue("200") int maxConcurrentRequests,
+    Map<String, Limit> endpoints
+) {
+
+    /**
+     * クライアント単位の流量制限（トークンバケット）。
+     *
+     * @param capacity        連続して受け付けるリクエスト数（バケットの容量）
+     * @param refillPerSecond 1秒あたりに回復するリクエスト数
+     */
+    public record Limit(int capacity, double refillPerSecond) {
+
+        /**
+         * 設定値を検証する。
+         * トークン1つの回復時間（ナノ秒）が1以上となり、満タンまでの回復時間がlongに収まる必要がある。
+         *
+         * @throws IllegalArgumentException 容量が1未満、または1秒あたりの回復数が範囲外の場合
+         */
+        public Limit {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive. capacity=" + capacity);
+            }
+            if (!(refillPerSecond > 0 && refillPerSecond <= TimeUnit.SECONDS.toNanos(1))
+                || TimeUnit.SECONDS.toNanos(1) / refillPerSecond * capacity >= Long.MAX_VALUE) {
+                throw new IllegalArgumentException("refill-per-second is out of range. refillPerSecond="
+                    + refillPerSecond + ", capacity=" + capacity);
+            }
+        }
+    }
+}
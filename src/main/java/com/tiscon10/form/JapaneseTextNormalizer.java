@@ -0,0 +1,302 @@
+package com.tiscon10.form;
+
+/**
+ * 入力された日本語の文字列を、精査の前に正規化するクラス。
+ * <p/>
+ * 入力内容の揺れ（半角カナ、ひらがな、半角・全角のスペースや数字、ハイフンの種類など）によって
+ * 精査エラーとなり、再入力させることを防ぐ。項目ごとに以下を行う。
+ * <ul>
+ *     <li>シメイ: ひらがな・半角カナを全角カタカナに、スペースを全角スペースに、ハイフンを長音記号に変換する</li>
+ *     <li>氏名: 半角カナを全角カナに、全角英数記号を半角に、スペースを半角スペースに変換する</li>
+ *     <li>住所: 氏名と同じ変換に加え、ハイフンの類（数字に続く長音記号を含む）を半角ハイフンに変換する</li>
+ *     <li>電話番号: 全角数字を半角に変換し、ハイフン、スペース、括弧を取り除く</li>
+ * </ul>
+ * スペースは連続するものを1つにまとめ、前後のものは取り除く。
+ * <p/>
+ * 正規表現や{@link java.text.Normalizer}は使用せず、文字の種類の表と半角カナの対応表を引きながら、
+ * 文字の配列を先頭から1度だけ走査して変換する。
+ */
+public final class JapaneseTextNormalizer {
+
+    /** 文字の種類: その他 */
+    private static final byte OTHER = 0;
+
+    /** 文字の種類: スペース */
+    private static final byte SPACE = 1;
+
+    /** 文字の種類: ハイフン、ダッシュ、マイナス */
+    private static final byte HYPHEN = 2;
+
+    /** 文字の種類: 長音記号 */
+    private static final byte PROLONGED_SOUND = 3;
+
+    /** 文字の種類: 括弧 */
+    private static final byte PARENTHESIS = 4;
+
+    /** 文字の種類: ひらがな */
+    private static final byte HIRAGANA = 5;
+
+    /** 文字の種類: 半角カナ */
+    private static final byte HALF_WIDTH_KANA = 6;
+
+    /** 文字の種類: 全角英数記号 */
+    private static final byte FULL_WIDTH_ASCII = 7;
+
+    /** 文字の種類: 濁点・半濁点 */
+    private static final byte SOUND_MARK = 8;
+
+    /** 文字の種類の表（文字コードで引く） */
+    private static final byte[] CATEGORIES = new byte[Character.MAX_VALUE + 1];
+
+    /** 半角カナ（U+FF61〜U+FF9F）に対応する全角カナ */
+    private static final char[] HALF_WIDTH_KANA_TABLE =
+        "。「」、・ヲァィゥェォャュョッーアイウエオカキクケコサシスセソタチツテトナニヌネノハヒフヘホマミムメモヤユヨラリルレロワン゛゜"
+            .toCharArray();
+
+    /** 半角カナの先頭の文字 */
+    private static final char HALF_WIDTH_KANA_FIRST = '｡';
+
+    /** 全角カタカナの先頭の文字（濁点・半濁点の対応表の基点） */
+    private static final char KATAKANA_FIRST = '゠';
+
+    /** 全角カタカナに濁点を付けた文字（付けられない場合は0） */
+    private static final char[] VOICED = new char[0x60];
+
+    /** 全角カタカナに半濁点を付けた文字（付けられない場合は0） */
+    private static final char[] SEMI_VOICED = new char[0x60];
+
+    /** 項目: シメイ */
+    private static final int KANA = 0;
+
+    /** 項目: 氏名 */
+    private static final int NAME = 1;
+
+    /** 項目: 住所 */
+    private static final int ADDRESS = 2;
+
+    /** 項目: 電話番号 */
+    private static final int TEL = 3;
+
+    static {
+        // 半角スペース、タブ、ノーブレークスペース、各種幅のスペース、全角スペース
+        for (char c : new char[] {' ', '\t', '\u00A0', '\u2002', '\u2003', '\u2009', '\u3000'}) {
+            CATEGORIES[c] = SPACE;
+        }
+        // ハイフンマイナス、ハイフン、ダッシュ類、マイナス記号、全角ハイフンマイナス
+        for (char c : new char[] {'-', '\u2010', '\u2011', '\u2012', '\u2013', '\u2014', '\u2015', '\u2212',
+            '\uFE63', '\uFF0D'}) {
+            CATEGORIES[c] = HYPHEN;
+        }
+        CATEGORIES['ー'] = PROLONGED_SOUND;
+        for (char c : new char[] {'(', ')', '（', '）'}) {
+            CATEGORIES[c] = PARENTHESIS;
+        }
+        for (char c = 'ぁ'; c <= 'ゖ'; c++) {
+            CATEGORIES[c] = HIRAGANA;
+        }
+        for (char c = HALF_WIDTH_KANA_FIRST; c <= 'ﾟ'; c++) {
+            CATEGORIES[c] = HALF_WIDTH_KANA;
+        }
+        for (char c = '！'; c <= '～'; c++) {
+            if (CATEGORIES[c] == OTHER) {
+                CATEGORIES[c] = FULL_WIDTH_ASCII;
+            }
+        }
+        for (char c : new char[] {'゙', '゚', '゛', '゜'}) {
+            CATEGORIES[c] = SOUND_MARK;
+        }
+
+        for (char c : "カキクケコサシスセソタチツテトハヒフヘホ".toCharArray()) {
+            VOICED[c - KATAKANA_FIRST] = (char) (c + 1);
+        }
+        VOICED['ウ' - KATAKANA_FIRST] = 'ヴ';
+        VOICED['ワ' - KATAKANA_FIRST] = 'ヷ';
+        VOICED['ヲ' - KATAKANA_FIRST] = 'ヺ';
+        for (char c : "ハヒフヘホ".toCharArray()) {
+            SEMI_VOICED[c - KATAKANA_FIRST] = (char) (c + 2);
+        }
+    }
+
+    /**
+     * インスタンス化しない。
+     */
+    private JapaneseTextNormalizer() {
+    }
+
+    /**
+     * 入力内容の氏名、シメイ、住所、電話番号を正規化する。
+     *
+     * @param form 入力内容
+     * @return 正規化した入力内容
+     */
+    public static UserOrderForm normalize(UserOrderForm form) {
+        return new UserOrderForm(form.insuranceType(), normalizeName(form.kanjiName()), normalizeKana(form.kanaName()),
+            form.dateOfBirth(), normalizeAddress(form.address()), normalizeTel(form.tel()), form.email(),
+            form.marriedType(), form.jobType(), form.income(), form.treatedType(), form.medicalHistory());
+    }
+
+    /**
+     * シメイ（全角カタカナ）を正規化する。
+     *
+     * @param value 入力値
+     * @return 正規化した値
+     */
+    public static String normalizeKana(String value) {
+        return normalize(value, KANA);
+    }
+
+    /**
+     * 氏名を正規化する。
+     *
+     * @param value 入力値
+     * @return 正規化した値
+     */
+    public static String normalizeName(String value) {
+        return normalize(value, NAME);
+    }
+
+    /**
+     * 住所を正規化する。
+     *
+     * @param value 入力値
+     * @return 正規化した値
+     */
+    public static String normalizeAddress(String value) {
+        return normalize(value, ADDRESS);
+    }
+
+    /**
+     * 電話番号を正規化する。
+     *
+     * @param value 入力値
+     * @return 正規化した値
+     */
+    public static String normalizeTel(String value) {
+        return normalize(value, TEL);
+    }
+
+    /**
+     * 項目に応じて文字列を正規化する。変換によって文字数が増えることはないため、入力と同じ長さの配列に書き出す。
+     *
+     * @param value 入力値
+     * @param field 項目
+     * @return 正規化した値
+     */
+    private static String normalize(String value, int field) {
+        if (value == null || value.isEmpty()) {
+            return value;
+        }
+        char[] in = value.toCharArray();
+        char[] out = new char[in.length];
+        int length = 0;
+        boolean pendingSpace = false;
+        for (char c : in) {
+            switch (CATEGORIES[c]) {
+                case SPACE -> {
+                    if (field != TEL) {
+                        pendingSpace = length > 0;
+                    }
+                    continue;
+                }
+                case HYPHEN -> {
+                    if (field == TEL) {
+                        continue;
+                    }
+                    c = field == KANA ? 'ー' : field == ADDRESS ? '-' : c;
+                }
+                case PROLONGED_SOUND -> {
+                    if (field == TEL) {
+                        continue;
+                    }
+                    if (field == ADDRESS && length > 0 && !pendingSpace && isDigit(out[length - 1])) {
+                        c = '-';
+                    }
+                }
+                case PARENTHESIS -> {
+                    if (field == TEL) {
+                        continue;
+                    }
+                    if (field != KANA) {
+                        c = toHalfWidth(c);
+                    }
+                }
+                case HIRAGANA -> {
+                    if (field == KANA) {
+                        c = (char) (c + 0x60);
+                    }
+                }
+                case HALF_WIDTH_KANA -> {
+                    c = HALF_WIDTH_KANA_TABLE[c - HALF_WIDTH_KANA_FIRST];
+                    if (c == '゛' || c == '゜') {
+                        // 半角の濁点・半濁点は、直前の文字に付けられる場合は合成する
+                        if (!pendingSpace && length > 0 && combine(out, length - 1, c == '゛')) {
+                            continue;
+                        }
+                    } else if (field == ADDRESS && c == 'ー' && length > 0 && !pendingSpace
+                        && isDigit(out[length - 1])) {
+                        c = '-';
+                    }
+                }
+                case SOUND_MARK -> {
+                    if (!pendingSpace && length > 0 && combine(out, length - 1, c == '゙' || c == '゛')) {
+                        continue;
+                    }
+                }
+                case FULL_WIDTH_ASCII -> {
+                    if (field != KANA) {
+                        c = toHalfWidth(c);
+                    }
+                }
+                default -> {
+                }
+            }
+            if (pendingSpace) {
+                out[length++] = field == KANA ? '　' : ' ';
+                pendingSpace = false;
+            }
+            out[length++] = c;
+        }
+        return new String(out, 0, length);
+    }
+
+    /**
+     * 全角カタカナに濁点・半濁点を付ける。
+     *
+     * @param chars  文字の配列
+     * @param index  濁点・半濁点を付ける文字の位置
+     * @param voiced 濁点の場合、真（半濁点の場合、偽）
+     * @return 付けられた場合、真
+     */
+    private static boolean combine(char[] chars, int index, boolean voiced) {
+        char c = chars[index];
+        if (c < KATAKANA_FIRST || c >= KATAKANA_FIRST + VOICED.length) {
+            return false;
+        }
+        char combined = (voiced ? VOICED : SEMI_VOICED)[c - KATAKANA_FIRST];
+        if (combined == 0) {
+            return false;
+        }
+        chars[index] = combined;
+        return true;
+    }
+
+    /**
+     * 全角英数記号を半角に変換する。
+     *
+     * @param c 全角英数記号
+     * @return 半角英数記号
+     */
+    private static char toHalfWidth(char c) {
+        return c >= '！' && c <= '～' ? (char) (c - 0xFEE0) : c;
+    }
+
+    /**
+     * 数字（半角）であるかを返す。全角数字は変換済みであるため、半角のみを判定する。
+     *
+     * @param c 文字
+     * @return 数字の場合、真
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
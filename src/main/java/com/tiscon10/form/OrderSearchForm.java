@@ -0,0 +1,49 @@
+package com.tiscon10.form;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * 保険申し込みの検索条件。
+ * <p/>
+ * 未指定（null）の条件は絞り込みに使用しない。
+ * ページングは受付番号によるキーセット方式で行い、前ページ最後の受付番号を{@code after}に指定する。
+ *
+ * @author TIS Taro
+ *
+ * @param insuranceType   保険種別
+ * @param dateOfBirthFrom 生年月日（開始、yyyy-MM-dd）
+ * @param dateOfBirthTo   生年月日（終了、yyyy-MM-dd）
+ * @param orderedFrom     申し込み日（開始、yyyy-MM-dd）
+ * @param orderedTo       申し込み日（終了、yyyy-MM-dd、この日を含む）
+ * @param jobType         ご職業
+ * @param marriedType     配偶者有無
+ * @param after           この受付番号より後の申し込みを取得する
+ * @param limit           取得件数
+ */
+public record OrderSearchForm(
+
+    Integer insuranceType,    // 保険種別
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate dateOfBirthFrom,    // 生年月日（開始）
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate dateOfBirthTo,    // 生年月日（終了）
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate orderedFrom,    // 申し込み日（開始）
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    LocalDate orderedTo,    // 申し込み日（終了）
+
+    Integer jobType,     // ご職業
+
+    Integer marriedType,  // 配偶者有無
+
+    Integer after,    // この受付番号より後を取得する
+
+    Integer limit    // 取得件数
+) {
+}
@@ -0,0 +1,33 @@
+package com.tiscon10.form;
+
+import java.time.LocalDate;
+
+/**
+ * 提携先API（見積もり）の依頼内容。
+ * <p/>
+ * ご職業、配偶者有無、昨年の所得、病歴有無は省略可能。省略した項目は、その項目を条件としない価格ルールのみ適用する。
+ *
+ * @author TIS Taro
+ *
+ * @param insuranceType 保険種別
+ * @param dateOfBirth   生年月日（yyyy-MM-dd）
+ * @param jobType       ご職業
+ * @param marriedType   配偶者有無
+ * @param income        昨年の所得(万円)
+ * @param treatedType   病歴有無
+ */
+public record QuoteRequest(
+
+    Integer insuranceType,    // 保険種別
+
+    LocalDate dateOfBirth,    // 生年月日
+
+    Integer jobType,    // ご職業
+
+    Integer marriedType,    // 配偶者有無
+
+    Integer income,    // 昨年の所得(万円)
+
+    Integer treatedType    // 病歴有無
+) {
+}
@@ -0,0 +1,16 @@
+package com.tiscon10.service;
+
+/**
+ * 保険種別・年齢層別の申し込み件数。
+ *
+ * @param insuranceType 保険種別
+ * @param ageBand       年齢層（申し込み時の年齢を10歳単位で切り捨てたもの。20は20〜29歳）
+ * @param count         件数
+ */
+public record AgeBandCount(
+
+    int insuranceType,  // 保険種別
+    int ageBand,        // 年齢層
+    long count          // 件数
+) {
+}
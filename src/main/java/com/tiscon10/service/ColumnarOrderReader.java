@@ -0,0 +1,163 @@
+package com.tiscon10.service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * {@link ColumnarOrderWriter}が書き出した列指向の圧縮バッチを読み込むクラス。
+ * <p/>
+ * エクスポートしたファイルの検証や、分析基盤に取り込めなかった場合の再処理に使用する。
+ * 形式は{@link ColumnarOrderWriter}を参照。
+ *
+ * @author TIS Taro
+ */
+final class ColumnarOrderReader {
+
+    private ColumnarOrderReader() {
+    }
+
+    /**
+     * バッチを1つ読み込む。
+     *
+     * @param in 入力元（このメソッドでは閉じない）
+     * @return 保険申し込み（書き出した順）
+     * @throws IOException 読み込みに失敗した場合、または形式が不正な場合
+     */
+    static List<InsuranceOrder> readBatch(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in, 64 * 1024), 64 * 1024));
+        byte[] magic = new byte[ColumnarOrderWriter.MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, ColumnarOrderWriter.MAGIC)) {
+            throw new IOException("not a TCOL batch.");
+        }
+        int version = data.readUnsignedByte();
+        if (version != ColumnarOrderWriter.VERSION) {
+            throw new IOException("unsupported TCOL version: " + version);
+        }
+        int size = Math.toIntExact(readVarint(data));
+
+        int[] receiptNos = new int[size];
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += readZigzag(data);
+            receiptNos[i] = Math.toIntExact(previous);
+        }
+        int[] insuranceTypes = readDictionaryColumn(data, size);
+        String[] kanjiNames = readTextColumn(data, size);
+        String[] kanaNames = readTextColumn(data, size);
+        LocalDate[] datesOfBirth = new LocalDate[size];
+        for (int i = 0; i < size; i++) {
+            datesOfBirth[i] = LocalDate.ofEpochDay(readZigzag(data));
+        }
+        String[] addresses = readTextColumn(data, size);
+        String[] tels = readTextColumn(data, size);
+        String[] emails = readTextColumn(data, size);
+        int[] marriedTypes = readDictionaryColumn(data, size);
+        int[] jobTypes = readDictionaryColumn(data, size);
+        int[] incomes = new int[size];
+        for (int i = 0; i < size; i++) {
+            incomes[i] = Math.toIntExact(readVarint(data));
+        }
+        int[] treatedTypes = readDictionaryColumn(data, size);
+        String[] medicalHistories = readTextColumn(data, size);
+
+        List<InsuranceOrder> orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new InsuranceOrder(receiptNos[i], insuranceTypes[i], kanjiNames[i], kanaNames[i],
+                datesOfBirth[i], addresses[i], tels[i], emails[i], marriedTypes[i], jobTypes[i], incomes[i],
+                treatedTypes[i], medicalHistories[i]));
+        }
+        return orders;
+    }
+
+    /**
+     * 辞書符号化したコード値の列を読み込む。
+     *
+     * @param data 入力元
+     * @param size 行数
+     * @return コード値の列
+     * @throws IOException 読み込みに失敗した場合、または辞書番号が不正な場合
+     */
+    private static int[] readDictionaryColumn(DataInputStream data, int size) throws IOException {
+        int[] dictionary = new int[Math.toIntExact(readVarint(data))];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = Math.toIntExact(readVarint(data));
+        }
+        int[] column = new int[size];
+        for (int i = 0; i < size; i++) {
+            int index = data.readUnsignedByte();
+            if (index >= dictionary.length) {
+                throw new IOException("invalid dictionary index: " + index);
+            }
+            column[i] = dictionary[index];
+        }
+        return column;
+    }
+
+    /**
+     * 文字列の列を読み込む。長さ0はnullとする。
+     *
+     * @param data 入力元
+     * @param size 行数
+     * @return 文字列の列
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static String[] readTextColumn(DataInputStream data, int size) throws IOException {
+        String[] column = new String[size];
+        for (int i = 0; i < size; i++) {
+            long length = readVarint(data);
+            if (length == 0) {
+                continue;
+            }
+            byte[] bytes = new byte[Math.toIntExact(length - 1)];
+            data.readFully(bytes);
+            column[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return column;
+    }
+
+    /**
+     * 可変長（7bit単位）の符号なし整数を読み込む。
+     *
+     * @param data 入力元
+     * @return 値
+     * @throws IOException 読み込みに失敗した場合、または値が長すぎる場合
+     */
+    private static long readVarint(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint is too long.");
+    }
+
+    /**
+     * zigzag符号化した可変長の符号付き整数を読み込む。
+     *
+     * @param data 入力元
+     * @return 値
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static long readZigzag(DataInputStream data) throws IOException {
+        long value = readVarint(data);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,277 @@
+package com.tiscon10.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * 保険申し込みを列指向の圧縮バッチとして書き出すクラス。
+ * <p/>
+ * 1バッチ分の行を列ごとの配列に溜め、{@link #writeBatch(OutputStream)}で次の形式に書き出す（全体をGZIP圧縮する）。
+ * 配列はバッチ間で使い回すため、書き出す件数にかかわらず使用メモリは一定である。
+ * 読み込みは{@link ColumnarOrderReader}で行う。
+ * <pre>
+ * "TCOL" バージョン(1byte) 行数(varint)
+ * RECEIPT_NO       先頭は値、以降は直前との差分(zigzag varint。申し込み日時の順のため負になりうる)
+ * INSURANCE_TYPE   辞書（件数、値(varint)の並び）＋ 行ごとの辞書番号(1byte)
+ * KANJI_NAME       行ごとのバイト長+1(varint、nullは0)＋UTF-8
+ * KANA_NAME        同上
+ * DATE_OF_BIRTH    エポック日(zigzag varint)
+ * ADDRESS          バイト長+1＋UTF-8
+ * TEL              同上
+ * EMAIL_ADDRESS    同上
+ * MARRIED          辞書＋辞書番号
+ * JOB              辞書＋辞書番号
+ * INCOME           値(varint)
+ * TREATED          辞書＋辞書番号
+ * MEDICAL_HISTORY  バイト長+1＋UTF-8
+ * </pre>
+ *
+ * @author TIS Taro
+ */
+class ColumnarOrderWriter {
+
+    /** ファイル先頭のマジックナンバー */
+    static final byte[] MAGIC = {'T', 'C', 'O', 'L'};
+
+    /** 形式のバージョン */
+    static final int VERSION = 2;
+
+    /** 1つの辞書に登録できるコード値の数 */
+    private static final int MAX_DICTIONARY_SIZE = 256;
+
+    private final int capacity;
+    private int size;
+
+    private final int[] receiptNos;
+    private final int[] insuranceTypes;
+    private final String[] kanjiNames;
+    private final String[] kanaNames;
+    private final long[] datesOfBirth;
+    private final String[] addresses;
+    private final String[] tels;
+    private final String[] emails;
+    private final int[] marriedTypes;
+    private final int[] jobTypes;
+    private final int[] incomes;
+    private final int[] treatedTypes;
+    private final String[] medicalHistories;
+
+    /** 辞書符号化の作業領域 */
+    private final int[] dictionary = new int[MAX_DICTIONARY_SIZE];
+
+    /**
+     * コンストラクタ。
+     *
+     * @param capacity 1バッチの最大行数
+     */
+    ColumnarOrderWriter(int capacity) {
+        this.capacity = capacity;
+        this.receiptNos = new int[capacity];
+        this.insuranceTypes = new int[capacity];
+        this.kanjiNames = new String[capacity];
+        this.kanaNames = new String[capacity];
+        this.datesOfBirth = new long[capacity];
+        this.addresses = new String[capacity];
+        this.tels = new String[capacity];
+        this.emails = new String[capacity];
+        this.marriedTypes = new int[capacity];
+        this.jobTypes = new int[capacity];
+        this.incomes = new int[capacity];
+        this.treatedTypes = new int[capacity];
+        this.medicalHistories = new String[capacity];
+    }
+
+    /**
+     * 保険申し込みを現在のバッチに追加する。
+     *
+     * @param order 保険申し込み
+     */
+    void add(InsuranceOrder order) {
+        if (isFull()) {
+            throw new IllegalStateException("batch is full. capacity=" + capacity);
+        }
+        int i = size++;
+        receiptNos[i] = order.receiptNo();
+        insuranceTypes[i] = order.insuranceType();
+        kanjiNames[i] = order.kanjiName();
+        kanaNames[i] = order.kanaName();
+        datesOfBirth[i] = order.dateOfBirth().toEpochDay();
+        addresses[i] = order.Address();
+        tels[i] = order.tel();
+        emails[i] = order.email();
+        marriedTypes[i] = order.marriedType();
+        jobTypes[i] = order.jobType();
+        incomes[i] = order.income();
+        treatedTypes[i] = order.treatedType();
+        medicalHistories[i] = order.medicalHistory();
+    }
+
+    /**
+     * @return バッチが上限まで埋まっている場合、真
+     */
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * @return 現在のバッチの行数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return 現在のバッチの最後の受付番号
+     */
+    int lastReceiptNo() {
+        return receiptNos[size - 1];
+    }
+
+    /**
+     * 現在のバッチを書き出し、バッチを空にする。
+     *
+     * @param out 出力先（このメソッドでは閉じない）
+     * @throws IOException 書き出しに失敗した場合
+     */
+    void writeBatch(OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip, 64 * 1024));
+        data.write(MAGIC);
+        data.write(VERSION);
+        writeVarint(data, size);
+
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            writeZigzag(data, receiptNos[i] - previous);
+            previous = receiptNos[i];
+        }
+        writeDictionaryColumn(data, insuranceTypes);
+        writeTextColumn(data, kanjiNames);
+        writeTextColumn(data, kanaNames);
+        for (int i = 0; i < size; i++) {
+            writeZigzag(data, datesOfBirth[i]);
+        }
+        writeTextColumn(data, addresses);
+        writeTextColumn(data, tels);
+        writeTextColumn(data, emails);
+        writeDictionaryColumn(data, marriedTypes);
+        writeDictionaryColumn(data, jobTypes);
+        for (int i = 0; i < size; i++) {
+            writeVarint(data, incomes[i]);
+        }
+        writeDictionaryColumn(data, treatedTypes);
+        writeTextColumn(data, medicalHistories);
+
+        data.flush();
+        gzip.finish();
+        clear();
+    }
+
+    /**
+     * コード値の列を辞書符号化して書き出す。
+     *
+     * @param data   出力先
+     * @param column コード値の列
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private void writeDictionaryColumn(DataOutputStream data, int[] column) throws IOException {
+        int dictionarySize = 0;
+        for (int i = 0; i < size; i++) {
+            if (indexOf(column[i], dictionarySize) < 0) {
+                if (dictionarySize == MAX_DICTIONARY_SIZE) {
+                    throw new IllegalStateException("too many distinct code values. max=" + MAX_DICTIONARY_SIZE);
+                }
+                dictionary[dictionarySize++] = column[i];
+            }
+        }
+        writeVarint(data, dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            writeVarint(data, dictionary[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            data.write(indexOf(column[i], dictionarySize));
+        }
+    }
+
+    /**
+     * 辞書からコード値の位置を探す。コード値の種類は少ないため線形探索で十分である。
+     *
+     * @param value          コード値
+     * @param dictionarySize 辞書に登録済みの件数
+     * @return 辞書番号。存在しない場合は-1
+     */
+    private int indexOf(int value, int dictionarySize) {
+        for (int i = 0; i < dictionarySize; i++) {
+            if (dictionary[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 文字列の列を書き出す。nullは長さ0として、それ以外は長さ+1として記録する。
+     *
+     * @param data   出力先
+     * @param column 文字列の列
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private void writeTextColumn(DataOutputStream data, String[] column) throws IOException {
+        for (int i = 0; i < size; i++) {
+            if (column[i] == null) {
+                writeVarint(data, 0);
+                continue;
+            }
+            byte[] bytes = column[i].getBytes(StandardCharsets.UTF_8);
+            writeVarint(data, bytes.length + 1L);
+            data.write(bytes);
+        }
+    }
+
+    /**
+     * 符号なし整数を可変長（7bit単位）で書き出す。
+     *
+     * @param data  出力先
+     * @param value 値（0以上）
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private static void writeVarint(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.write((int) value);
+    }
+
+    /**
+     * 符号付き整数をzigzag符号化して可変長で書き出す。
+     *
+     * @param data  出力先
+     * @param value 値
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private static void writeZigzag(DataOutputStream data, long value) throws IOException {
+        writeVarint(data, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * バッチを空にする。文字列の参照を解放するため配列もクリアする。
+     */
+    private void clear() {
+        for (int i = 0; i < size; i++) {
+            kanjiNames[i] = null;
+            kanaNames[i] = null;
+            addresses[i] = null;
+            tels[i] = null;
+            emails[i] = null;
+            medicalHistories[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tiscon10.service;
+
+import java.time.LocalDate;
+
+/**
+ * 日別・保険種別・職業別の申し込み件数。
+ *
+ * @param date          申し込み日
+ * @param insuranceType 保険種別
+ * @param jobType       職業
+ * @param count         件数
+ */
+public record DailyOrderCount(
+
+    LocalDate date,     // 申し込み日
+    int insuranceType,  // 保険種別
+    int jobType,        // 職業
+    long count          // 件数
+) {
+}
@@ -0,0 +1,348 @@
+package com.tiscon10.service;
+
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.JapaneseTextNormalizer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 既存の保険申し込みと同一人物と思われる申し込み（重複申し込み）を検出するための索引。
+ * <p/>
+ * 以下のいずれかに該当する場合を重複とする。
+ * <ul>
+ *     <li>{@link Match#EXACT}: シメイ、生年月日、電話番号がすべて一致する</li>
+ *     <li>{@link Match#NEAR}: 生年月日、電話番号が一致し、シメイの違いが1文字（挿入・削除・置換）、
+ *     または隣り合う2文字の入れ替えである</li>
+ *     <li>{@link Match#EMAIL}: メールアドレスが一致する</li>
+ * </ul>
+ * シメイ・電話番号は{@link JapaneseTextNormalizer}で正規化し、シメイのスペースは除いて比較する。
+ * <p/>
+ * 申し込みの内容は保持せず、比較する項目の組み合わせのハッシュ値（64ビット）のみを固定長の集合に保持する。
+ * 1文字違いの判定は、シメイから1文字ずつ削除した文字列のハッシュ値を削除した位置とともに保持しておき（Symmetric Delete）、
+ * 申し込みのシメイから以下を求めて検索する。双方から任意の位置の1文字を削除して比較すると2文字違いまで一致するため、
+ * 双方から削除するのは同じ位置の場合（置換）のみとする。
+ * <ul>
+ *     <li>置換: 同じ位置の1文字を削除した文字列が一致する</li>
+ *     <li>挿入（既存の申し込みの側が1文字多い）: 既存の申し込みの側から1文字削除した文字列と、申し込みのシメイが一致する</li>
+ *     <li>削除（申し込みの側が1文字多い）: 申し込みの側から1文字削除した文字列と、既存の申し込みのシメイが一致する</li>
+ *     <li>入れ替え: 申し込みの側で隣り合う2文字を入れ替えた文字列と、既存の申し込みのシメイが一致する</li>
+ * </ul>
+ * ハッシュ値の衝突による誤検出はありうるが、重複の疑いを知らせる用途のため許容する。
+ * <p/>
+ * 起動時に保険申し込みテーブルの全件を読み込んで作成し、以降はこのノードでの申し込みの登録（コミット後）時に追加する。
+ * 保険申し込みテーブルを読み直すのは起動時のみのため、複数ノード構成では他のノードが起動後に登録した申し込みとの
+ * 重複は検出できない。
+ * 重複を検出した場合はログを出力し、メトリクス「tiscon.order.duplicate」（タグ：match）に記録する。
+ * 一致判定の集合と1文字違いの集合はそれぞれ上限件数を持ち、上限に達した場合はログを出力して、
+ * 以降の申し込みはその集合に追加しない（検出漏れとなる）。
+ */
+@Component
+public class DuplicateApplicantIndex {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(DuplicateApplicantIndex.class);
+
+    /** 重複を検出した件数のメトリクス名 */
+    private static final String DUPLICATE_METRIC = "tiscon.order.duplicate";
+
+    /** ハッシュ値の種類: シメイ・生年月日・電話番号 */
+    private static final long APPLICANT_SEED = 0x9E3779B97F4A7C15L;
+
+    /** ハッシュ値の種類: メールアドレス */
+    private static final long EMAIL_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    /** 削除する文字がないことを表す位置 */
+    private static final int NO_DELETION = -1;
+
+    /**
+     * 重複の種類。
+     */
+    public enum Match {
+        /** 重複なし */
+        NONE,
+        /** シメイ、生年月日、電話番号が一致 */
+        EXACT,
+        /** 生年月日、電話番号が一致し、シメイが1文字違い（隣り合う2文字の入れ替えを含む） */
+        NEAR,
+        /** メールアドレスが一致 */
+        EMAIL
+    }
+
+    /** 見積もりDAO */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** メトリクスの登録先 */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** 有効な場合、真 */
+    @Value("${tiscon.duplicate-check.enabled:true}")
+    private boolean enabled;
+
+    /** 一致判定の集合に保持するハッシュ値の上限件数（1申し込みあたり2件を使用する） */
+    @Value("${tiscon.duplicate-check.max-fingerprints:1000000}")
+    private int maxFingerprints;
+
+    /** 1文字違いの集合に保持するハッシュ値の上限件数（1申し込みあたりシメイの文字数分を使用する） */
+    @Value("${tiscon.duplicate-check.max-near-fingerprints:4000000}")
+    private int maxNearFingerprints;
+
+    /** シメイ・生年月日・電話番号、メールアドレスのハッシュ値 */
+    private LongHashSet exactFingerprints;
+
+    /** シメイから1文字削除した文字列・削除した位置・生年月日・電話番号のハッシュ値 */
+    private LongHashSet nearFingerprints;
+
+    /** 索引の読み書きのロック（検索は並行して行う） */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 一致判定の集合が上限件数に達したことをログ出力済みの場合、真 */
+    private boolean exactFullReported;
+
+    /** 1文字違いの集合が上限件数に達したことをログ出力済みの場合、真 */
+    private boolean nearFullReported;
+
+    /**
+     * 保険申し込みテーブルの全件から索引を作成する。
+     */
+    @PostConstruct
+    void build() {
+        if (!enabled) {
+            return;
+        }
+        exactFingerprints = new LongHashSet(maxFingerprints);
+        nearFingerprints = new LongHashSet(maxNearFingerprints);
+        long start = System.currentTimeMillis();
+        long[] count = {0};
+        estimateDAO.scanInsuranceOrders(order -> {
+            add(order);
+            count[0]++;
+        });
+        LOGGER.info("duplicate applicant index built. orders={}, fingerprints={}/{}, elapsed={}ms", count[0],
+            exactFingerprints.size(), nearFingerprints.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 登録した保険申し込みが既存の申し込みと重複していないかを確認し、索引に追加する。
+     * 重複している場合はログとメトリクスに記録する（申し込み自体は受け付ける）。
+     * ロールバックした申し込みを追加しないよう、登録のトランザクションのコミット後に呼び出すこと。
+     *
+     * @param order 登録した保険申し込み
+     * @return 重複の種類
+     */
+    public Match checkAndAdd(InsuranceOrder order) {
+        if (!enabled) {
+            return Match.NONE;
+        }
+        Match match = find(order);
+        add(order);
+        if (match != Match.NONE) {
+            LOGGER.warn("duplicate applicant suspected. match={}, receiptNo={}", match, order.receiptNo());
+            meterRegistry.counter(DUPLICATE_METRIC, "match", match.name().toLowerCase(Locale.ROOT)).increment();
+        }
+        return match;
+    }
+
+    /**
+     * 保険申し込みと重複する既存の申し込みがあるかを検索する。
+     *
+     * @param order 保険申し込み
+     * @return 重複の種類（複数に該当する場合は{@link Match}の定義順で先のもの）
+     */
+    public Match find(InsuranceOrder order) {
+        if (!enabled) {
+            return Match.NONE;
+        }
+        String kana = normalizeKana(order.kanaName());
+        long key = applicantKey(order);
+        lock.readLock().lock();
+        try {
+            if (exactFingerprints.contains(fingerprint(APPLICANT_SEED, kana, NO_DELETION, key))) {
+                return Match.EXACT;
+            }
+            for (int i = 0; i <= kana.length(); i++) {
+                long deletionKey = deletionKey(key, i);
+                // 置換
+                if (i < kana.length() && nearFingerprints.contains(fingerprint(APPLICANT_SEED, kana, i, deletionKey))) {
+                    return Match.NEAR;
+                }
+                // 挿入（既存の申し込みの位置iの文字を削除すると一致する）
+                if (nearFingerprints.contains(fingerprint(APPLICANT_SEED, kana, NO_DELETION, deletionKey))) {
+                    return Match.NEAR;
+                }
+                // 削除
+                if (i < kana.length() && exactFingerprints.contains(fingerprint(APPLICANT_SEED, kana, i, key))) {
+                    return Match.NEAR;
+                }
+                // 入れ替え
+                if (i + 1 < kana.length()
+                    && exactFingerprints.contains(swappedFingerprint(APPLICANT_SEED, kana, i, key))) {
+                    return Match.NEAR;
+                }
+            }
+            String email = normalizeEmail(order.email());
+            if (!email.isEmpty() && exactFingerprints.contains(fingerprint(EMAIL_SEED, email, NO_DELETION, 0))) {
+                return Match.EMAIL;
+            }
+            return Match.NONE;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 保険申し込みを索引に追加する。
+     *
+     * @param order 保険申し込み
+     */
+    private void add(InsuranceOrder order) {
+        String kana = normalizeKana(order.kanaName());
+        long key = applicantKey(order);
+        String email = normalizeEmail(order.email());
+        lock.writeLock().lock();
+        try {
+            boolean exactAdded = exactFingerprints.add(fingerprint(APPLICANT_SEED, kana, NO_DELETION, key));
+            if (!email.isEmpty()) {
+                exactAdded &= exactFingerprints.add(fingerprint(EMAIL_SEED, email, NO_DELETION, 0));
+            }
+            boolean nearAdded = true;
+            for (int i = 0; i < kana.length(); i++) {
+                nearAdded &= nearFingerprints.add(fingerprint(APPLICANT_SEED, kana, i, deletionKey(key, i)));
+            }
+            if (!exactAdded && !exactFullReported) {
+                exactFullReported = true;
+                LOGGER.warn("duplicate applicant index is full. increase tiscon.duplicate-check.max-fingerprints. max={}",
+                    maxFingerprints);
+            }
+            if (!nearAdded && !nearFullReported) {
+                nearFullReported = true;
+                LOGGER.warn("duplicate applicant near-match index is full. "
+                    + "increase tiscon.duplicate-check.max-near-fingerprints. max={}", maxNearFingerprints);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 生年月日と電話番号を組み合わせたハッシュ値を求める。
+     *
+     * @param order 保険申し込み
+     * @return ハッシュ値
+     */
+    private long applicantKey(InsuranceOrder order) {
+        long dateOfBirth = order.dateOfBirth() == null ? 0 : order.dateOfBirth().toEpochDay();
+        return fingerprint(dateOfBirth, JapaneseTextNormalizer.normalizeTel(order.tel()), NO_DELETION, 0);
+    }
+
+    /**
+     * 生年月日・電話番号のハッシュ値に、シメイから削除した文字の位置を組み合わせる。
+     *
+     * @param key      生年月日と電話番号のハッシュ値
+     * @param position 削除した文字の位置
+     * @return ハッシュ値
+     */
+    private static long deletionKey(long key, int position) {
+        return key ^ mix(position + 1L);
+    }
+
+    /**
+     * 比較用にシメイを正規化する（スペースを除く）。
+     *
+     * @param kanaName シメイ
+     * @return 正規化したシメイ
+     */
+    private String normalizeKana(String kanaName) {
+        String normalized = JapaneseTextNormalizer.normalizeKana(kanaName);
+        return normalized == null ? "" : normalized.replace("\u3000", "");
+    }
+
+    /**
+     * 比較用にメールアドレスを正規化する（前後の空白を除き、小文字にする）。
+     *
+     * @param email メールアドレス
+     * @return 正規化したメールアドレス
+     */
+    private String normalizeEmail(String email) {
+        return email == null ? "" : email.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 文字列（指定の位置の1文字を除く）と付加情報のハッシュ値を求める。文字列は複製せずに走査する。
+     *
+     * @param seed  ハッシュ値の種類
+     * @param text  文字列
+     * @param skip  除く文字の位置（除かない場合は{@link #NO_DELETION}）
+     * @param extra 付加情報
+     * @return ハッシュ値（0以外）
+     */
+    private static long fingerprint(long seed, String text, int skip, long extra) {
+        long hash = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < (text == null ? 0 : text.length()); i++) {
+            if (i != skip) {
+                hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+            }
+        }
+        return finish(hash, extra);
+    }
+
+    /**
+     * 文字列（指定の位置と次の位置の2文字を入れ替える）と付加情報のハッシュ値を求める。文字列は複製せずに走査する。
+     * 入れ替えた文字列の{@link #fingerprint(long, String, int, long)}と同じ値になる。
+     *
+     * @param seed  ハッシュ値の種類
+     * @param text  文字列
+     * @param swap  入れ替える位置（次の位置が文字列の範囲内であること）
+     * @param extra 付加情報
+     * @return ハッシュ値（0以外）
+     */
+    private static long swappedFingerprint(long seed, String text, int swap, long extra) {
+        long hash = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            char c = i == swap ? text.charAt(i + 1) : i == swap + 1 ? text.charAt(swap) : text.charAt(i);
+            hash = (hash ^ c) * 0x100000001B3L;
+        }
+        return finish(hash, extra);
+    }
+
+    /**
+     * 文字列のハッシュ値に付加情報を組み合わせて攪拌する。
+     *
+     * @param hash  文字列のハッシュ値
+     * @param extra 付加情報
+     * @return ハッシュ値（0以外）
+     */
+    private static long finish(long hash, long extra) {
+        hash = mix(hash ^ mix(extra + 0x9E3779B97F4A7C15L));
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * ハッシュ値のビットを攪拌する（MurmurHash3の最終処理）。
+     *
+     * @param value 値
+     * @return 攪拌した値
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85A3BL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,18 +1,21 @@
 package com.tiscon10.service;
 
+import java.math.BigDecimal;
+
 /**
  * 見積もり結果を表すクラス。
  *
  * @param annualFee 保険料（年額）
  * @param adjustmentRateByAge 年齢による調整率
  * @param age 年齢
+ * @param rebateAmount 還付額
  */
 public record EstimateResult(
 
     int annualFee,   // 保険料（年額）
-    double adjustmentRateByAge,  // 年齢による調整率
+    BigDecimal adjustmentRateByAge,  // 年齢による調整率
     int age,  // 年齢
-    double rebateAmount
+    long rebateAmount  // 還付額
 ) {
 }
 
@@ -1,16 +1,39 @@
 package com.tiscon10.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.UUID;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 
 import com.tiscon10.dao.EstimateDao;
 import com.tiscon10.domain.InsuranceOrder;
 import com.tiscon10.domain.InsuranceType;
+import com.tiscon10.domain.OrderPlacedEvent;
 
 /**
  * 保険見積もり機能において業務処理を担当するクラス。
@@ -20,19 +43,149 @@ import com.tiscon10.domain.InsuranceType;
 @Service
 public class EstimateService {
 
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(EstimateService.class);
+
+    /** 見積もり可能な最低年齢 */
+    public static final int MIN_AGE = 20;
+
+    /** 見積もり可能な最高年齢 */
+    public static final int MAX_AGE = 100;
+
+    /** 年齢が範囲外の場合のエラーメッセージ（ValidationMessages.propertiesのtiscon.age.message） */
+    public static final String AGE_ERROR_MESSAGE =
+        ResourceBundle.getBundle("ValidationMessages", Locale.ROOT).getString("tiscon.age.message");
+
     /**
      * 見積もりDAO
      */
     @Autowired
     private EstimateDao estimateDAO;
 
+    /**
+     * 料金表のキャッシュ
+     */
+    @Autowired
+    private RateTableCache rateTableCache;
+
+    /**
+     * 受付番号の払い出し（複数ノード構成の場合）
+     */
+    @Autowired
+    private ReceiptNumberAllocator receiptNumberAllocator;
+
+    /**
+     * 重複申し込みの索引
+     */
+    @Autowired
+    private DuplicateApplicantIndex duplicateApplicantIndex;
+
+    /**
+     * 見積もり依頼の登録イベントの通知先
+     */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 見積もり依頼の登録のトランザクション制御
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 見積もり依頼をジャーナルに書き込んでから登録する場合、真
+     */
+    @Value("${tiscon.order-journal.enabled:false}")
+    private boolean orderJournalEnabled;
+
+    /**
+     * ジャーナルのファイル
+     */
+    @Value("${tiscon.order-journal.file:./target/order-journal.dat}")
+    private Path orderJournalFile;
+
+    /**
+     * ジャーナルのファイルの大きさ
+     */
+    @Value("${tiscon.order-journal.size:64MB}")
+    private DataSize orderJournalSize;
+
+    /**
+     * データベースに登録できなかったジャーナルの見積もり依頼の出力先
+     */
+    @Value("${tiscon.order-journal.dead-letter-file:./target/order-journal-rejected.csv}")
+    private Path orderJournalDeadLetterFile;
+
+    /**
+     * 見積もり依頼のジャーナル（無効の場合はnull）
+     */
+    private OrderJournal orderJournal;
+
+    /**
+     * 価格ルールのファイル
+     */
+    @Value("${tiscon.pricing.rule-file:classpath:/data/PRICING_RULE.csv}")
+    private Resource pricingRuleFile;
+
+    /**
+     * 価格ルールの決定表
+     */
+    private PricingRuleTable pricingRules;
+
+    /**
+     * 価格ルールを読み込み、決定表にコンパイルする。
+     *
+     * @throws IOException ファイルの読み込みに失敗した場合
+     */
+    @PostConstruct
+    void loadPricingRules() throws IOException {
+        pricingRules = PricingRuleTable.load(pricingRuleFile);
+    }
+
+    /**
+     * ジャーナルが有効な場合は、ジャーナルを開き未登録の見積もり依頼の登録を開始する。
+     * 無効な場合も、ジャーナルのファイルが残っていれば未登録の見積もり依頼を登録してから閉じる。
+     *
+     * @throws IOException ジャーナルの読み書きに失敗した場合
+     */
+    @PostConstruct
+    void openOrderJournal() throws IOException {
+        OrderJournal.Applier applier = new OrderJournal.Applier() {
+            @Override
+            public void apply(InsuranceOrder order, String idempotencyKey) {
+                applyJournaledOrder(order, idempotencyKey);
+            }
+
+            @Override
+            public void sync() {
+                // コミット後のディスクへの書き込みが遅延する設定（WRITE_DELAY）でも、ジャーナルの適用済みの位置より先に確定させる
+                estimateDAO.checkpointSync();
+            }
+        };
+        if (orderJournalEnabled) {
+            orderJournal = OrderJournal.open(orderJournalFile, orderJournalSize.toBytes(), applier);
+        } else {
+            OrderJournal.replay(orderJournalFile, applier);
+        }
+    }
+
+    /**
+     * ジャーナルを閉じる（書き込みが確定した見積もり依頼は登録してから閉じる）。
+     */
+    @PreDestroy
+    void closeOrderJournal() {
+        if (orderJournal != null) {
+            orderJournal.close();
+        }
+    }
+
     /**
      * 保険種別テーブルに登録されているすべての保険種別を取得する。
      *
      * @return すべての保険種別
      */
     public List<InsuranceType> getInsurances() {
-        return estimateDAO.getAllInsurances();
+        return rateTableCache.getInsurances();
     }
 
     /**
@@ -42,7 +195,7 @@ public class EstimateService {
      * @return 保険種別名
      */
     public String findInsuranceName(Integer insuranceType) {
-        return estimateDAO.findInsuranceName(insuranceType);
+        return rateTableCache.getInsurance(insuranceType).insuranceName();
     }
 
     /**
@@ -53,30 +206,67 @@ public class EstimateService {
      * @return 見積もり結果
      */
     public EstimateResult calculateInsuranceFee(Integer insuranceType, LocalDate dateOfBirth) {
-        // ユーザーが選択した保険種別の月額保険料を取得する。
-        int monthlyFee = estimateDAO.findMonthlyFee(insuranceType);
-
         // ユーザーが選択した生年月日と現在日付から年齢を取得する。
         int age = calculateAge(dateOfBirth);
 
-        // 年齢による調整率を取得する。
-        double adjustmentRateByAge = estimateDAO.findAdjustmentRateByAge(age);
-
-        // 保険料（年額）を計算する。
-        int annualFee = (int) ((monthlyFee * 12 * adjustmentRateByAge));
-        double adjustmentRateByInsuranceType;
-        if(insuranceType == 1){
-            adjustmentRateByInsuranceType = annualFee*0.2;
-        } else if (insuranceType == 2){
-            adjustmentRateByInsuranceType = annualFee*0.35;
-        } else{
-            adjustmentRateByInsuranceType = annualFee*0.15;
-        }
+        return calculateInsuranceFee(insuranceType, age);
+    }
 
-        // 見積もり結果を返す。
-        EstimateResult estimateResult = new EstimateResult(annualFee, adjustmentRateByAge, age, annualFee*adjustmentRateByInsuranceType);
-        return estimateResult;
+    /**
+     * 生年月日、保険種別と、ご職業などの属性から保険料（年額）の見積もりを算出する。
+     * 属性による割増・割引、還付率は価格ルールに従う。
+     *
+     * @param insuranceType 保険種別タイプ
+     * @param dateOfBirth 生年月日
+     * @param jobType ご職業
+     * @param marriedType 配偶者有無
+     * @param income 昨年の所得(万円)
+     * @param treatedType 病歴有無
+     * @return 見積もり結果
+     */
+    public EstimateResult calculateInsuranceFee(Integer insuranceType, LocalDate dateOfBirth,
+                                                int jobType, int marriedType, int income, int treatedType) {
+        int age = calculateAge(dateOfBirth);
+        int cell = pricingRules.find(insuranceType, jobType, marriedType, treatedType, income);
+        return calculateInsuranceFee(insuranceType, age, cell);
+    }
+
+    /**
+     * 年齢と保険種別から保険料（年額）の見積もりを算出する。
+     * ご職業などの属性は考慮しない（属性の条件がない価格ルールのみ適用する）。
+     *
+     * @param insuranceType 保険種別タイプ
+     * @param age 年齢
+     * @return 見積もり結果
+     */
+    public EstimateResult calculateInsuranceFee(Integer insuranceType, int age) {
+        int cell = pricingRules.find(insuranceType, PricingRuleTable.UNKNOWN, PricingRuleTable.UNKNOWN,
+            PricingRuleTable.UNKNOWN, PricingRuleTable.UNKNOWN);
+        return calculateInsuranceFee(insuranceType, age, cell);
+    }
+
+    /**
+     * 年齢と保険種別、価格ルールの決定表の位置から保険料（年額）の見積もりを算出する。
+     *
+     * @param insuranceType 保険種別タイプ
+     * @param age 年齢
+     * @param cell 価格ルールの決定表の位置
+     * @return 見積もり結果
+     */
+    private EstimateResult calculateInsuranceFee(Integer insuranceType, int age, int cell) {
+        // ユーザーが選択した保険種別の月額保険料を取得する。
+        int monthlyFee = rateTableCache.getInsurance(insuranceType).monthlyFee();
+
+        // 年齢による調整率（1/100単位）を取得する。
+        long adjustmentRateByAge = rateTableCache.getAdjustmentRate(age);
+
+        // 保険料（年額）と還付額を計算する。
+        int annualFee = PremiumCalculator.applyLoading(
+            PremiumCalculator.annualFee(monthlyFee, adjustmentRateByAge), pricingRules.loading(cell));
+        long rebateAmount = PremiumCalculator.rebateAmount(annualFee, pricingRules.rebateRate(cell));
 
+        // 見積もり結果を返す。
+        return new EstimateResult(annualFee, PremiumCalculator.toRate(adjustmentRateByAge), age, rebateAmount);
     }
 
     /**
@@ -87,7 +277,7 @@ public class EstimateService {
      */
     public boolean isAgeValid(LocalDate dateOfBirth) {
         int age = calculateAge(dateOfBirth);
-        return age >= 20 && age <= 100;
+        return age >= MIN_AGE && age <= MAX_AGE;
     }
 
     /**
@@ -103,12 +293,136 @@ public class EstimateService {
     }
 
     /**
-     * データベースに見積もり依頼を登録する。
+     * データベースに見積もり依頼を登録する。既存の申し込みと重複している疑いがある場合は記録する。
+     * 登録のコミット後に{@link OrderPlacedEvent}を通知する。
+     * <p/>
+     * ジャーナルが有効な場合は、ジャーナルへの書き込みが確定した時点で戻り、データベースへの登録は後から行う。
      *
      * @param insuranceOrder 見積もり依頼情報
      */
-    @Transactional
     public void registerOrder(InsuranceOrder insuranceOrder) {
-        estimateDAO.insertInsuranceOrder(insuranceOrder);
+        InsuranceOrder assigned = receiptNumberAllocator.assign(insuranceOrder);
+        if (orderJournal != null) {
+            // 再起動時の再適用で二重に登録しないよう、冪等キーを付けて書き込む
+            orderJournal.append(assigned, UUID.randomUUID().toString());
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> afterCommit(estimateDAO.insertInsuranceOrder(assigned)));
+    }
+
+    /**
+     * データベースに見積もり依頼を冪等キーとともに登録する。
+     * <p/>
+     * 同じ冪等キーの見積もり依頼が登録済みの場合（他のサーバで登録された場合を含む）は、登録を行わない。
+     * 既存の申し込みと重複している疑いがある場合は記録する。
+     * 登録のコミット後に{@link OrderPlacedEvent}を通知する。
+     * <p/>
+     * ジャーナルが有効な場合は、ジャーナルへの書き込みが確定した時点で戻り、データベースへの登録は後から行う。
+     * この場合、登録済みであったかは判定せず真を返す。
+     *
+     * @param insuranceOrder 見積もり依頼情報
+     * @param idempotencyKey 冪等キー
+     * @return 登録した場合は真、登録済みであった場合は偽
+     */
+    public boolean registerOrder(InsuranceOrder insuranceOrder, String idempotencyKey) {
+        InsuranceOrder assigned = receiptNumberAllocator.assign(insuranceOrder);
+        if (orderJournal != null) {
+            orderJournal.append(assigned, idempotencyKey);
+            return true;
+        }
+        return insertOrder(assigned, idempotencyKey);
+    }
+
+    /**
+     * 見積もり依頼を冪等キーとともにデータベースに登録する。
+     *
+     * @param insuranceOrder 見積もり依頼情報（受付番号の払い出し済み）
+     * @param idempotencyKey 冪等キー
+     * @return 登録した場合は真、登録済みであった場合は偽
+     * @throws DuplicateKeyException 受付番号が重複した場合（冪等キー以外の一意制約違反）
+     */
+    private boolean insertOrder(InsuranceOrder insuranceOrder, String idempotencyKey) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                status -> afterCommit(estimateDAO.insertInsuranceOrder(insuranceOrder, idempotencyKey)));
+        } catch (DuplicateKeyException e) {
+            if (!EstimateDao.isIdempotencyKeyViolation(e)) {
+                throw e;
+            }
+            LOGGER.info("order already registered. idempotencyKey={}", idempotencyKey);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 見積もり依頼を登録したトランザクションのコミット後に、重複申し込みの確認と登録イベントの通知を行うよう登録する。
+     * ロールバックした場合は行わない。
+     *
+     * @param insuranceOrder 登録した見積もり依頼情報
+     */
+    private void afterCommit(InsuranceOrder insuranceOrder) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                duplicateApplicantIndex.checkAndAdd(insuranceOrder);
+                eventPublisher.publishEvent(OrderPlacedEvent.of(insuranceOrder, LocalDate.now()));
+            }
+        });
+    }
+
+    /**
+     * ジャーナルに書き込んだ見積もり依頼をデータベースに登録する。
+     * 登録済みの場合（再起動時の再適用）は何もしない。
+     * 受付番号が使用済みの場合は、受付番号を払い出し直して登録する。
+     * 値が不正で登録できない場合は、再度登録しても成功しないため不正な見積もり依頼の出力先に書き出して読み飛ばす。
+     * 利用者には受け付けたと応答済みのため、出力先の内容を修正して一括取り込みで登録し直すこと。
+     *
+     * @param insuranceOrder 見積もり依頼情報
+     * @param idempotencyKey 冪等キー
+     */
+    private void applyJournaledOrder(InsuranceOrder insuranceOrder, String idempotencyKey) {
+        try {
+            insertOrder(insuranceOrder, idempotencyKey);
+        } catch (DuplicateKeyException e) {
+            // 払い出し直した受付番号でも登録できない場合は、例外によりジャーナルから再度適用させる
+            LOGGER.warn("receipt number of journaled order already used. receiptNo={}, idempotencyKey={}",
+                insuranceOrder.receiptNo(), idempotencyKey);
+            insertOrder(receiptNumberAllocator.assign(insuranceOrder.withReceiptNo(null)), idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // 例外のメッセージには入力値が含まれるため、ログには出力しない
+            writeDeadLetter(insuranceOrder, idempotencyKey, e.getMostSpecificCause().getMessage());
+            LOGGER.error("journaled order rejected by database. receiptNo={}, idempotencyKey={}, cause={}, file={}",
+                insuranceOrder.receiptNo(), idempotencyKey, e.getMostSpecificCause().getClass().getName(),
+                orderJournalDeadLetterFile);
+        }
+    }
+
+    /**
+     * データベースに登録できなかった見積もり依頼を出力先に追記する。
+     * 出力形式は「冪等キー,理由,値...」のCSVで、先頭の2列を除くと一括取り込み（{@link OrderImportService}）の形式となる。
+     * 書き込みに失敗した場合は、例外によりジャーナルから再度適用させる。
+     *
+     * @param insuranceOrder 見積もり依頼情報
+     * @param idempotencyKey 冪等キー
+     * @param reason         登録できなかった理由
+     */
+    private void writeDeadLetter(InsuranceOrder insuranceOrder, String idempotencyKey, String reason) {
+        StringBuilder line = new StringBuilder();
+        OrderImportService.appendCsvText(line, idempotencyKey);
+        line.append(',');
+        OrderImportService.appendCsvText(line, reason == null ? "" : reason);
+        for (String column : OrderImportService.toColumns(insuranceOrder)) {
+            line.append(',');
+            OrderImportService.appendCsvText(line, column);
+        }
+        line.append('\n');
+        try {
+            Files.createDirectories(orderJournalDeadLetterFile.toAbsolutePath().getParent());
+            Files.writeString(orderJournalDeadLetterFile, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
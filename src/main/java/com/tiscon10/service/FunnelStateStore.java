@@ -0,0 +1,201 @@
+package com.tiscon10.service;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.tiscon10.form.UserOrderForm;
+
+/**
+ * 見積もりの画面遷移の途中の入力内容（精査済みの{@link UserOrderForm}）を、サーバ側で一定期間保持するクラス。
+ * <p/>
+ * 入力内容は{@link OrderCodec}でバイナリに変換してヒープ外のメモリ（ダイレクトバッファ）の固定長の領域（スロット）に格納し、
+ * ヒープには入力内容ごとのオブジェクトを持たない。{@link jakarta.servlet.http.HttpSession}も使用しない。
+ * <p/>
+ * 入力内容を取り出すトークンは、スロットの番号と格納時に生成した乱数から成る。
+ * 乱数はスロットにも格納しておき、一致しない場合（上書き済み、または推測されたトークン）は取り出せない。
+ * そのため、トークンからスロットを引くための索引も持たない。
+ * <p/>
+ * スロットは先頭から順に使用し、末尾まで使用した場合は先頭に戻って上書きする。
+ * 保持期間はすべての入力内容で同じであるため、上書きされるのは常に最も古い入力内容となる。
+ * 使用するメモリはスロット数×スロットのサイズで固定となる。
+ * <p/>
+ * 無効（tiscon.funnel-state.enabled=false）の場合はメモリを確保せず、入力内容は画面のhidden項目で引き継ぐ。
+ */
+@Component
+public class FunnelStateStore {
+
+    /** スロットのサイズ（バイト）。入力項目の桁数の上限から、変換後の入力内容が収まるサイズとする。 */
+    static final int SLOT_SIZE = 2048;
+
+    /** 1つのバッファに格納するスロット数（ByteBufferの上限2GBを超えないよう分割する） */
+    private static final int SLOTS_PER_SEGMENT = 1 << 16;
+
+    /** スロット内の乱数の位置 */
+    private static final int NONCE_OFFSET = 0;
+
+    /** スロット内の期限の位置 */
+    private static final int EXPIRES_AT_OFFSET = 8;
+
+    /** スロット内の入力内容のバイト数の位置 */
+    private static final int LENGTH_OFFSET = 16;
+
+    /** スロット内の入力内容の位置 */
+    private static final int PAYLOAD_OFFSET = 20;
+
+    /** スロットに格納できる入力内容のバイト数 */
+    private static final int MAX_PAYLOAD_SIZE = SLOT_SIZE - PAYLOAD_OFFSET;
+
+    /** スロットの読み書きで使用するロックの数 */
+    private static final int LOCK_STRIPES = 64;
+
+    /** 有効な場合、真 */
+    private final boolean enabled;
+
+    /** スロット数 */
+    private final int capacity;
+
+    /** 入力内容の保持期間 */
+    private final long ttlNanos;
+
+    /** スロットを格納するバッファ */
+    private final ByteBuffer[] segments;
+
+    /** スロットの読み書きで使用するロック（スロット番号で振り分ける） */
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /** 次に使用するスロット（スロット数で割った余りを使用する） */
+    private final AtomicLong cursor = new AtomicLong();
+
+    /** トークンの乱数の生成に使用する乱数 */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param enabled    有効な場合、真
+     * @param maxEntries 保持する入力内容の上限件数（スロット数）
+     * @param ttl        入力内容の保持期間
+     */
+    public FunnelStateStore(@Value("${tiscon.funnel-state.enabled:false}") boolean enabled,
+                            @Value("${tiscon.funnel-state.max-entries:100000}") int maxEntries,
+                            @Value("${tiscon.funnel-state.ttl:30m}") Duration ttl) {
+        this.enabled = enabled;
+        this.capacity = enabled ? maxEntries : 0;
+        this.ttlNanos = ttl.toNanos();
+        this.segments = new ByteBuffer[(capacity + SLOTS_PER_SEGMENT - 1) / SLOTS_PER_SEGMENT];
+        for (int i = 0; i < segments.length; i++) {
+            int slots = Math.min(SLOTS_PER_SEGMENT, capacity - i * SLOTS_PER_SEGMENT);
+            segments[i] = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * サーバ側で入力内容を保持するかを返す。
+     *
+     * @return 有効な場合、真
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 入力内容を格納する。
+     *
+     * @param form 精査済みの入力内容
+     * @return 入力内容を取り出すトークン。無効な場合、または入力内容がスロットに収まらない場合はnull
+     */
+    public String save(UserOrderForm form) {
+        if (!enabled) {
+            return null;
+        }
+        int slot = (int) (cursor.getAndIncrement() % capacity);
+        long nonce = nextNonce();
+        ByteBuffer segment = segments[slot / SLOTS_PER_SEGMENT];
+        int offset = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE;
+        synchronized (locks[slot % LOCK_STRIPES]) {
+            // 入力内容はスロットへ直接書き込む
+            ByteBuffer payload = segment.slice(offset + PAYLOAD_OFFSET, MAX_PAYLOAD_SIZE);
+            try {
+                OrderCodec.encode(form, payload);
+            } catch (BufferOverflowException e) {
+                segment.putLong(offset + NONCE_OFFSET, 0);
+                return null;
+            }
+            segment.putLong(offset + NONCE_OFFSET, nonce);
+            segment.putLong(offset + EXPIRES_AT_OFFSET, System.nanoTime() + ttlNanos);
+            segment.putInt(offset + LENGTH_OFFSET, payload.position());
+        }
+        return toToken(slot, nonce);
+    }
+
+    /**
+     * トークンに対応する入力内容を取り出す。
+     *
+     * @param token {@link #save(UserOrderForm)}で返したトークン
+     * @return 入力内容。トークンが不正な場合、または期限切れ・上書き済みの場合はnull
+     */
+    public UserOrderForm find(String token) {
+        if (!enabled || token == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != 12) {
+            return null;
+        }
+        ByteBuffer decoded = ByteBuffer.wrap(bytes);
+        int slot = decoded.getInt();
+        long nonce = decoded.getLong();
+        if (slot < 0 || slot >= capacity || nonce == 0) {
+            return null;
+        }
+        ByteBuffer segment = segments[slot / SLOTS_PER_SEGMENT];
+        int offset = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE;
+        synchronized (locks[slot % LOCK_STRIPES]) {
+            if (segment.getLong(offset + NONCE_OFFSET) != nonce
+                || segment.getLong(offset + EXPIRES_AT_OFFSET) - System.nanoTime() <= 0) {
+                return null;
+            }
+            return OrderCodec.decodeForm(segment.slice(offset + PAYLOAD_OFFSET, segment.getInt(offset + LENGTH_OFFSET)));
+        }
+    }
+
+    /**
+     * トークンの乱数を生成する。0はスロットが未使用であることを表すため使用しない。
+     *
+     * @return 乱数
+     */
+    private long nextNonce() {
+        long nonce;
+        do {
+            nonce = random.nextLong();
+        } while (nonce == 0);
+        return nonce;
+    }
+
+    /**
+     * スロットの番号と乱数からトークンを生成する。
+     *
+     * @param slot  スロットの番号
+     * @param nonce 乱数
+     * @return トークン
+     */
+    private String toToken(int slot, long nonce) {
+        byte[] bytes = ByteBuffer.allocate(12).putInt(slot).putLong(nonce).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
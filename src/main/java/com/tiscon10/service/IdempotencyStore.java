@@ -0,0 +1,121 @@
+package com.tiscon10.service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 冪等キー（二重送信防止トークン）ごとに、処理の結果を一定期間保持するクラス。
+ * <p/>
+ * 同じ冪等キーで処理が要求された場合は、処理を再実行せず最初の処理の結果を返す。
+ * 最初の処理が実行中の場合は、その完了を待って同じ結果を返す。
+ * <p/>
+ * 保持期間はすべてのキーで同じであるため、登録順に期限切れとなる。
+ * 登録順のキューの先頭から、期限切れのキーと上限件数を超えたキーを取り除く。
+ */
+@Component
+public class IdempotencyStore {
+
+    /** 冪等キーのバイト数 */
+    private static final int KEY_BYTES = 16;
+
+    /** 冪等キーの生成に使用する乱数 */
+    private final SecureRandom random = new SecureRandom();
+
+    /** 冪等キーごとの処理結果 */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** 登録順の冪等キー */
+    private final Queue<Entry> expirationQueue = new ConcurrentLinkedQueue<>();
+
+    /** 保持する冪等キーの上限件数 */
+    @Value("${tiscon.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    /** 冪等キーの保持期間 */
+    @Value("${tiscon.idempotency.ttl:30m}")
+    private Duration ttl;
+
+    /**
+     * 新しい冪等キーを発行する。
+     *
+     * @return 冪等キー
+     */
+    public String issueKey() {
+        byte[] bytes = new byte[KEY_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * 冪等キーに対して処理を1度だけ実行し、その結果を返す。
+     * <p/>
+     * 処理が例外で終了した場合は結果を保持せず、同じ冪等キーで再度実行できるようにする。
+     *
+     * @param key    冪等キー
+     * @param action 処理
+     * @param <T>    処理結果の型
+     * @return 処理結果（2回目以降は最初の処理結果）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> action) {
+        long now = System.nanoTime();
+        evict(now);
+
+        Entry entry = new Entry(key, now + ttl.toNanos(), new CompletableFuture<>());
+        Entry existing = entries.putIfAbsent(key, entry);
+        if (existing != null) {
+            try {
+                return (T) existing.outcome().join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        expirationQueue.add(entry);
+
+        try {
+            T outcome = action.get();
+            entry.outcome().complete(outcome);
+            return outcome;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            entry.outcome().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 期限切れの冪等キーと、上限件数を超えた古い冪等キーを取り除く。
+     *
+     * @param now 現在時刻（{@link System#nanoTime()}）
+     */
+    private void evict(long now) {
+        Entry head;
+        while ((head = expirationQueue.peek()) != null
+            && (head.expiresAt() - now <= 0 || entries.size() >= maxEntries)) {
+            if (expirationQueue.remove(head)) {
+                entries.remove(head.key(), head);
+            }
+        }
+    }
+
+    /**
+     * 冪等キーごとの処理結果。
+     *
+     * @param key       冪等キー
+     * @param expiresAt 期限（{@link System#nanoTime()}）
+     * @param outcome   処理結果
+     */
+    private record Entry(String key, long expiresAt, CompletableFuture<Object> outcome) {
+    }
+}
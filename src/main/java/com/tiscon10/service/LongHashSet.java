@@ -0,0 +1,97 @@
+package com.tiscon10.service;
+
+/**
+ * long値の集合。値をオブジェクトに包まず、固定長の配列にオープンアドレス法（線形探索）で格納する。
+ * <p/>
+ * 配列は生成時に確保し、拡張しない。上限件数に達した場合は追加を行わない。
+ * 0は空きを表すため、0を格納する場合は別の値に置き換えること。スレッドセーフではない。
+ */
+final class LongHashSet {
+
+    /** 配列の使用率の上限 */
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    /** 配列の大きさの上限 */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /** 値を格納する配列（0は空き） */
+    private final long[] slots;
+
+    /** 配列の添字を求めるマスク */
+    private final int mask;
+
+    /** 上限件数 */
+    private final int maxSize;
+
+    /** 件数 */
+    private int size;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxSize 上限件数
+     */
+    LongHashSet(int maxSize) {
+        // 使用率が上限を超えず、かつ空きが必ず残る2のべき乗の大きさとする
+        long capacity = Math.max((long) maxSize + 1, (long) Math.ceil(maxSize / MAX_LOAD_FACTOR));
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("max size is too large: " + maxSize);
+        }
+        this.slots = new long[Integer.highestOneBit((int) capacity * 2 - 1)];
+        this.mask = slots.length - 1;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 値を追加する。
+     *
+     * @param value 値（0以外）
+     * @return 追加した場合、または追加済みの場合は真。上限件数に達していて追加できなかった場合は偽
+     */
+    boolean add(long value) {
+        int index = indexOf(value);
+        if (slots[index] == value) {
+            return true;
+        }
+        if (size >= maxSize) {
+            return false;
+        }
+        slots[index] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * 値が含まれるかを返す。
+     *
+     * @param value 値（0以外）
+     * @return 含まれる場合、真
+     */
+    boolean contains(long value) {
+        return slots[indexOf(value)] == value;
+    }
+
+    /**
+     * 件数を返す。
+     *
+     * @return 件数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * 値が格納されている位置、または格納すべき空きの位置を求める。
+     *
+     * @param value 値
+     * @return 配列の添字
+     */
+    private int indexOf(long value) {
+        // 値はハッシュ値であることを想定し、上位ビットも混ぜて添字とする
+        int index = (int) (value ^ (value >>> 32)) & mask;
+        while (slots[index] != 0 && slots[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+}
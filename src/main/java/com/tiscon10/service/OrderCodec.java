@@ -0,0 +1,566 @@
+package com.tiscon10.service;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.UserOrderForm;
+
+/**
+ * 入力内容（{@link UserOrderForm}）と保険申し込み（{@link InsuranceOrder}）をバイナリに変換するクラス。
+ * <p/>
+ * キューへの格納やキャッシュ、サーバ間での受け渡しに使用する。項目は定義順に、以下の形式で格納する。
+ * <ul>
+ *     <li>整数（コード値、所得金額など）: 可変長整数（7ビットずつ、下位から格納する）</li>
+ *     <li>日付: エポック日（1970/01/01からの日数）の可変長整数</li>
+ *     <li>文字列（氏名、住所など）: バイト数の可変長整数に続けて、UTF-8の文字列</li>
+ * </ul>
+ * 入力内容は精査前の文字列であるため、整数・日付の項目は、変換後に元の文字列に戻せる場合（「007」などでない場合）
+ * のみ整数として格納し、それ以外は文字列として格納する。先頭の可変長整数の最下位ビットで区別する。
+ * <p/>
+ * 変換は呼び出し元が用意した{@link ByteBuffer}の現在位置から読み書きする。バイナリへの変換では、
+ * 文字列のバイト列への変換などの作業用の配列は確保しない。
+ * 対になるサロゲートのない文字も、元の文字列に戻せるよう1文字ずつ3バイトで格納する。
+ */
+public final class OrderCodec {
+
+    /** 可変長整数の最大バイト数 */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    /** 整数として格納する数字の最大桁数 */
+    private static final int MAX_NUMBER_DIGITS = 18;
+
+    /**
+     * インスタンス化しない。
+     */
+    private OrderCodec() {
+    }
+
+    /**
+     * 入力内容をバイナリに変換する。
+     *
+     * @param form 入力内容
+     * @param out  出力先（現在位置から書き込む）
+     * @throws BufferOverflowException 出力先の残りが足りない場合
+     */
+    public static void encode(UserOrderForm form, ByteBuffer out) {
+        writeNumberText(out, form.insuranceType());
+        writeText(out, form.kanjiName());
+        writeText(out, form.kanaName());
+        writeDateText(out, form.dateOfBirth());
+        writeText(out, form.address());
+        writeText(out, form.tel());
+        writeText(out, form.email());
+        writeNumberText(out, form.marriedType());
+        writeNumberText(out, form.jobType());
+        writeNumberText(out, form.income());
+        writeNumberText(out, form.treatedType());
+        writeText(out, form.medicalHistory());
+    }
+
+    /**
+     * バイナリから入力内容を復元する。
+     *
+     * @param in 入力元（現在位置から読み込む）
+     * @return 入力内容
+     * @throws IllegalArgumentException バイナリの形式が不正な場合
+     */
+    public static UserOrderForm decodeForm(ByteBuffer in) {
+        return new UserOrderForm(
+            readNumberText(in),
+            readText(in),
+            readText(in),
+            readDateText(in),
+            readText(in),
+            readText(in),
+            readText(in),
+            readNumberText(in),
+            readNumberText(in),
+            readNumberText(in),
+            readNumberText(in),
+            readText(in)
+        );
+    }
+
+    /**
+     * 保険申し込みをバイナリに変換する。
+     *
+     * @param order 保険申し込み
+     * @param out   出力先（現在位置から書き込む）
+     * @throws BufferOverflowException 出力先の残りが足りない場合
+     */
+    public static void encode(InsuranceOrder order, ByteBuffer out) {
+        writeInteger(out, order.receiptNo());
+        writeInteger(out, order.insuranceType());
+        writeText(out, order.kanjiName());
+        writeText(out, order.kanaName());
+        writeDate(out, order.dateOfBirth());
+        writeText(out, order.Address());
+        writeText(out, order.tel());
+        writeText(out, order.email());
+        writeInteger(out, order.marriedType());
+        writeInteger(out, order.jobType());
+        writeInteger(out, order.income());
+        writeInteger(out, order.treatedType());
+        writeText(out, order.medicalHistory());
+    }
+
+    /**
+     * バイナリから保険申し込みを復元する。
+     *
+     * @param in 入力元（現在位置から読み込む）
+     * @return 保険申し込み
+     * @throws IllegalArgumentException バイナリの形式が不正な場合
+     */
+    public static InsuranceOrder decodeOrder(ByteBuffer in) {
+        return new InsuranceOrder(
+            readInteger(in),
+            readInteger(in),
+            readText(in),
+            readText(in),
+            readDate(in),
+            readText(in),
+            readText(in),
+            readText(in),
+            readInteger(in),
+            readInteger(in),
+            readInteger(in),
+            readInteger(in),
+            readText(in)
+        );
+    }
+
+    /**
+     * 整数を表す文字列を格納する。「0」以外で先頭が0の場合など、整数から同じ文字列に戻せない場合は文字列として格納する。
+     * <p/>
+     * 先頭の可変長整数は、null: 0、整数: (値 &lt;&lt; 1) | 1、文字列: (バイト数 + 1) &lt;&lt; 1 とする。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeNumberText(ByteBuffer out, String value) {
+        long number = parseNumber(value);
+        if (number >= 0) {
+            writeVarint(out, (number << 1) | 1);
+        } else {
+            writeTaggedText(out, value);
+        }
+    }
+
+    /**
+     * {@link #writeNumberText}で格納した文字列を読み込む。
+     *
+     * @param in 入力元
+     * @return 値
+     */
+    private static String readNumberText(ByteBuffer in) {
+        long header = readVarint(in);
+        if ((header & 1) == 1) {
+            return Long.toString(header >>> 1);
+        }
+        return readTaggedText(in, header);
+    }
+
+    /**
+     * 日付（yyyy/MM/dd）を表す文字列を格納する。日付として正しくない場合は文字列として格納する。
+     * <p/>
+     * 先頭の可変長整数は、null: 0、日付: (ジグザグ符号化したエポック日 &lt;&lt; 1) | 1、文字列: (バイト数 + 1) &lt;&lt; 1 とする。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeDateText(ByteBuffer out, String value) {
+        LocalDate date = parseDate(value);
+        if (date != null) {
+            writeVarint(out, (zigzag(date.toEpochDay()) << 1) | 1);
+        } else {
+            writeTaggedText(out, value);
+        }
+    }
+
+    /**
+     * {@link #writeDateText}で格納した文字列を読み込む。
+     *
+     * @param in 入力元
+     * @return 値
+     */
+    private static String readDateText(ByteBuffer in) {
+        long header = readVarint(in);
+        if ((header & 1) == 1) {
+            LocalDate date = readEpochDay(unzigzag(header >>> 1));
+            if (date.getYear() < 0 || date.getYear() > 9999) {
+                throw new IllegalArgumentException("date out of range: " + date);
+            }
+            char[] chars = {
+                digit(date.getYear() / 1000), digit(date.getYear() / 100), digit(date.getYear() / 10),
+                digit(date.getYear()), '/', digit(date.getMonthValue() / 10), digit(date.getMonthValue()), '/',
+                digit(date.getDayOfMonth() / 10), digit(date.getDayOfMonth())};
+            return new String(chars);
+        }
+        return readTaggedText(in, header);
+    }
+
+    /**
+     * 文字列を、整数・日付と区別できる形式で格納する。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeTaggedText(ByteBuffer out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        writeVarint(out, ((long) utf8Length(value) + 1) << 1);
+        writeUtf8(out, value);
+    }
+
+    /**
+     * {@link #writeTaggedText}で格納した文字列を読み込む。
+     *
+     * @param in     入力元
+     * @param header 先頭の可変長整数
+     * @return 値
+     */
+    private static String readTaggedText(ByteBuffer in, long header) {
+        if (header == 0) {
+            return null;
+        }
+        return readUtf8(in, toLength((header >>> 1) - 1, in));
+    }
+
+    /**
+     * 文字列を格納する。先頭の可変長整数は、null: 0、文字列: バイト数 + 1 とする。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeText(ByteBuffer out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        writeVarint(out, (long) utf8Length(value) + 1);
+        writeUtf8(out, value);
+    }
+
+    /**
+     * {@link #writeText}で格納した文字列を読み込む。
+     *
+     * @param in 入力元
+     * @return 値
+     */
+    private static String readText(ByteBuffer in) {
+        long header = readVarint(in);
+        if (header == 0) {
+            return null;
+        }
+        return readUtf8(in, toLength(header - 1, in));
+    }
+
+    /**
+     * 整数を格納する。null: 0、整数: ジグザグ符号化した値 + 1 とする。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeInteger(ByteBuffer out, Integer value) {
+        writeVarint(out, value == null ? 0 : zigzag(value) + 1);
+    }
+
+    /**
+     * {@link #writeInteger}で格納した整数を読み込む。
+     *
+     * @param in 入力元
+     * @return 値
+     */
+    private static Integer readInteger(ByteBuffer in) {
+        long header = readVarint(in);
+        if (header == 0) {
+            return null;
+        }
+        long value = unzigzag(header - 1);
+        if (value != (int) value) {
+            throw new IllegalArgumentException("integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 日付を格納する。null: 0、日付: ジグザグ符号化したエポック日 + 1 とする。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeDate(ByteBuffer out, LocalDate value) {
+        writeVarint(out, value == null ? 0 : zigzag(value.toEpochDay()) + 1);
+    }
+
+    /**
+     * {@link #writeDate}で格納した日付を読み込む。
+     *
+     * @param in 入力元
+     * @return 値
+     */
+    private static LocalDate readDate(ByteBuffer in) {
+        long header = readVarint(in);
+        return header == 0 ? null : readEpochDay(unzigzag(header - 1));
+    }
+
+    /**
+     * エポック日から日付を生成する。
+     *
+     * @param epochDay エポック日
+     * @return 日付
+     */
+    private static LocalDate readEpochDay(long epochDay) {
+        try {
+            return LocalDate.ofEpochDay(epochDay);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("date out of range: " + epochDay, e);
+        }
+    }
+
+    /**
+     * 可変長整数（符号なし）を格納する。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * 可変長整数（符号なし）を読み込む。
+     *
+     * @param in 入力元
+     * @return 値
+     */
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint.");
+    }
+
+    /**
+     * 文字列をUTF-8で格納する。対になるサロゲートのない文字は、そのまま3バイトで格納する。
+     *
+     * @param out   出力先
+     * @param value 値
+     */
+    private static void writeUtf8(ByteBuffer out, String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * {@link #writeUtf8}で格納した場合のバイト数を求める。
+     *
+     * @param value 値
+     * @return バイト数
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * {@link #writeUtf8}で格納した文字列を読み込む。
+     *
+     * @param in     入力元
+     * @param length バイト数
+     * @return 値
+     */
+    private static String readUtf8(ByteBuffer in, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+        int end = in.position() + length;
+        while (in.position() < end) {
+            int b = in.get() & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | continuation(in));
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[count++] = (char) (((b & 0x0F) << 12) | (continuation(in) << 6) | continuation(in));
+            } else if ((b & 0xF8) == 0xF0) {
+                int codePoint = ((b & 0x07) << 18) | (continuation(in) << 12) | (continuation(in) << 6) | continuation(in);
+                if (!Character.isSupplementaryCodePoint(codePoint)) {
+                    throw new IllegalArgumentException("malformed utf-8.");
+                }
+                chars[count++] = Character.highSurrogate(codePoint);
+                chars[count++] = Character.lowSurrogate(codePoint);
+            } else {
+                throw new IllegalArgumentException("malformed utf-8.");
+            }
+        }
+        if (in.position() != end) {
+            throw new IllegalArgumentException("malformed utf-8.");
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * UTF-8の2バイト目以降を読み込む。
+     *
+     * @param in 入力元
+     * @return 下位6ビットの値
+     */
+    private static int continuation(ByteBuffer in) {
+        int b = in.get() & 0xFF;
+        if ((b & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("malformed utf-8.");
+        }
+        return b & 0x3F;
+    }
+
+    /**
+     * 文字列のバイト数を検証する。
+     *
+     * @param length バイト数
+     * @param in     入力元
+     * @return バイト数
+     */
+    private static int toLength(long length, ByteBuffer in) {
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("invalid text length: " + length);
+        }
+        return (int) length;
+    }
+
+    /**
+     * 整数として格納できる文字列（「0」または先頭が0でない18桁以下の数字）であれば、その値を返す。
+     *
+     * @param value 値
+     * @return 整数値。整数として格納できない場合は-1
+     */
+    private static long parseNumber(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_NUMBER_DIGITS
+            || (value.charAt(0) == '0' && value.length() > 1)) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * 日付として格納できる文字列（yyyy/MM/ddの正しい日付）であれば、その日付を返す。
+     *
+     * @param value 値
+     * @return 日付。日付として格納できない場合はnull
+     */
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.length() != 10 || value.charAt(4) != '/' || value.charAt(7) != '/') {
+            return null;
+        }
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 7);
+        int day = parseDigits(value, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * 文字列の一部を数字として読み込む。
+     *
+     * @param value 値
+     * @param from  開始位置
+     * @param to    終了位置（この位置を含まない）
+     * @return 数値。数字以外を含む場合は-1
+     */
+    private static int parseDigits(String value, int from, int to) {
+        int number = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * 数値の1の位の数字を返す。
+     *
+     * @param number 数値
+     * @return 数字
+     */
+    private static char digit(int number) {
+        return (char) ('0' + number % 10);
+    }
+
+    /**
+     * 符号付き整数を、絶対値の小さい値ほど小さな符号なし整数に変換する。
+     *
+     * @param value 値
+     * @return 変換後の値
+     */
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * {@link #zigzag}で変換した値を元に戻す。
+     *
+     * @param value 変換後の値
+     * @return 値
+     */
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
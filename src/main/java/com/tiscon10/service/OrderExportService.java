@@ -0,0 +1,168 @@
+package com.tiscon10.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tiscon10.dao.EstimateDao;
+
+/**
+ * 保険申し込みを分析基盤向けに差分エクスポートするクラス。
+ * <p/>
+ * 前回エクスポートした最後の申し込みの（申し込み日時、受付番号）をチェックポイントとし、それより後の申し込みを
+ * 申し込み日時、受付番号の順に前方向カーソルで読み出す（キーセットページング）。読み出した申し込みは、
+ * {@link ColumnarOrderWriter}の形式で一定件数ごとのファイルに書き出す。
+ * 1ファイル書き終えるごとにチェックポイントを更新するため、途中で失敗しても再実行時は続きから出力される。
+ * <p/>
+ * 申し込み日時は登録のトランザクションの開始時点であり、受付番号も払い出した順にコミットされるとは限らない
+ * （複数ノード構成の借り受け、トランザクションの長さの違い）。チェックポイントより前の位置に後からコミットされた
+ * 申し込みを読み飛ばさないよう、申し込み日時から一定時間（{@code tiscon.export.delay}）が過ぎた申し込みのみを出力する。
+ * この時間より長くコミットが遅れた申し込みは出力されない。
+ * <p/>
+ * {@code tiscon.export.enabled=true}の場合のみ有効となり、{@code tiscon.export.cron}の時刻に実行する。
+ *
+ * @author TIS Taro
+ */
+@Service
+@ConditionalOnProperty(name = "tiscon.export.enabled", havingValue = "true")
+public class OrderExportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderExportService.class);
+
+    /** チェックポイントファイル名 */
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /** ファイル名に含める申し込み日時の形式 */
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS");
+
+    /**
+     * 見積もりDAO
+     */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** 出力先ディレクトリ */
+    @Value("${tiscon.export.directory:./target/export}")
+    private Path exportDirectory;
+
+    /** 1ファイルあたりの件数 */
+    @Value("${tiscon.export.batch-size:50000}")
+    private int batchSize;
+
+    /** 申し込み日時からエクスポートするまでに置く時間（登録からコミットまでにかかる時間の上限） */
+    @Value("${tiscon.export.delay:10m}")
+    private Duration delay;
+
+    /**
+     * 前回のチェックポイントより後の保険申し込みをエクスポートする。
+     *
+     * @return エクスポートした件数
+     */
+    @Scheduled(cron = "${tiscon.export.cron:0 0 2 * * *}")
+    public synchronized long export() {
+        try {
+            Files.createDirectories(exportDirectory);
+            Checkpoint from = readCheckpoint();
+            ColumnarOrderWriter writer = new ColumnarOrderWriter(batchSize);
+            Checkpoint[] last = {from};
+            long[] count = {0};
+            estimateDAO.scanInsuranceOrdersOrderedAfter(from == null ? null : from.orderedAt(),
+                from == null ? null : from.receiptNo(), delay, (order, orderedAt) -> {
+                    writer.add(order);
+                    last[0] = new Checkpoint(orderedAt, order.receiptNo());
+                    count[0]++;
+                    if (writer.isFull()) {
+                        flush(writer, last[0]);
+                    }
+                });
+            if (writer.size() > 0) {
+                flush(writer, last[0]);
+            }
+            LOGGER.info("exported {} orders after {} to {}", count[0], from, exportDirectory);
+            return count[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * バッチをファイルに書き出し、チェックポイントを更新する。
+     * <p/>
+     * 書きかけのファイルが残らないよう、一時ファイルに書き出した後にリネームする。
+     *
+     * @param writer     書き出すバッチ
+     * @param checkpoint バッチの最後の申し込みの位置
+     */
+    private void flush(ColumnarOrderWriter writer, Checkpoint checkpoint) {
+        String fileName = String.format("orders-%s-%09d.tcol.gz",
+            FILE_NAME_FORMAT.format(checkpoint.orderedAt()), checkpoint.receiptNo());
+        try {
+            Path temporary = exportDirectory.resolve(fileName + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                writer.writeBatch(out);
+            }
+            Files.move(temporary, exportDirectory.resolve(fileName),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            writeCheckpoint(checkpoint);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * チェックポイントを読み込む。形式は「申し込み日時,受付番号」の1行。
+     *
+     * @return チェックポイント。未実行の場合はnull
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private Checkpoint readCheckpoint() throws IOException {
+        Path file = exportDirectory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        String content = Files.readString(file, StandardCharsets.UTF_8).trim();
+        if (content.isEmpty()) {
+            return null;
+        }
+        String[] values = content.split(",");
+        return new Checkpoint(LocalDateTime.parse(values[0]), Integer.valueOf(values[1]));
+    }
+
+    /**
+     * チェックポイントを記録する。
+     *
+     * @param checkpoint チェックポイント
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        Path temporary = exportDirectory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temporary, checkpoint.orderedAt() + "," + checkpoint.receiptNo() + "\n",
+            StandardCharsets.UTF_8);
+        Files.move(temporary, exportDirectory.resolve(CHECKPOINT_FILE),
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * チェックポイント（最後にエクスポートした申し込みの位置）。
+     *
+     * @param orderedAt 申し込み日時
+     * @param receiptNo 受付番号
+     */
+    private record Checkpoint(LocalDateTime orderedAt, int receiptNo) {
+    }
+}
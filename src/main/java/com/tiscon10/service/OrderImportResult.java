@@ -0,0 +1,27 @@
+package com.tiscon10.service;
+
+/**
+ * 保険申し込みの一括取り込み結果を表すクラス。
+ *
+ * @param read          読み込んだ件数
+ * @param imported      登録した件数
+ * @param rejected      入力エラーにより登録しなかった件数
+ * @param elapsedMillis 処理時間（ミリ秒）
+ */
+public record OrderImportResult(
+
+    long read,    // 読み込んだ件数
+    long imported,    // 登録した件数
+    long rejected,    // 入力エラーの件数
+    long elapsedMillis    // 処理時間（ミリ秒）
+) {
+
+    /**
+     * 1秒あたりの処理件数を取得する。
+     *
+     * @return 1秒あたりの読み込み件数
+     */
+    public long rowsPerSecond() {
+        return elapsedMillis == 0 ? read : read * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,442 @@
+package com.tiscon10.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.domain.OrderPlacedEvent;
+import com.tiscon10.form.JapaneseTextNormalizer;
+import com.tiscon10.form.UserOrderForm;
+import com.tiscon10.validator.UserOrderFormValidator;
+
+/**
+ * 保険申し込みをCSVファイルから一括で取り込むクラス。
+ * <p/>
+ * CSVの列順は{@link UserOrderForm}の項目順（保険種別、氏名、シメイ、生年月日、住所、電話番号、メールアドレス、
+ * 配偶者有無、ご職業、昨年の所得、病歴有無、病歴）とする。文字コードはUTF-8。
+ * <p/>
+ * ファイルは先頭から順に読み込み、一定件数ごとのパーティションに分けて複数スレッドで精査・登録する。
+ * 画面と同じ{@link UserOrderForm}の精査ルールでエラーとなった行は、理由とともに別ファイルへ出力する。
+ * ダブルクォートが閉じられずに1レコードが{@value #MAX_RECORD_CHARS}文字を超えた場合は、そこまでを1レコードとしてエラーとし、
+ * 次の行から読み込みを続ける（以降のファイル全体を1項目として読み込まない）。
+ *
+ * @author TIS Taro
+ */
+@Service
+public class OrderImportService {
+
+    /** CSVの列数 */
+    private static final int COLUMN_COUNT = 12;
+
+    /** 生年月日の形式 */
+    private static final DateTimeFormatter DATE_OF_BIRTH_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    /** 1レコードの文字数の上限（改行を含む。各項目の桁数の上限の合計より十分に大きくする） */
+    static final int MAX_RECORD_CHARS = 8192;
+
+    /** 年齢が範囲外の場合のエラー理由（画面と同じメッセージ） */
+    private static final String AGE_ERROR_REASON = "dateOfBirth: " + EstimateService.AGE_ERROR_MESSAGE;
+
+    /**
+     * 見積もりDAO
+     */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** 入力値の精査 */
+    @Autowired
+    private UserOrderFormValidator userOrderFormValidator;
+
+    /** 見積もりサービス（年齢の範囲の確認） */
+    @Autowired
+    private EstimateService estimateService;
+
+    /** 受付番号の払い出し（複数ノード構成の場合） */
+    @Autowired
+    private ReceiptNumberAllocator receiptNumberAllocator;
+
+    /** 重複申し込みの索引 */
+    @Autowired
+    private DuplicateApplicantIndex duplicateApplicantIndex;
+
+    /** 申し込みの登録イベントの通知先 */
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** パーティション単位のトランザクション制御 */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * CSVファイルから保険申し込みを取り込む。
+     *
+     * @param input       取り込むCSVファイル
+     * @param rejectFile  入力エラーとなった行の出力先
+     * @param hasHeader   1行目が見出し行の場合、真
+     * @param batchSize   1パーティション（1回のバッチ登録）の件数
+     * @param parallelism 並列に処理するスレッド数
+     * @return 取り込み結果
+     * @throws IOException ファイルの読み書きに失敗した場合
+     */
+    public OrderImportResult importOrders(Path input, Path rejectFile, boolean hasHeader, int batchSize, int parallelism)
+        throws IOException {
+        long start = System.currentTimeMillis();
+        LongAdder imported = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        long read = 0;
+
+        // キューを並列数に制限し、登録が追いつかない場合は読み込み側で処理させる
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(parallelism), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<?>> running = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8)) {
+            if (hasHeader) {
+                readRecord(reader);
+            }
+            List<CsvRecord> partition = new ArrayList<>(batchSize);
+            long partitionStart = 1;
+            CsvRecord record;
+            while ((record = readRecord(reader)) != null) {
+                partition.add(record);
+                read++;
+                if (partition.size() == batchSize) {
+                    running.add(submit(executor, partition, partitionStart, rejects, imported, rejected));
+                    awaitCompleted(running, false);
+                    partition = new ArrayList<>(batchSize);
+                    partitionStart = read + 1;
+                }
+            }
+            if (!partition.isEmpty()) {
+                running.add(submit(executor, partition, partitionStart, rejects, imported, rejected));
+            }
+            awaitCompleted(running, true);
+        } finally {
+            executor.shutdownNow();
+        }
+        return new OrderImportResult(read, imported.sum(), rejected.sum(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * パーティションの精査・登録を実行キューに投入する。
+     *
+     * @param executor      実行するスレッドプール
+     * @param partition     パーティションの各行の値
+     * @param firstRecordNo パーティション先頭行のレコード番号
+     * @param rejects       入力エラーとなった行の出力先
+     * @param imported      登録件数
+     * @param rejected      入力エラー件数
+     * @return 投入した処理
+     */
+    private Future<?> submit(ThreadPoolExecutor executor, List<CsvRecord> partition, long firstRecordNo,
+                             Writer rejects, LongAdder imported, LongAdder rejected) {
+        return executor.submit(() -> {
+            List<InsuranceOrder> orders = new ArrayList<>(partition.size());
+            for (int i = 0; i < partition.size(); i++) {
+                String[] columns = partition.get(i).columns();
+                String[] normalized = normalize(columns);
+                String reason = partition.get(i).error() != null ? partition.get(i).error() : validate(normalized);
+                if (reason == null) {
+                    orders.add(receiptNumberAllocator.assign(toInsuranceOrder(normalized)));
+                } else {
+                    writeReject(rejects, firstRecordNo + i, reason, columns);
+                    rejected.increment();
+                }
+            }
+            if (!orders.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<InsuranceOrder> inserted = estimateDAO.insertInsuranceOrders(orders);
+                    // ロールバックした申し込みを重複申し込みの索引・集計に反映しないよう、コミット後に行う
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            LocalDate today = LocalDate.now();
+                            for (InsuranceOrder order : inserted) {
+                                duplicateApplicantIndex.checkAndAdd(order);
+                                eventPublisher.publishEvent(OrderPlacedEvent.of(order, today));
+                            }
+                        }
+                    });
+                });
+                imported.add(orders.size());
+            }
+        });
+    }
+
+    /**
+     * 完了したパーティションを一覧から除き、失敗していれば例外を送出する。
+     *
+     * @param running 実行中のパーティション
+     * @param all     すべての完了を待つ場合、真
+     * @throws IOException パーティションの処理で入出力エラーが発生した場合
+     */
+    private void awaitCompleted(List<Future<?>> running, boolean all) throws IOException {
+        Iterator<Future<?>> iterator = running.iterator();
+        while (iterator.hasNext()) {
+            Future<?> future = iterator.next();
+            if (!all && !future.isDone()) {
+                continue;
+            }
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("order import was interrupted.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) {
+                    throw io.getCause();
+                }
+                throw new IllegalStateException("order import failed.", e.getCause());
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 1行分の値を{@link UserOrderForm}の精査ルールで検証する。
+     * 画面からの申し込みと同様に、生年月日から計算した年齢が20歳以上100歳以下であることも確認する。
+     *
+     * @param columns 1行分の値
+     * @return エラー理由。エラーがない場合はnull
+     */
+    private String validate(String[] columns) {
+        if (columns.length != COLUMN_COUNT) {
+            return "列数が不正です（" + columns.length + "列）";
+        }
+        UserOrderForm form = toForm(columns);
+        if (userOrderFormValidator.isValid(form)) {
+            LocalDate dateOfBirth = LocalDate.parse(columns[3], DATE_OF_BIRTH_FORMAT);
+            return estimateService.isAgeValid(dateOfBirth) ? null : AGE_ERROR_REASON;
+        }
+        // エラーの場合のみ、メッセージを組み立てる
+        Errors errors = new BeanPropertyBindingResult(form, "userOrderForm");
+        userOrderFormValidator.validate(form, errors);
+        StringBuilder reason = new StringBuilder();
+        for (FieldError error : errors.getFieldErrors()) {
+            if (!reason.isEmpty()) {
+                reason.append(" / ");
+            }
+            reason.append(error.getField()).append(": ").append(error.getDefaultMessage());
+        }
+        return reason.toString();
+    }
+
+    /**
+     * 画面からの申し込みと同様に、精査の前に氏名・シメイ・住所・電話番号を正規化する。
+     *
+     * @param columns 1行分の値
+     * @return 正規化した1行分の値（列数が不正な場合は引数のまま）
+     */
+    private String[] normalize(String[] columns) {
+        if (columns.length != COLUMN_COUNT) {
+            return columns;
+        }
+        String[] normalized = columns.clone();
+        normalized[1] = JapaneseTextNormalizer.normalizeName(columns[1]);
+        normalized[2] = JapaneseTextNormalizer.normalizeKana(columns[2]);
+        normalized[4] = JapaneseTextNormalizer.normalizeAddress(columns[4]);
+        normalized[5] = JapaneseTextNormalizer.normalizeTel(columns[5]);
+        return normalized;
+    }
+
+    /**
+     * 1行分の値から入力フォームを生成する。
+     *
+     * @param columns 1行分の値
+     * @return 入力フォーム
+     */
+    private UserOrderForm toForm(String[] columns) {
+        return new UserOrderForm(columns[0], columns[1], columns[2], columns[3], columns[4], columns[5],
+            columns[6], columns[7], columns[8], columns[9], columns[10], columns[11]);
+    }
+
+    /**
+     * 精査済みの1行分の値から保険申し込みを生成する。
+     *
+     * @param columns 1行分の値
+     * @return 保険申し込み
+     */
+    private InsuranceOrder toInsuranceOrder(String[] columns) {
+        return new InsuranceOrder(
+            null,  // 受付番号はデータベース登録時に自動採番されるためnullを設定
+            Integer.parseInt(columns[0]),
+            columns[1],
+            columns[2],
+            LocalDate.parse(columns[3], DATE_OF_BIRTH_FORMAT),
+            columns[4],
+            columns[5],
+            columns[6],
+            Integer.parseInt(columns[7]),
+            Integer.parseInt(columns[8]),
+            Integer.parseInt(columns[9]),
+            Integer.parseInt(columns[10]),
+            columns[11]
+        );
+    }
+
+    /**
+     * 保険申し込みを取り込むCSVの1行分の値に変換する（{@link #toInsuranceOrder(String[])}の逆変換）。
+     *
+     * @param order 保険申し込み
+     * @return 1行分の値
+     */
+    static String[] toColumns(InsuranceOrder order) {
+        return new String[] {
+            String.valueOf(order.insuranceType()),
+            order.kanjiName(),
+            order.kanaName(),
+            order.dateOfBirth().format(DATE_OF_BIRTH_FORMAT),
+            order.Address(),
+            order.tel(),
+            order.email(),
+            String.valueOf(order.marriedType()),
+            String.valueOf(order.jobType()),
+            String.valueOf(order.income()),
+            String.valueOf(order.treatedType()),
+            order.medicalHistory() == null ? "" : order.medicalHistory()
+        };
+    }
+
+    /**
+     * 入力エラーとなった行を出力する。出力形式は「レコード番号,理由,元の値...」のCSV。
+     *
+     * @param rejects  出力先（複数スレッドから呼ばれるため同期して書き込む）
+     * @param recordNo レコード番号
+     * @param reason   エラー理由
+     * @param columns  元の値
+     */
+    private void writeReject(Writer rejects, long recordNo, String reason, String[] columns) {
+        StringBuilder line = new StringBuilder();
+        line.append(recordNo).append(',');
+        appendCsvText(line, reason);
+        for (String column : columns) {
+            line.append(',');
+            appendCsvText(line, column);
+        }
+        line.append('\n');
+        try {
+            synchronized (rejects) {
+                rejects.write(line.toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 値をダブルクォートで囲んでCSVの項目として追加する。
+     *
+     * @param line  追加先
+     * @param value 値
+     */
+    static void appendCsvText(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * CSVを1レコード読み込む。ダブルクォートで囲まれた項目内のカンマ・改行に対応する。
+     * <p/>
+     * 1レコードが{@value #MAX_RECORD_CHARS}文字を超えた場合、ダブルクォートが閉じられずにファイルの終端に達した場合は、
+     * 読み込んだところまでをエラーのレコードとして返す。
+     *
+     * @param reader 読み込み元
+     * @return 1レコード分の値。ファイルの終端に達した場合はnull
+     * @throws IOException 読み込みに失敗した場合
+     */
+    static CsvRecord readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);  // BOMを読み飛ばす
+        }
+        List<String> fields = new ArrayList<>(COLUMN_COUNT);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int size = line.length();
+        int i = 0;
+        while (true) {
+            if (size > MAX_RECORD_CHARS) {
+                fields.add(field.toString());
+                return new CsvRecord(fields.toArray(new String[0]),
+                    "1レコードが" + MAX_RECORD_CHARS + "文字を超えています（ダブルクォートが閉じられていない可能性があります）");
+            }
+            if (i == line.length()) {
+                String next = quoted ? reader.readLine() : null;
+                if (next == null) {
+                    fields.add(field.toString());
+                    return new CsvRecord(fields.toArray(new String[0]), quoted ? "ダブルクォートが閉じられていません" : null);
+                }
+                field.append('\n');
+                line = next;
+                size += next.length() + 1;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    /**
+     * CSVの1レコード。
+     *
+     * @param columns 1レコード分の値
+     * @param error   CSVの形式のエラー理由（エラーがない場合はnull）
+     */
+    record CsvRecord(String[] columns, String error) {
+    }
+}
@@ -0,0 +1,496 @@
+package com.tiscon10.service;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * 保険申し込みの先行書き込みジャーナル。メモリマップしたファイルに追記し、ディスクへの書き込みを確認してから応答する。
+ * <p/>
+ * ファイルの形式は以下のとおり。
+ * <pre>
+ *   ヘッダ（{@value #HEADER_BYTES}バイト）: 識別子（int）、世代（long）、適用済みの位置（long）
+ *   レコード: 内容のバイト数（int）、内容のCRC-32C（int）、世代（long）、内容
+ *   内容: 冪等キーのバイト数（short）、冪等キー（UTF-8）、保険申し込み（{@link OrderCodec}の形式）
+ * </pre>
+ * 追記はファイルの先頭から順に行う。ディスクへの書き込み（fsync）は専用のスレッドがまとめて行い、
+ * 書き込み中に追記されたレコードは次の書き込みでまとめて確定させる（グループコミット）。
+ * <p/>
+ * 確定したレコードは適用スレッドが順に{@link Applier}に渡し、適用した内容の永続化（{@link Applier#sync()}）を
+ * 待ってから適用済みの位置をヘッダに記録する。適用済みの位置はヘッダのディスクへの書き込みを待たないため、
+ * 再起動時には適用済みのレコードを再度適用することがある。適用処理は冪等キーにより2回目以降の適用を無視すること。
+ * <p/>
+ * ファイルの末尾まで追記した場合は、すべてのレコードの適用を待ってから世代を進め、先頭から追記し直す。
+ * 世代の異なるレコード、CRC-32Cの一致しないレコード（書き込み途中で停止したもの）は無効とし、そこを終端とする。
+ */
+public final class OrderJournal implements AutoCloseable {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderJournal.class);
+
+    /** ファイルの識別子 */
+    private static final int MAGIC = 0x544F4A31;
+
+    /** ヘッダのバイト数 */
+    static final int HEADER_BYTES = 64;
+
+    /** ヘッダの位置: 世代 */
+    private static final int EPOCH_OFFSET = 8;
+
+    /** ヘッダの位置: 適用済みの位置 */
+    private static final int CHECKPOINT_OFFSET = 16;
+
+    /** レコードのヘッダのバイト数 */
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    /** ファイルの末尾に達した場合に、レコードの適用を待つ時間の上限 */
+    private static final long FULL_WAIT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /** 適用に失敗した場合に、再度適用するまでの間隔 */
+    private static final long RETRY_INTERVAL_MILLIS = 1000;
+
+    /** 終了時に適用スレッドの終了を待つ時間 */
+    private static final long CLOSE_WAIT_MILLIS = 30_000;
+
+    /**
+     * 確定したレコードの適用処理。
+     * 例外を送出した場合は、同じレコードを一定時間後に再度適用する（後続のレコードは待たせる）。
+     * 再度適用しても成功しないレコードは、適用処理の側で記録して正常に終了すること。
+     */
+    @FunctionalInterface
+    public interface Applier {
+
+        /**
+         * 保険申し込みを適用する。
+         *
+         * @param order          保険申し込み
+         * @param idempotencyKey 冪等キー
+         */
+        void apply(InsuranceOrder order, String idempotencyKey);
+
+        /**
+         * 適用した内容をディスクに書き込む。適用済みの位置を記録する前に呼び出す。
+         * 適用先がコミット後にディスクへの書き込みを遅延させる場合は、戻る前に書き込みを完了させること。
+         * 例外を送出した場合は、一定時間後に再度呼び出す（適用済みの位置は記録しない）。
+         */
+        default void sync() {
+        }
+    }
+
+    /** ファイルの内容 */
+    private final MappedByteBuffer buffer;
+
+    /** 適用処理 */
+    private final Applier applier;
+
+    /** 状態の参照・更新のロック */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** 状態が変わったことの通知 */
+    private final Condition changed = lock.newCondition();
+
+    /** ディスクへの書き込みを行うスレッド */
+    private final Thread flusher;
+
+    /** 適用を行うスレッド */
+    private final Thread applierThread;
+
+    /** 世代 */
+    private long epoch;
+
+    /** 次に追記する位置 */
+    private int writePosition;
+
+    /** ディスクへの書き込みが確定した位置 */
+    private int durablePosition;
+
+    /** 適用済みの位置 */
+    private int appliedPosition;
+
+    /** ファイルの末尾に達し、適用を待っている追記がある場合、真 */
+    private boolean full;
+
+    /** 終了した場合、真 */
+    private boolean closed;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param buffer  ファイルの内容
+     * @param applier 適用処理
+     */
+    private OrderJournal(MappedByteBuffer buffer, Applier applier) {
+        this.buffer = buffer;
+        this.applier = applier;
+        recover();
+        this.flusher = Thread.ofPlatform().name("order-journal-flusher").daemon().unstarted(this::flushLoop);
+        this.applierThread = Thread.ofPlatform().name("order-journal-applier").daemon().unstarted(this::applyLoop);
+    }
+
+    /**
+     * ジャーナルを開き、未適用のレコードの適用を開始する。ファイルが存在しない場合は作成する。
+     *
+     * @param file    ファイル
+     * @param size    ファイルの大きさ（バイト）
+     * @param applier 適用処理
+     * @return ジャーナル
+     * @throws IOException ファイルの読み書きに失敗した場合
+     */
+    public static OrderJournal open(Path file, long size, Applier applier) throws IOException {
+        if (size <= HEADER_BYTES || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid order journal size: " + size);
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            // マップした領域はチャネルを閉じた後も参照できる
+            OrderJournal journal = new OrderJournal(channel.map(FileChannel.MapMode.READ_WRITE, 0, size), applier);
+            journal.flusher.start();
+            journal.applierThread.start();
+            return journal;
+        }
+    }
+
+    /**
+     * ファイルが存在する場合に、未適用のレコードを適用して閉じる。
+     * ジャーナルを無効に切り替えた後の起動時に、切り替え前に書き込まれたレコードを適用するために使用する。
+     *
+     * @param file    ファイル
+     * @param applier 適用処理
+     * @throws IOException ファイルの読み書きに失敗した場合
+     */
+    public static void replay(Path file, Applier applier) throws IOException {
+        if (!Files.exists(file) || Files.size(file) <= HEADER_BYTES) {
+            return;
+        }
+        open(file, Files.size(file), applier).close();
+    }
+
+    /**
+     * 保険申し込みを追記し、ディスクへの書き込みが確定するまで待つ。
+     *
+     * @param order          保険申し込み
+     * @param idempotencyKey 冪等キー
+     * @throws IllegalArgumentException 保険申し込みがファイルに収まらない場合
+     * @throws IllegalStateException    ジャーナルが終了している場合、適用が滞りファイルに空きがない場合
+     */
+    public void append(InsuranceOrder order, String idempotencyKey) {
+        byte[] key = idempotencyKey.getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try {
+            checkOpen();
+            long deadline = System.nanoTime() + FULL_WAIT_NANOS;
+            int end;
+            while ((end = write(writePosition, order, key)) < 0) {
+                if (writePosition == HEADER_BYTES) {
+                    throw new IllegalArgumentException("order is too large for the order journal.");
+                }
+                full = true;
+                changed.signalAll();
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("order journal is full.");
+                }
+                changed.awaitNanos(remaining);
+                checkOpen();
+            }
+            writePosition = end;
+            changed.signalAll();
+            // 終了する場合も、追記済みのレコードは書き込んでから書き込みのスレッドが終了する
+            // 世代が進んだ場合は、すべてのレコードが確定・適用済みのため待たない（位置は先頭に戻っている）
+            long appendedEpoch = epoch;
+            while (epoch == appendedEpoch && durablePosition < end) {
+                changed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the order journal.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 追記を終了する。ディスクへの書き込みが確定したレコードの適用を待ってから戻る。
+     * 待つ間に割り込まれた場合は、割り込みの状態を戻して待たずに戻る（未適用のレコードは次回の起動時に適用する）。
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+            applierThread.join(CLOSE_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("interrupted while closing the order journal. unapplied orders are applied on next start.");
+        }
+        buffer.force();
+    }
+
+    /**
+     * ヘッダを読み込み、適用済みの位置から有効なレコードの終端までを未適用のレコードとする。
+     * ヘッダが存在しない場合は初期化する。
+     */
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            epoch = 1;
+            buffer.putLong(EPOCH_OFFSET, epoch);
+            buffer.putLong(CHECKPOINT_OFFSET, HEADER_BYTES);
+            buffer.putInt(0, MAGIC);
+            buffer.force(0, HEADER_BYTES);
+        }
+        epoch = buffer.getLong(EPOCH_OFFSET);
+        long checkpoint = buffer.getLong(CHECKPOINT_OFFSET);
+        appliedPosition = checkpoint < HEADER_BYTES || checkpoint > buffer.capacity() ? HEADER_BYTES : (int) checkpoint;
+        int position = appliedPosition;
+        int next;
+        while ((next = nextRecord(position)) > 0) {
+            position = next;
+        }
+        writePosition = position;
+        durablePosition = position;
+        // 終端より後ろの書き込み途中のレコードが、以降の追記の後に有効と誤認されないよう消去する
+        // （ファイルの領域もあわせて確保され、追記ごとの書き込みでファイルの大きさが変わらない）
+        byte[] zeros = new byte[8192];
+        for (int i = position; i < buffer.capacity(); i += zeros.length) {
+            buffer.put(i, zeros, 0, Math.min(zeros.length, buffer.capacity() - i));
+        }
+        buffer.force(position, buffer.capacity() - position);
+        LOGGER.info("order journal recovered. epoch={}, unapplied={}bytes", epoch, position - appliedPosition);
+    }
+
+    /**
+     * 指定の位置にレコードを書き込む。
+     *
+     * @param position 位置
+     * @param order    保険申し込み
+     * @param key      冪等キー
+     * @return レコードの終端の位置。ファイルの末尾までに収まらない場合は-1
+     */
+    private int write(int position, InsuranceOrder order, byte[] key) {
+        if (position + RECORD_HEADER_BYTES + Short.BYTES + key.length > buffer.capacity()) {
+            return -1;
+        }
+        ByteBuffer payload = buffer.slice(position + RECORD_HEADER_BYTES, buffer.capacity() - position - RECORD_HEADER_BYTES);
+        try {
+            payload.putShort((short) key.length).put(key);
+            OrderCodec.encode(order, payload);
+        } catch (BufferOverflowException e) {
+            return -1;
+        }
+        int length = payload.position();
+        CRC32C crc = new CRC32C();
+        crc.update(payload.flip());
+        buffer.putLong(position + Integer.BYTES + Integer.BYTES, epoch);
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(position, length);
+        return position + RECORD_HEADER_BYTES + length;
+    }
+
+    /**
+     * 指定の位置のレコードが有効な場合、その終端の位置を求める。
+     *
+     * @param position 位置
+     * @return レコードの終端の位置。有効なレコードでない場合は-1
+     */
+    private int nextRecord(int position) {
+        if (position + RECORD_HEADER_BYTES > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_BYTES
+            || buffer.getLong(position + Integer.BYTES + Integer.BYTES) != epoch) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + RECORD_HEADER_BYTES, length));
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES) ? position + RECORD_HEADER_BYTES + length : -1;
+    }
+
+    /**
+     * 追記されたレコードを、まとめてディスクに書き込む。
+     */
+    private void flushLoop() {
+        while (true) {
+            int from;
+            int to;
+            lock.lock();
+            try {
+                while (!closed && durablePosition == writePosition) {
+                    changed.awaitUninterruptibly();
+                }
+                if (durablePosition == writePosition) {
+                    return;
+                }
+                from = durablePosition;
+                to = writePosition;
+            } finally {
+                lock.unlock();
+            }
+            buffer.force(from, to - from);
+            lock.lock();
+            try {
+                durablePosition = to;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * ディスクへの書き込みが確定したレコードを、順に適用する。
+     * 割り込まれた場合は、適用済みの位置を記録せずに終了する（未適用のレコードは次回の起動時に適用する）。
+     */
+    private void applyLoop() {
+        while (true) {
+            int from;
+            int to;
+            lock.lock();
+            try {
+                // ファイルの末尾に達した追記がある場合は、適用するレコードがなくても先頭に戻すために起きる
+                while (!closed && appliedPosition == durablePosition && !(full && appliedPosition == writePosition)) {
+                    changed.awaitUninterruptibly();
+                }
+                if (closed && appliedPosition == durablePosition) {
+                    return;
+                }
+                from = appliedPosition;
+                to = durablePosition;
+            } finally {
+                lock.unlock();
+            }
+            for (int position = from; position < to; ) {
+                position = applyRecord(position);
+                if (position < 0) {
+                    LOGGER.warn("order journal applier interrupted. unapplied orders are applied on next start.");
+                    return;
+                }
+            }
+            if (!sync()) {
+                LOGGER.warn("order journal applier interrupted. unapplied orders are applied on next start.");
+                return;
+            }
+            lock.lock();
+            try {
+                appliedPosition = to;
+                buffer.putLong(CHECKPOINT_OFFSET, to);
+                if (full && appliedPosition == writePosition) {
+                    rewind();
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 1件のレコードを適用する。適用に失敗した場合は、成功するか割り込まれるまで繰り返す。
+     *
+     * @param position レコードの位置
+     * @return レコードの終端の位置。割り込まれた場合は-1
+     */
+    private int applyRecord(int position) {
+        int length = buffer.getInt(position);
+        ByteBuffer payload = buffer.slice(position + RECORD_HEADER_BYTES, length);
+        byte[] key = new byte[payload.getShort()];
+        payload.get(key);
+        InsuranceOrder order = OrderCodec.decodeOrder(payload);
+        String idempotencyKey = new String(key, StandardCharsets.UTF_8);
+        while (true) {
+            try {
+                applier.apply(order, idempotencyKey);
+                return position + RECORD_HEADER_BYTES + length;
+            } catch (RuntimeException e) {
+                LOGGER.error("failed to apply journaled order. idempotencyKey={}", idempotencyKey, e);
+                if (!awaitRetry()) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * 適用した内容をディスクに書き込む。失敗した場合は、成功するか割り込まれるまで繰り返す。
+     *
+     * @return 書き込んだ場合、真。割り込まれた場合、偽
+     */
+    private boolean sync() {
+        while (true) {
+            try {
+                applier.sync();
+                return true;
+            } catch (RuntimeException e) {
+                LOGGER.error("failed to sync applied orders.", e);
+                if (!awaitRetry()) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * 失敗した処理を再度行うまで待つ。
+     * 割り込まれた場合は、割り込みの状態を戻して偽を返す（以降の待機は即座に失敗するため、呼び出し元で処理を終了すること）。
+     *
+     * @return 待った場合、真。割り込まれた場合、偽
+     */
+    private boolean awaitRetry() {
+        try {
+            Thread.sleep(RETRY_INTERVAL_MILLIS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * すべてのレコードが適用済みの場合に、世代を進めて先頭から追記し直す。呼び出し元でロックを取得すること。
+     * 新しい世代のレコードが確定する前に、世代の変更をディスクに書き込む。
+     */
+    private void rewind() {
+        epoch++;
+        buffer.putLong(EPOCH_OFFSET, epoch);
+        buffer.putLong(CHECKPOINT_OFFSET, HEADER_BYTES);
+        buffer.force(0, HEADER_BYTES);
+        writePosition = HEADER_BYTES;
+        durablePosition = HEADER_BYTES;
+        appliedPosition = HEADER_BYTES;
+        full = false;
+        LOGGER.info("order journal rewound. epoch={}", epoch);
+    }
+
+    /**
+     * ジャーナルが終了していないことを確認する。
+     *
+     * @throws IllegalStateException ジャーナルが終了している場合
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("order journal is closed.");
+        }
+    }
+}
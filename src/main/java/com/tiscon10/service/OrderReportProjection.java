@@ -0,0 +1,214 @@
+package com.tiscon10.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.OrderPlacedEvent;
+
+/**
+ * バックオフィス向けの集計（読み取りモデル）。日別・保険種別・職業別の件数と、保険種別・年齢層別の件数を持つ。
+ * <p/>
+ * 申し込みの登録時に通知される{@link OrderPlacedEvent}を、専用のスレッドで非同期に集計に反映する。
+ * 集計の参照は保険申し込みテーブルにアクセスしないため、申し込みの登録と競合しない。
+ * <p/>
+ * 集計は起動時と要求時（および設定した場合は定期的に）、保険申し込みテーブルの全件から作成し直す
+ * （イベントの反映と同じスレッドで行う）。全件の読み出しは件数に比例して重いため、定期的には行わないのが既定である。
+ * 複数ノード構成で他のノードが登録した申し込みは、次に作成し直すまで反映されない。
+ * <p/>
+ * 作成し直す処理と同時に登録された申し込みは、全件の読み出しとイベントの両方に含まれうる。
+ * 二重に数えないよう、読み出した申し込みのうち直近に登録されたものの受付番号を控えておき、
+ * 同じ受付番号のイベントは反映しない。
+ */
+@Component
+public class OrderReportProjection {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderReportProjection.class);
+
+    /** 年齢層の幅 */
+    private static final int AGE_BAND_WIDTH = 10;
+
+    /**
+     * 作成し直す際に受付番号を控えておく、直近に登録された申し込みの期間。
+     * 登録からイベントの通知までの時間と、作成し直す処理が待たされる時間の合計より十分に長くする。
+     */
+    private static final Duration RECENT_WINDOW = Duration.ofMinutes(10);
+
+    /** 見積もりDAO */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** イベントの反映と作成し直す処理を、順に実行するスレッド */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-report-projection");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 現在の集計 */
+    private volatile Projection projection = new Projection();
+
+    /**
+     * 申し込みの登録を集計に反映する（非同期）。
+     *
+     * @param event 申し込みの登録イベント
+     */
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        executor.execute(() -> projection.apply(event));
+    }
+
+    /**
+     * 起動時に、保険申し込みテーブルの全件から集計を作成する（非同期）。
+     */
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * 保険申し込みテーブルの全件から集計を作成し直す（tiscon.report.rebuild-cronを指定した場合のみ定期的に実行する）。
+     */
+    @Scheduled(cron = "${tiscon.report.rebuild-cron:-}")
+    public void scheduleRebuild() {
+        rebuild();
+    }
+
+    /**
+     * 保険申し込みテーブルの全件から集計を作成し直す（非同期）。作成し終えるまでは、現在の集計を参照できる。
+     *
+     * @return 作成し直す処理の完了
+     */
+    public Future<?> rebuild() {
+        return executor.submit(() -> {
+            long start = System.currentTimeMillis();
+            Projection rebuilt = new Projection();
+            try {
+                estimateDAO.scanOrderPlacedEvents(RECENT_WINDOW, (event, recent) -> {
+                    rebuilt.add(event);
+                    if (recent) {
+                        rebuilt.scannedReceiptNos.add(event.receiptNo());
+                    }
+                });
+            } catch (RuntimeException e) {
+                LOGGER.error("failed to rebuild order report projection.", e);
+                return;
+            }
+            projection = rebuilt;
+            LOGGER.info("order report projection rebuilt. elapsed={}ms", System.currentTimeMillis() - start);
+        });
+    }
+
+    /**
+     * 期間内の日別・保険種別・職業別の申し込み件数を取得する。
+     *
+     * @param from 開始日
+     * @param to   終了日（この日を含む）
+     * @return 申し込み件数（日付、保険種別、職業の昇順）
+     */
+    public List<DailyOrderCount> findDailyCounts(LocalDate from, LocalDate to) {
+        List<DailyOrderCount> counts = new ArrayList<>();
+        projection.daily.subMap(new DailyKey(from, Integer.MIN_VALUE, Integer.MIN_VALUE), true,
+                new DailyKey(to, Integer.MAX_VALUE, Integer.MAX_VALUE), true)
+            .forEach((key, count) -> counts.add(
+                new DailyOrderCount(key.date(), key.insuranceType(), key.jobType(), count)));
+        return counts;
+    }
+
+    /**
+     * 保険種別・年齢層別の申し込み件数を取得する。
+     *
+     * @return 申し込み件数（保険種別、年齢層の昇順）
+     */
+    public List<AgeBandCount> findAgeDistribution() {
+        List<AgeBandCount> counts = new ArrayList<>();
+        projection.ageBands.forEach((key, count) -> counts.add(
+            new AgeBandCount(key.insuranceType(), key.ageBand(), count)));
+        return counts;
+    }
+
+    /**
+     * 集計のスレッドを停止する。
+     */
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 集計の内容。更新は集計のスレッドのみが行い、参照は任意のスレッドから行う。
+     */
+    private static final class Projection {
+
+        /** 日別・保険種別・職業別の件数 */
+        private final ConcurrentSkipListMap<DailyKey, Long> daily = new ConcurrentSkipListMap<>(
+            Comparator.comparing(DailyKey::date).thenComparingInt(DailyKey::insuranceType)
+                .thenComparingInt(DailyKey::jobType));
+
+        /** 保険種別・年齢層別の件数 */
+        private final ConcurrentSkipListMap<AgeBandKey, Long> ageBands = new ConcurrentSkipListMap<>(
+            Comparator.comparingInt(AgeBandKey::insuranceType).thenComparingInt(AgeBandKey::ageBand));
+
+        /** 作成し直した際に読み出した、直近に登録された申し込みの受付番号（集計のスレッドのみが参照する） */
+        private final Set<Integer> scannedReceiptNos = new HashSet<>();
+
+        /**
+         * 登録イベントを集計に反映する。作成し直した際に読み出し済みの申し込みの場合は反映しない。
+         *
+         * @param event 申し込みの登録イベント
+         */
+        private void apply(OrderPlacedEvent event) {
+            if (event.receiptNo() != null && scannedReceiptNos.remove(event.receiptNo())) {
+                return;
+            }
+            add(event);
+        }
+
+        /**
+         * 申し込みを集計に加える。
+         *
+         * @param event 申し込みの登録イベント
+         */
+        private void add(OrderPlacedEvent event) {
+            if (event.orderedOn() == null) {
+                return;
+            }
+            daily.merge(new DailyKey(event.orderedOn(), event.insuranceType(), event.jobType()), 1L, Long::sum);
+            int age = Period.between(event.dateOfBirth(), event.orderedOn()).getYears();
+            ageBands.merge(new AgeBandKey(event.insuranceType(), age / AGE_BAND_WIDTH * AGE_BAND_WIDTH), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * 日別の件数のキー。
+     */
+    private record DailyKey(LocalDate date, int insuranceType, int jobType) {
+    }
+
+    /**
+     * 年齢層別の件数のキー。
+     */
+    private record AgeBandKey(int insuranceType, int ageBand) {
+    }
+}
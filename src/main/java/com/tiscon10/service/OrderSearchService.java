@@ -0,0 +1,56 @@
+package com.tiscon10.service;
+
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.OrderSearchForm;
+
+/**
+ * 保険申し込みの検索（バックオフィス向け）を担当するクラス。
+ *
+ * @author TIS Taro
+ */
+@Service
+public class OrderSearchService {
+
+    /** 取得件数を指定しなかった場合の件数 */
+    static final int DEFAULT_LIMIT = 100;
+
+    /** 1回の検索で取得できる件数の上限 */
+    static final int MAX_LIMIT = 10_000;
+
+    /**
+     * 見積もりDAO
+     */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /**
+     * 検索条件に合致する保険申し込みを受付番号の昇順に取得し、1件ずつ{@code consumer}に渡す。
+     *
+     * @param condition 検索条件
+     * @param consumer  取得した保険申し込みを受け取る処理
+     */
+    @Transactional(readOnly = true)
+    public void searchOrders(OrderSearchForm condition, Consumer<InsuranceOrder> consumer) {
+        estimateDAO.findInsuranceOrders(condition, resolveLimit(condition.limit()), consumer);
+    }
+
+    /**
+     * 取得件数を1件以上、上限以下の範囲に収める。
+     *
+     * @param limit 指定された取得件数
+     * @return 実際に取得する件数
+     */
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
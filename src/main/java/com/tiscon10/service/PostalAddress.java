@@ -0,0 +1,18 @@
+package com.tiscon10.service;
+
+/**
+ * 郵便番号に対応する住所。
+ *
+ * @param postalCode 郵便番号（7桁、ハイフンなし）
+ * @param prefecture 都道府県名
+ * @param city       市区町村名
+ * @param town       町域名（町域を特定しない郵便番号の場合は空文字）
+ */
+public record PostalAddress(
+
+    String postalCode,  // 郵便番号
+    String prefecture,  // 都道府県名
+    String city,        // 市区町村名
+    String town         // 町域名
+) {
+}
@@ -0,0 +1,220 @@
+package com.tiscon10.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 郵便番号の索引ファイル。メモリマップして参照する。
+ * <p/>
+ * ファイルの形式は以下のとおり（数値はビッグエンディアン）。郵便番号は昇順に並べる。
+ * <pre>
+ *   元データのチェックサム（32バイト）
+ *   件数 n（int）
+ *   郵便番号（int × n）
+ *   住所の開始位置（int × (n + 1)、住所のデータ先頭からのバイト数。末尾は終端）
+ *   住所のデータ（都道府県名、市区町村名、町域名をタブ区切りにしたUTF-8）
+ * </pre>
+ * 郵便番号の配列を二分探索して検索するため、ヒープには件数分のオブジェクトを持たない。
+ */
+public final class PostalCodeIndex {
+
+    /** チェックサムのバイト数 */
+    static final int CHECKSUM_BYTES = 32;
+
+    /** 郵便番号の桁数 */
+    public static final int POSTAL_CODE_DIGITS = 7;
+
+    /** 住所の項目の区切り文字 */
+    private static final char SEPARATOR = '\t';
+
+    /** 索引ファイルの内容 */
+    private final ByteBuffer buffer;
+
+    /** 件数 */
+    private final int count;
+
+    /** 郵便番号の配列 */
+    private final IntBuffer postalCodes;
+
+    /** 住所の開始位置の配列 */
+    private final IntBuffer offsets;
+
+    /** 住所のデータの先頭位置 */
+    private final int dataStart;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param buffer 索引ファイルの内容
+     */
+    private PostalCodeIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.count = buffer.getInt(CHECKSUM_BYTES);
+        int codesStart = CHECKSUM_BYTES + Integer.BYTES;
+        int offsetsStart = codesStart + count * Integer.BYTES;
+        this.dataStart = offsetsStart + (count + 1) * Integer.BYTES;
+        this.postalCodes = buffer.slice(codesStart, count * Integer.BYTES).asIntBuffer();
+        this.offsets = buffer.slice(offsetsStart, (count + 1) * Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * 索引ファイルをメモリマップして開く。
+     *
+     * @param file 索引ファイル
+     * @return 索引
+     * @throws IOException 読み込みに失敗した場合
+     */
+    public static PostalCodeIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // マップした領域はチャネルを閉じた後も参照できる
+            return new PostalCodeIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 索引ファイルの元データのチェックサムを読み込む。
+     *
+     * @param file 索引ファイル
+     * @return チェックサム。ファイルが存在しない場合、または読み込めない場合はnull
+     */
+    public static byte[] readChecksum(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer checksum = ByteBuffer.allocate(CHECKSUM_BYTES);
+            while (checksum.hasRemaining() && channel.read(checksum) >= 0) {
+                // チェックサムの末尾まで読み込む
+            }
+            return checksum.hasRemaining() ? null : checksum.array();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 住所の一覧から索引ファイルを作成する。作成中のファイルは別名とし、完成後に置き換える。
+     *
+     * @param addresses 住所の一覧（順不同）
+     * @param checksum  元データのチェックサム
+     * @param file      索引ファイル
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public static void write(List<PostalAddress> addresses, byte[] checksum, Path file) throws IOException {
+        List<PostalAddress> sorted = new ArrayList<>(addresses);
+        sorted.sort((a, b) -> a.postalCode().compareTo(b.postalCode()));
+        byte[][] data = new byte[sorted.size()][];
+        for (int i = 0; i < data.length; i++) {
+            PostalAddress address = sorted.get(i);
+            data[i] = (address.prefecture() + SEPARATOR + address.city() + SEPARATOR + address.town())
+                .getBytes(StandardCharsets.UTF_8);
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.write(checksum, 0, CHECKSUM_BYTES);
+            out.writeInt(sorted.size());
+            for (PostalAddress address : sorted) {
+                out.writeInt(Integer.parseInt(address.postalCode()));
+            }
+            int offset = 0;
+            for (byte[] bytes : data) {
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : data) {
+                out.write(bytes);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 件数を返す。
+     *
+     * @return 件数
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 郵便番号が前方一致する住所を、郵便番号の昇順に検索する。
+     *
+     * @param prefix 郵便番号の先頭（1〜7桁の数字）
+     * @param limit  最大件数
+     * @return 住所の一覧
+     */
+    public List<PostalAddress> search(String prefix, int limit) {
+        // 前方一致の範囲は [prefix × 10^(7 - 桁数), (prefix + 1) × 10^(7 - 桁数)) となる
+        int scale = 1;
+        for (int i = prefix.length(); i < POSTAL_CODE_DIGITS; i++) {
+            scale *= 10;
+        }
+        int from = Integer.parseInt(prefix) * scale;
+        int to = from + scale;
+
+        List<PostalAddress> result = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(from); i < count && result.size() < limit; i++) {
+            int postalCode = postalCodes.get(i);
+            if (postalCode >= to) {
+                break;
+            }
+            result.add(toAddress(i, postalCode));
+        }
+        return result;
+    }
+
+    /**
+     * 郵便番号が指定の値以上となる最初の位置を、二分探索で求める。
+     *
+     * @param postalCode 郵便番号
+     * @return 位置（すべて指定の値未満の場合は件数）
+     */
+    private int lowerBound(int postalCode) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (postalCodes.get(mid) < postalCode) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 指定の位置の住所を読み込む。
+     *
+     * @param index      位置
+     * @param postalCode 郵便番号
+     * @return 住所
+     */
+    private PostalAddress toAddress(int index, int postalCode) {
+        int start = offsets.get(index);
+        byte[] bytes = new byte[offsets.get(index + 1) - start];
+        buffer.get(dataStart + start, bytes);
+        String[] fields = new String(bytes, StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR), -1);
+        // 先頭が0の郵便番号（北海道など）は、0で埋めて7桁とする
+        String code = Integer.toString(postalCode);
+        return new PostalAddress("0".repeat(POSTAL_CODE_DIGITS - code.length()) + code, fields[0], fields[1], fields[2]);
+    }
+}
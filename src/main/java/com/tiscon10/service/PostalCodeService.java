@@ -0,0 +1,190 @@
+package com.tiscon10.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * 郵便番号から住所を検索するサービスクラス。
+ * <p/>
+ * 日本郵便の郵便番号データ（KEN_ALL.CSVの形式）から索引ファイルを作成し、メモリマップして検索する。
+ * 索引ファイルには郵便番号データのチェックサムを記録し、郵便番号データが変わっていない場合は起動時に作成し直さない。
+ * 外部のサービスにはアクセスしない。
+ * <p/>
+ * 同梱の郵便番号データは動作確認用の一部のみである。全国のデータを使用する場合は、
+ * tiscon.postal-code.fileに日本郵便のKEN_ALL.CSV（tiscon.postal-code.charset=MS932）を指定する。
+ */
+@Service
+public class PostalCodeService {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostalCodeService.class);
+
+    /** 郵便番号データの列: 郵便番号 */
+    private static final int POSTAL_CODE_COLUMN = 2;
+
+    /** 郵便番号データの列: 都道府県名 */
+    private static final int PREFECTURE_COLUMN = 6;
+
+    /** 郵便番号データの列: 市区町村名 */
+    private static final int CITY_COLUMN = 7;
+
+    /** 郵便番号データの列: 町域名 */
+    private static final int TOWN_COLUMN = 8;
+
+    /** 町域を特定しない郵便番号の町域名（住所には含めない） */
+    private static final List<String> UNSPECIFIED_TOWNS = List.of("以下に掲載がない場合", "の次に番地がくる場合", "一円");
+
+    /** 郵便番号データ */
+    @Value("${tiscon.postal-code.file:classpath:/data/POSTAL_CODE.csv}")
+    private Resource postalCodeFile;
+
+    /** 郵便番号データの文字コード */
+    @Value("${tiscon.postal-code.charset:UTF-8}")
+    private Charset charset;
+
+    /** 索引ファイル */
+    @Value("${tiscon.postal-code.index-file:./target/postal-code.idx}")
+    private Path indexFile;
+
+    /** 郵便番号の索引 */
+    private PostalCodeIndex index;
+
+    /**
+     * 索引ファイルを開く。郵便番号データが変わっている場合は、索引ファイルを作成し直す。
+     *
+     * @throws IOException 郵便番号データ、索引ファイルの読み書きに失敗した場合
+     */
+    @PostConstruct
+    void load() throws IOException {
+        byte[] checksum = checksum();
+        if (!Arrays.equals(checksum, PostalCodeIndex.readChecksum(indexFile))) {
+            long start = System.currentTimeMillis();
+            PostalCodeIndex.write(readPostalCodes(), checksum, indexFile);
+            LOGGER.info("postal code index created. file={}, elapsed={}ms", indexFile,
+                System.currentTimeMillis() - start);
+        }
+        index = PostalCodeIndex.open(indexFile);
+        LOGGER.info("postal code index loaded. size={}", index.size());
+    }
+
+    /**
+     * 郵便番号が前方一致する住所を検索する。
+     *
+     * @param prefix 郵便番号の先頭（1〜7桁の数字）
+     * @param limit  最大件数
+     * @return 住所の一覧（郵便番号の昇順）
+     * @throws IllegalArgumentException 郵便番号が1〜7桁の数字でない場合
+     */
+    public List<PostalAddress> search(String prefix, int limit) {
+        if (!isValidPrefix(prefix)) {
+            throw new IllegalArgumentException("invalid postal code prefix: " + prefix);
+        }
+        return index.search(prefix, limit);
+    }
+
+    /**
+     * 郵便番号の検索条件として正しいか（1〜7桁の数字か）を返す。
+     *
+     * @param prefix 郵便番号の先頭
+     * @return 正しい場合、真
+     */
+    public boolean isValidPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty() || prefix.length() > PostalCodeIndex.POSTAL_CODE_DIGITS) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (prefix.charAt(i) < '0' || prefix.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 郵便番号データを読み込む。
+     * <p/>
+     * 町域名が長く複数行に分割されている場合は、括弧内の注記を除いた先頭の行のみを使用する。
+     *
+     * @return 住所の一覧
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private List<PostalAddress> readPostalCodes() throws IOException {
+        List<PostalAddress> addresses = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(postalCodeFile.getInputStream(), charset))) {
+            boolean continued = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                String town = unquote(columns[TOWN_COLUMN]);
+                if (continued) {
+                    // 分割された町域名の2行目以降は読み飛ばす
+                    continued = !town.contains("）");
+                    continue;
+                }
+                int note = town.indexOf('（');
+                if (note >= 0) {
+                    continued = !town.contains("）");
+                    town = town.substring(0, note);
+                }
+                if (UNSPECIFIED_TOWNS.stream().anyMatch(town::endsWith)) {
+                    town = "";
+                }
+                addresses.add(new PostalAddress(unquote(columns[POSTAL_CODE_COLUMN]),
+                    unquote(columns[PREFECTURE_COLUMN]), unquote(columns[CITY_COLUMN]), town));
+            }
+        }
+        return addresses;
+    }
+
+    /**
+     * 郵便番号データの値を囲むダブルクォートを取り除く（郵便番号データの値はカンマ、ダブルクォートを含まない）。
+     *
+     * @param value 値
+     * @return ダブルクォートを取り除いた値
+     */
+    private String unquote(String value) {
+        if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * 郵便番号データのチェックサム（SHA-256）を求める。
+     *
+     * @return チェックサム
+     */
+    private byte[] checksum() {
+        try (DigestInputStream in = new DigestInputStream(postalCodeFile.getInputStream(),
+            MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return in.getMessageDigest().digest();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.tiscon10.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 保険料の計算を固定小数点（整数）で行うクラス。
+ * <p/>
+ * 調整率・還付率は1/100単位の整数（{@link #RATE_SCALE}倍した値）で扱い、
+ * 金額の計算はすべて整数で行う。端数は以下のとおり処理する。
+ * <ul>
+ *     <li>保険料（年額）、割増・割引後の保険料（年額）: 円未満切り捨て（{@link RoundingMode#DOWN}）</li>
+ *     <li>還付額: 円未満四捨五入（{@link RoundingMode#HALF_UP}）</li>
+ * </ul>
+ */
+public final class PremiumCalculator {
+
+    /** 調整率・還付率の倍率（1/100単位） */
+    public static final int RATE_SCALE = 100;
+
+    /** 調整率・還付率の小数点以下の桁数 */
+    private static final int RATE_DIGITS = 2;
+
+    /** 保険料（年額）の端数処理 */
+    private static final RoundingMode ANNUAL_FEE_ROUNDING = RoundingMode.DOWN;
+
+    /** 還付額の端数処理 */
+    private static final RoundingMode REBATE_ROUNDING = RoundingMode.HALF_UP;
+
+    private PremiumCalculator() {
+    }
+
+    /**
+     * 調整率を1/100単位の整数に変換する。
+     *
+     * @param rate 調整率（小数点以下2桁まで）
+     * @return 1/100単位の調整率
+     * @throws ArithmeticException 小数点以下が3桁以上の場合
+     */
+    public static long toScaledRate(BigDecimal rate) {
+        return rate.setScale(RATE_DIGITS, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 1/100単位の調整率を10進数に変換する（表示用）。
+     *
+     * @param scaledRate 1/100単位の調整率
+     * @return 調整率
+     */
+    public static BigDecimal toRate(long scaledRate) {
+        return BigDecimal.valueOf(scaledRate, RATE_DIGITS);
+    }
+
+    /**
+     * 保険料（年額）を計算する。
+     *
+     * @param monthlyFee           月額保険料（円）
+     * @param scaledAdjustmentRate 1/100単位の年齢による調整率
+     * @return 保険料（年額、円）
+     */
+    public static int annualFee(int monthlyFee, long scaledAdjustmentRate) {
+        long scaledFee = Math.multiplyExact(monthlyFee * 12L, scaledAdjustmentRate);
+        return Math.toIntExact(divide(scaledFee, RATE_SCALE, ANNUAL_FEE_ROUNDING));
+    }
+
+    /**
+     * 保険料（年額）に割増・割引率を適用する。
+     *
+     * @param annualFee     保険料（年額、円）
+     * @param scaledLoading 1/100単位の割増・割引率（0.10の場合は10、-0.05の場合は-5）
+     * @return 割増・割引後の保険料（年額、円）。負になる場合は0
+     */
+    public static int applyLoading(int annualFee, long scaledLoading) {
+        long scaledFee = Math.multiplyExact((long) annualFee, Math.max(0, RATE_SCALE + scaledLoading));
+        return Math.toIntExact(divide(scaledFee, RATE_SCALE, ANNUAL_FEE_ROUNDING));
+    }
+
+    /**
+     * 還付額（保険料（年額）×保険料（年額）×還付率）を計算する。
+     *
+     * @param annualFee        保険料（年額、円）
+     * @param scaledRebateRate 1/100単位の還付率
+     * @return 還付額（円）
+     */
+    public static long rebateAmount(int annualFee, long scaledRebateRate) {
+        long scaledRebate = Math.multiplyExact((long) annualFee * annualFee, scaledRebateRate);
+        return divide(scaledRebate, RATE_SCALE, REBATE_ROUNDING);
+    }
+
+    /**
+     * 整数の除算を、指定した端数処理で行う。
+     *
+     * @param dividend     被除数
+     * @param divisor      除数（正の数）
+     * @param roundingMode 端数処理（{@link RoundingMode#DOWN}、{@link RoundingMode#HALF_UP}のみ）
+     * @return 商
+     */
+    static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        return switch (roundingMode) {
+            case DOWN -> quotient;
+            case HALF_UP -> Math.abs(remainder) * 2 >= divisor ? quotient + Long.signum(dividend) : quotient;
+            default -> throw new IllegalArgumentException("unsupported rounding mode. roundingMode=" + roundingMode);
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.tiscon10.service;
+
+/**
+ * JSON形式に変換済みの保険料カーブ（保険種別×年齢ごとの見積もり結果）。
+ * 保険料は、ご職業などの属性による割増・割引を適用する前の基本保険料である。
+ *
+ * @param rateTableVersion 作成に使用した料金表のバージョン
+ * @param json             JSON（UTF-8）
+ * @param etag             JSONの内容から算出した強いETag（引用符を含む）
+ */
+public record PremiumCurve(
+    long rateTableVersion,
+    byte[] json,
+    String etag
+) {
+}
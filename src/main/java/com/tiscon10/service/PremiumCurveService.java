@@ -0,0 +1,140 @@
+package com.tiscon10.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tiscon10.domain.InsuranceType;
+
+/**
+ * 保険料カーブ（保険種別×年齢ごとの見積もり結果）を提供するクラス。
+ * <p/>
+ * 保険料カーブは料金表から決まるため、JSONに変換した結果を保持し、料金表のバージョンが変わった時のみ作り直す。
+ * <p/>
+ * 保険料カーブの保険料は、ご職業・配偶者有無・昨年の所得・病歴有無による割増・割引を適用する前の基本保険料である
+ * （属性の条件がない価格ルールのみ適用する）。属性の条件がある価格ルールが有効な場合、見積もり画面で
+ * 算出される保険料とは一致しないため、JSONの{@code premiumBasis}にその旨を出力する。
+ * <p/>
+ * 出力形式
+ * <code><pre>
+ * {"rateTableVersion":1,"premiumBasis":"BEFORE_ATTRIBUTE_LOADINGS","insurances":[
+ *   {"insuranceType":1,"insuranceName":"医療保険","premiums":[
+ *     {"age":20,"annualFee":12000,"adjustmentRateByAge":1.00,"rebateAmount":28800000}, ...]}, ...]}
+ * </pre></code>
+ */
+@Service
+public class PremiumCurveService {
+
+    /** 保険料が属性による割増・割引を適用する前の基本保険料であることを示す、premiumBasisの値 */
+    private static final String PREMIUM_BASIS = "BEFORE_ATTRIBUTE_LOADINGS";
+
+    /** 見積もりサービス（料金計算に使用） */
+    @Autowired
+    private EstimateService estimateService;
+
+    /** 料金表のキャッシュ */
+    @Autowired
+    private RateTableCache rateTableCache;
+
+    /** JSON出力に使用するObjectMapper */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** 作成済みの保険料カーブ */
+    private volatile PremiumCurve curve;
+
+    /**
+     * 現在の料金表に対応する保険料カーブを取得する。
+     *
+     * @return 保険料カーブ
+     */
+    public PremiumCurve getCurve() {
+        PremiumCurve current = curve;
+        if (current == null || current.rateTableVersion() != rateTableCache.getVersion()) {
+            current = rebuild();
+        }
+        return current;
+    }
+
+    /**
+     * 保険料カーブを作り直す。
+     * 作成中に料金表が読み込み直された場合は、異なるバージョンの料金表が混ざらないよう再度作成する。
+     *
+     * @return 保険料カーブ
+     */
+    private synchronized PremiumCurve rebuild() {
+        while (true) {
+            long version = rateTableCache.getVersion();
+            PremiumCurve current = curve;
+            if (current != null && current.rateTableVersion() == version) {
+                return current;
+            }
+            byte[] json = toJson(version);
+            if (rateTableCache.getVersion() == version) {
+                curve = new PremiumCurve(version, json, etag(json));
+                return curve;
+            }
+        }
+    }
+
+    /**
+     * すべての保険種別・年齢の見積もり結果（属性による割増・割引の適用前）をJSONに変換する。
+     *
+     * @param version 料金表のバージョン
+     * @return JSON（UTF-8）
+     */
+    private byte[] toJson(long version) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeNumberField("rateTableVersion", version);
+            json.writeStringField("premiumBasis", PREMIUM_BASIS);
+            json.writeArrayFieldStart("insurances");
+            for (InsuranceType insurance : rateTableCache.getInsurances()) {
+                json.writeStartObject();
+                json.writeNumberField("insuranceType", insurance.insuranceType());
+                json.writeStringField("insuranceName", insurance.insuranceName());
+                json.writeArrayFieldStart("premiums");
+                for (int age = EstimateService.MIN_AGE; age <= EstimateService.MAX_AGE; age++) {
+                    EstimateResult result = estimateService.calculateInsuranceFee(insurance.insuranceType(), age);
+                    json.writeStartObject();
+                    json.writeNumberField("age", result.age());
+                    json.writeNumberField("annualFee", result.annualFee());
+                    json.writeNumberField("adjustmentRateByAge", result.adjustmentRateByAge());
+                    json.writeNumberField("rebateAmount", result.rebateAmount());
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * JSONの内容から強いETagを算出する。
+     *
+     * @param json JSON
+     * @return ETag（SHA-256の先頭128ビットを16進数表記し、引用符で囲んだもの）
+     */
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tiscon10.service;
+
+/**
+ * 価格ルール（料金の調整条件と調整率）。
+ * <p/>
+ * 条件の各項目がnullの場合は、任意の値に合致する。
+ *
+ * @param kind          ルールの種類
+ * @param insuranceType 保険種別
+ * @param jobType       ご職業
+ * @param marriedType   配偶者有無
+ * @param treatedType   病歴有無
+ * @param incomeMin     昨年の所得(万円)の下限（この値を含む）
+ * @param incomeMax     昨年の所得(万円)の上限（この値を含まない）
+ * @param rate          1/100単位の率（{@link PremiumCalculator#RATE_SCALE}倍した値）
+ */
+record PricingRule(
+    Kind kind,
+    Integer insuranceType,
+    Integer jobType,
+    Integer marriedType,
+    Integer treatedType,
+    Integer incomeMin,
+    Integer incomeMax,
+    long rate
+) {
+
+    /**
+     * ルールの種類。
+     */
+    enum Kind {
+        /** 還付率。合致するルールのうち、最初のものを適用する。 */
+        REBATE,
+        /** 保険料（年額）の割増・割引率。合致するすべてのルールの合計を適用する。 */
+        LOADING
+    }
+}
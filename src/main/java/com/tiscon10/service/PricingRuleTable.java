@@ -0,0 +1,280 @@
+package com.tiscon10.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * 価格ルールを、条件の組み合わせごとの結果を並べた決定表にコンパイルしたもの。
+ * <p/>
+ * 保険種別、ご職業、配偶者有無、病歴有無は、ルールに現れる値と「それ以外」に区分する。
+ * 昨年の所得は、ルールに現れる下限・上限を境界とする帯に区分する。
+ * すべての区分の組み合わせについて読み込み時にルールを評価しておき、見積もりの際は区分の位置を求めて表を引くだけとする
+ * （ルールの件数によらず、オブジェクトを生成せずに評価できる）。
+ * <p/>
+ * ルールファイル（CSV、UTF-8）の形式
+ * <code><pre>
+ * KIND,INSURANCE_TYPE,JOB,MARRIED,TREATED,INCOME_MIN,INCOME_MAX,RATE
+ * REBATE,1,*,*,*,,,0.20
+ * LOADING,*,7,*,*,,300,-0.05
+ * </pre></code>
+ * 「#」で始まる行はコメント、最初のコメント以外の行は見出しとして読み飛ばす。
+ * 「*」または空欄は任意の値に合致する。
+ */
+public final class PricingRuleTable {
+
+    /** 属性が不明であることを表す値（この値はルールの「*」にのみ合致する） */
+    public static final int UNKNOWN = -1;
+
+    /** ルールに現れる保険種別 */
+    private final int[] insuranceTypes;
+
+    /** ルールに現れるご職業 */
+    private final int[] jobTypes;
+
+    /** ルールに現れる配偶者有無 */
+    private final int[] marriedTypes;
+
+    /** ルールに現れる病歴有無 */
+    private final int[] treatedTypes;
+
+    /** 昨年の所得の帯の境界 */
+    private final int[] incomeBoundaries;
+
+    /** 昨年の所得の帯の数（所得が不明な場合の帯を含む） */
+    private final int incomeBands;
+
+    /** 区分の組み合わせごとの還付率 */
+    private final long[] rebateRates;
+
+    /** 区分の組み合わせごとの保険料の割増・割引率 */
+    private final long[] loadings;
+
+    private PricingRuleTable(List<PricingRule> rules) {
+        insuranceTypes = distinct(rules, PricingRule::insuranceType);
+        jobTypes = distinct(rules, PricingRule::jobType);
+        marriedTypes = distinct(rules, PricingRule::marriedType);
+        treatedTypes = distinct(rules, PricingRule::treatedType);
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        for (PricingRule rule : rules) {
+            if (rule.incomeMin() != null) {
+                boundaries.add(rule.incomeMin());
+            }
+            if (rule.incomeMax() != null) {
+                boundaries.add(rule.incomeMax());
+            }
+        }
+        incomeBoundaries = boundaries.stream().mapToInt(Integer::intValue).toArray();
+        incomeBands = incomeBoundaries.length + 2;
+
+        int size = (insuranceTypes.length + 1) * (jobTypes.length + 1) * (marriedTypes.length + 1)
+            * (treatedTypes.length + 1) * incomeBands;
+        rebateRates = new long[size];
+        loadings = new long[size];
+        for (int t = 0; t <= insuranceTypes.length; t++) {
+            for (int j = 0; j <= jobTypes.length; j++) {
+                for (int m = 0; m <= marriedTypes.length; m++) {
+                    for (int tr = 0; tr <= treatedTypes.length; tr++) {
+                        for (int b = 0; b < incomeBands; b++) {
+                            evaluate(rules, cell(t, j, m, tr, b), t, j, m, tr, b);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 価格ルールを決定表にコンパイルする。
+     *
+     * @param rules 価格ルール（還付率は先頭のものが優先される）
+     * @return 決定表
+     */
+    static PricingRuleTable compile(List<PricingRule> rules) {
+        return new PricingRuleTable(rules);
+    }
+
+    /**
+     * ルールファイルを読み込み、決定表にコンパイルする。
+     *
+     * @param resource ルールファイル
+     * @return 決定表
+     * @throws IOException ファイルの読み込みに失敗した場合
+     */
+    public static PricingRuleTable load(Resource resource) throws IOException {
+        List<PricingRule> rules = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            boolean header = true;
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] columns = line.split(",", -1);
+                if (columns.length != 8) {
+                    throw new IllegalArgumentException("invalid pricing rule. line=" + lineNo + ", rule=" + line);
+                }
+                rules.add(new PricingRule(
+                    PricingRule.Kind.valueOf(columns[0].trim()),
+                    condition(columns[1]),
+                    condition(columns[2]),
+                    condition(columns[3]),
+                    condition(columns[4]),
+                    condition(columns[5]),
+                    condition(columns[6]),
+                    PremiumCalculator.toScaledRate(new BigDecimal(columns[7].trim()))));
+            }
+        }
+        return compile(rules);
+    }
+
+    /**
+     * 見積もり依頼の属性に合致する区分の組み合わせの位置を求める。
+     *
+     * @param insuranceType 保険種別
+     * @param jobType       ご職業（不明な場合は{@link #UNKNOWN}）
+     * @param marriedType   配偶者有無（不明な場合は{@link #UNKNOWN}）
+     * @param treatedType   病歴有無（不明な場合は{@link #UNKNOWN}）
+     * @param income        昨年の所得(万円)（不明な場合は{@link #UNKNOWN}）
+     * @return 区分の組み合わせの位置（{@link #rebateRate(int)}、{@link #loading(int)}に指定する）
+     */
+    public int find(int insuranceType, int jobType, int marriedType, int treatedType, int income) {
+        int band;
+        if (income == UNKNOWN) {
+            band = incomeBands - 1;
+        } else {
+            int position = Arrays.binarySearch(incomeBoundaries, income);
+            band = position >= 0 ? position + 1 : -(position + 1);
+        }
+        return cell(indexOf(insuranceTypes, insuranceType), indexOf(jobTypes, jobType),
+            indexOf(marriedTypes, marriedType), indexOf(treatedTypes, treatedType), band);
+    }
+
+    /**
+     * 還付率を取得する。
+     *
+     * @param cell 区分の組み合わせの位置
+     * @return 1/100単位の還付率（合致するルールがない場合は0）
+     */
+    public long rebateRate(int cell) {
+        return rebateRates[cell];
+    }
+
+    /**
+     * 保険料（年額）の割増・割引率を取得する。
+     *
+     * @param cell 区分の組み合わせの位置
+     * @return 1/100単位の割増・割引率（合致するルールがない場合は0）
+     */
+    public long loading(int cell) {
+        return loadings[cell];
+    }
+
+    /**
+     * 区分の組み合わせについてルールを評価し、結果を決定表に格納する。
+     */
+    private void evaluate(List<PricingRule> rules, int cell, int t, int j, int m, int tr, int band) {
+        boolean rebateFound = false;
+        for (PricingRule rule : rules) {
+            if (!matches(rule.insuranceType(), insuranceTypes, t)
+                || !matches(rule.jobType(), jobTypes, j)
+                || !matches(rule.marriedType(), marriedTypes, m)
+                || !matches(rule.treatedType(), treatedTypes, tr)
+                || !matchesIncome(rule, band)) {
+                continue;
+            }
+            if (rule.kind() == PricingRule.Kind.LOADING) {
+                loadings[cell] += rule.rate();
+            } else if (!rebateFound) {
+                rebateRates[cell] = rule.rate();
+                rebateFound = true;
+            }
+        }
+    }
+
+    /**
+     * ルールの条件が区分に合致するか判定する。
+     *
+     * @param condition ルールの条件（nullの場合は任意の値）
+     * @param values    ルールに現れる値
+     * @param index     区分（0は「それ以外」、1以降は{@code values}の位置+1）
+     * @return 合致する場合、真
+     */
+    private static boolean matches(Integer condition, int[] values, int index) {
+        return condition == null || (index > 0 && values[index - 1] == condition);
+    }
+
+    /**
+     * ルールの所得の条件が所得の帯に合致するか判定する。
+     * 帯の境界はルールの下限・上限をすべて含むため、帯の下端で判定すればよい。
+     *
+     * @param rule ルール
+     * @param band 所得の帯
+     * @return 合致する場合、真
+     */
+    private boolean matchesIncome(PricingRule rule, int band) {
+        if (band == incomeBands - 1) {
+            // 所得が不明な場合は、所得の条件がないルールのみ合致する
+            return rule.incomeMin() == null && rule.incomeMax() == null;
+        }
+        long lower = band == 0 ? Long.MIN_VALUE : incomeBoundaries[band - 1];
+        return (rule.incomeMin() == null || rule.incomeMin() <= lower)
+            && (rule.incomeMax() == null || lower < rule.incomeMax());
+    }
+
+    /**
+     * 区分の組み合わせの位置を求める。
+     */
+    private int cell(int t, int j, int m, int tr, int band) {
+        return (((t * (jobTypes.length + 1) + j) * (marriedTypes.length + 1) + m)
+            * (treatedTypes.length + 1) + tr) * incomeBands + band;
+    }
+
+    /**
+     * 値の区分を求める。
+     *
+     * @param values ルールに現れる値（昇順）
+     * @param value  値
+     * @return 区分（ルールに現れない値の場合は0）
+     */
+    private static int indexOf(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        return position >= 0 ? position + 1 : 0;
+    }
+
+    /**
+     * ルールに現れる値を昇順に取得する。
+     */
+    private static int[] distinct(List<PricingRule> rules, Function<PricingRule, Integer> condition) {
+        return rules.stream().map(condition).filter(Objects::nonNull).mapToInt(Integer::intValue)
+            .distinct().sorted().toArray();
+    }
+
+    /**
+     * ルールファイルの条件の項目を変換する。
+     *
+     * @param column 項目の値
+     * @return 条件（「*」または空欄の場合はnull）
+     */
+    private static Integer condition(String column) {
+        String value = column.trim();
+        return value.isEmpty() || value.equals("*") ? null : Integer.valueOf(value);
+    }
+}
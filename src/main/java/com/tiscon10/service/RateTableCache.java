@@ -0,0 +1,134 @@
+package com.tiscon10.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.AgeAdjustmentRate;
+import com.tiscon10.domain.InsuranceType;
+
+/**
+ * 料金表（保険種別テーブル、年齢調整率テーブル）をメモリ上に保持するクラス。
+ * <p/>
+ * 料金表のバージョン（RATE_TABLE_VERSIONテーブル）を定期的に確認し、変わっていれば料金表を読み込み直す。
+ * 複数ノード構成の場合も、いずれかのノードでの料金表の変更が全ノードに反映される。
+ * 料金表を変更する際は、同じトランザクションでバージョンを更新すること。
+ * <code><pre>
+ * UPDATE RATE_TABLE_VERSION SET VERSION = VERSION + 1 WHERE ID = 1
+ * </pre></code>
+ */
+@Component
+@DependsOn("rateTableSeeder")
+public class RateTableCache {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateTableCache.class);
+
+    /** 見積もりDAO */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** 読み込み済みの料金表 */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 料金表を読み込む。
+     */
+    @PostConstruct
+    void load() {
+        // 読み込み中に変更された場合に次回の確認で読み込み直せるよう、バージョンを先に取得する
+        long version = estimateDAO.findRateTableVersion();
+        List<InsuranceType> insurances = List.copyOf(estimateDAO.getAllInsurances());
+        Map<Integer, InsuranceType> insuranceByType = new HashMap<>();
+        for (InsuranceType insurance : insurances) {
+            insuranceByType.put(insurance.insuranceType(), insurance);
+        }
+        Map<Integer, Long> adjustmentRateByAge = new HashMap<>();
+        for (AgeAdjustmentRate rate : estimateDAO.getAllAdjustmentRates()) {
+            adjustmentRateByAge.put(rate.age(), PremiumCalculator.toScaledRate(rate.adjustmentRate()));
+        }
+        snapshot = new Snapshot(version, insurances, Map.copyOf(insuranceByType), Map.copyOf(adjustmentRateByAge));
+        LOGGER.info("rate table loaded. version={}", version);
+    }
+
+    /**
+     * 料金表のバージョンを確認し、変わっていれば読み込み直す。
+     */
+    @Scheduled(fixedDelayString = "${tiscon.rate-table.poll-interval-ms:5000}")
+    public void refresh() {
+        if (estimateDAO.findRateTableVersion() != snapshot.version()) {
+            load();
+        }
+    }
+
+    /**
+     * 読み込み済みの料金表のバージョンを取得する。
+     *
+     * @return 料金表のバージョン
+     */
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    /**
+     * すべての保険種別を取得する。
+     *
+     * @return すべての保険種別
+     */
+    public List<InsuranceType> getInsurances() {
+        return snapshot.insurances();
+    }
+
+    /**
+     * 保険種別を取得する。
+     *
+     * @param insuranceType 保険種別タイプ
+     * @return 保険種別
+     * @throws EmptyResultDataAccessException 保険種別が存在しない場合
+     */
+    public InsuranceType getInsurance(Integer insuranceType) {
+        InsuranceType insurance = snapshot.insuranceByType().get(insuranceType);
+        if (insurance == null) {
+            throw new EmptyResultDataAccessException("insurance type not found. insuranceType=" + insuranceType, 1);
+        }
+        return insurance;
+    }
+
+    /**
+     * 年齢に合致する調整率を取得する。
+     *
+     * @param age 年齢
+     * @return 保険料年齢別調整率（1/100単位、{@link PremiumCalculator#RATE_SCALE}倍した値）
+     * @throws EmptyResultDataAccessException 年齢に合致する調整率が存在しない場合
+     */
+    public long getAdjustmentRate(int age) {
+        Long rate = snapshot.adjustmentRateByAge().get(age);
+        if (rate == null) {
+            throw new EmptyResultDataAccessException("adjustment rate not found. age=" + age, 1);
+        }
+        return rate;
+    }
+
+    /**
+     * ある時点の料金表。
+     *
+     * @param version             料金表のバージョン
+     * @param insurances          すべての保険種別
+     * @param insuranceByType     保険種別タイプごとの保険種別
+     * @param adjustmentRateByAge 年齢ごとの調整率（1/100単位）
+     */
+    private record Snapshot(long version, List<InsuranceType> insurances,
+                            Map<Integer, InsuranceType> insuranceByType, Map<Integer, Long> adjustmentRateByAge) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.tiscon10.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tiscon10.dao.EstimateDao;
+
+/**
+ * 料金表（保険種別テーブル、年齢調整率テーブル）にCSVファイルの内容を登録するクラス。
+ * <p/>
+ * CSVファイルのチェックサムを料金表バージョンテーブルに記録し、前回登録時から変わっていない場合は登録を行わない。
+ * 登録した場合は料金表のバージョンを更新し、{@link RateTableCache}に読み込み直させる。
+ */
+@Component
+public class RateTableSeeder {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RateTableSeeder.class);
+
+    /** 料金表のCSVファイル */
+    private static final String[] RATE_TABLE_FILES = {"data/INSURANCE_TYPE.csv", "data/AGE_ADJUSTMENT_RATE.csv"};
+
+    /** 見積もりDAO */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** トランザクション制御 */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * CSVファイルが変更されていれば、料金表に登録する。
+     */
+    @PostConstruct
+    public void seed() {
+        String checksum = checksum();
+        transactionTemplate.executeWithoutResult(status -> {
+            // 複数ノードが同時に起動した場合も1ノードのみが登録するよう、バージョンの行をロックしてから比較する
+            if (checksum.equals(estimateDAO.findRateTableChecksumForUpdate())) {
+                LOGGER.info("rate table is up to date. checksum={}", checksum);
+                return;
+            }
+            estimateDAO.mergeRateTables();
+            estimateDAO.updateRateTableVersion(checksum);
+            LOGGER.info("rate table seeded. checksum={}", checksum);
+        });
+    }
+
+    /**
+     * 料金表のCSVファイルのチェックサム（SHA-256）を計算する。
+     *
+     * @return チェックサム（16進数表記）
+     */
+    private static String checksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String file : RATE_TABLE_FILES) {
+                try (InputStream in = new ClassPathResource(file).getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
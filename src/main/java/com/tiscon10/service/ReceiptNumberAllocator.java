@@ -0,0 +1,132 @@
+package com.tiscon10.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * 複数ノード構成において、保険申し込みの受付番号を払い出すクラス。
+ * <p/>
+ * 受付番号はデータベースから一定件数の範囲をまとめて借り受け（リース）、範囲内はノード内で採番する。
+ * データベースへのアクセス（行ロック）は範囲を使い切った時のみとなり、登録のたびに全ノードで共有する採番を待つことはない。
+ * <p/>
+ * 単一ノード構成（tiscon.cluster.enabled=false）の場合は受付番号を設定せず、データベースの自動採番に任せる。
+ * 払い出した範囲はノードの停止時に破棄されるため、受付番号には欠番が生じる。
+ * <p/>
+ * 構成を切り替えても受付番号が重複しないよう、起動時に以下を行う（構成の切り替えは全ノードを停止して行うこと）。
+ * <ul>
+ *     <li>複数ノード構成: 次に払い出す受付番号を、登録済みの受付番号（自動採番されたもの）の最大値の次以降とする</li>
+ *     <li>単一ノード構成: 自動採番の次の値を、払い出し済みの範囲および登録済みの受付番号の最大値より後ろとする</li>
+ * </ul>
+ */
+@Component
+public class ReceiptNumberAllocator {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReceiptNumberAllocator.class);
+
+    /** 見積もりDAO */
+    @Autowired
+    private EstimateDao estimateDAO;
+
+    /** トランザクションマネージャ */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /** 複数ノード構成の場合、真 */
+    @Value("${tiscon.cluster.enabled:false}")
+    private boolean enabled;
+
+    /** 1回に借り受ける受付番号の件数 */
+    @Value("${tiscon.cluster.receipt-no-lease-size:1000}")
+    private int leaseSize;
+
+    /** 受付番号の借り受けを、呼び出し元とは別のトランザクションで確定させる */
+    private TransactionTemplate leaseTransaction;
+
+    /** 借り受け中の受付番号の範囲 */
+    private volatile Lease lease;
+
+    /**
+     * 受付番号の借り受けに使用するトランザクションを準備し、払い出しと自動採番の受付番号が重複しないよう揃える。
+     */
+    @PostConstruct
+    void init() {
+        leaseTransaction = new TransactionTemplate(transactionManager);
+        leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (enabled) {
+            leaseTransaction.executeWithoutResult(status -> estimateDAO.alignReceiptNoLease());
+        } else {
+            long restarted = estimateDAO.alignReceiptNoIdentity();
+            if (restarted > 0) {
+                LOGGER.info("receipt number identity restarted after leased numbers. next={}", restarted);
+            }
+        }
+    }
+
+    /**
+     * 保険申し込みに受付番号を設定する。
+     *
+     * @param insuranceOrder 保険申し込み
+     * @return 受付番号を設定した保険申し込み（単一ノード構成の場合、または設定済みの場合は引数のまま）
+     */
+    public InsuranceOrder assign(InsuranceOrder insuranceOrder) {
+        if (!enabled || insuranceOrder.receiptNo() != null) {
+            return insuranceOrder;
+        }
+        return insuranceOrder.withReceiptNo(next());
+    }
+
+    /**
+     * 次の受付番号を取得する。
+     *
+     * @return 受付番号
+     */
+    private int next() {
+        while (true) {
+            Lease current = lease;
+            if (current != null) {
+                long receiptNo = current.next().getAndIncrement();
+                if (receiptNo < current.end()) {
+                    return Math.toIntExact(receiptNo);
+                }
+            }
+            renew(current);
+        }
+    }
+
+    /**
+     * 受付番号の範囲を使い切った場合に、新しい範囲を借り受ける。
+     * 他のスレッドが既に借り受けていた場合は何もしない。
+     *
+     * @param exhausted 使い切った範囲
+     */
+    private synchronized void renew(Lease exhausted) {
+        if (lease != exhausted) {
+            return;
+        }
+        long start = leaseTransaction.execute(status -> estimateDAO.leaseReceiptNumbers(leaseSize));
+        lease = new Lease(new AtomicLong(start), start + leaseSize);
+    }
+
+    /**
+     * 借り受けた受付番号の範囲。
+     *
+     * @param next 次に払い出す受付番号
+     * @param end  範囲の終端（この値を含まない）
+     */
+    private record Lease(AtomicLong next, long end) {
+    }
+}
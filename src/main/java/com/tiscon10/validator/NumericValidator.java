@@ -21,6 +21,7 @@ public class NumericValidator implements ConstraintValidator<Numeric, String> {
         if (ObjectUtils.isEmpty(s)) {
             return true;
         }
-        return s.matches("[0-9]*");
+        // 正規表現は呼び出しごとにコンパイルされるため、1文字ずつ判定する
+        return UserOrderFormValidator.isAsciiDigits(s);
     }
 }
@@ -0,0 +1,569 @@
+package com.tiscon10.validator;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.hibernate.validator.constraints.Length;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+
+import com.tiscon10.code.CodeEnum;
+import com.tiscon10.form.UserOrderForm;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.MessageInterpolator;
+import jakarta.validation.ValidationException;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.groups.Default;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * {@link UserOrderForm}の入力値を精査するクラス。
+ * <p/>
+ * 起動時にBean Validationのメタデータ（{@link UserOrderForm}に付与された制約）を読み込み、
+ * 項目ごとの検証処理に変換しておく。リクエストごとのリフレクションや正規表現の評価は行わない。
+ * <p/>
+ * 生成する{@link FieldError}（項目名、エラーコード、引数、メッセージ、入力値）は
+ * Spring MVC標準のBean Validation連携（{@code SpringValidatorAdapter}）と同じになるよう組み立てる。
+ * メッセージは{@code ValidationMessages.properties}から、画面で使用するロケールごとに初回のみ展開してキャッシュする。
+ * それ以外のロケール（任意のAccept-Languageを送るクライアント）では、キャッシュせずにエラーごとに展開する。
+ *
+ * @author TIS Taro
+ */
+@Component
+public class UserOrderFormValidator implements Validator {
+
+    /** エラーの引数に含めないアノテーション属性 */
+    private static final Set<String> INTERNAL_ANNOTATION_ATTRIBUTES = Set.of("message", "groups", "payload");
+
+    /** メッセージをキャッシュするロケール */
+    private static final Set<Locale> CACHED_LOCALES =
+        Set.copyOf(List.of(Locale.JAPAN, Locale.JAPANESE, Locale.getDefault()));
+
+    /** 検証対象のプロパティと値の取得処理（項目順） */
+    private static final Map<String, Function<UserOrderForm, Object>> PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        PROPERTIES.put("insuranceType", UserOrderForm::insuranceType);
+        PROPERTIES.put("kanjiName", UserOrderForm::kanjiName);
+        PROPERTIES.put("kanaName", UserOrderForm::kanaName);
+        PROPERTIES.put("dateOfBirth", UserOrderForm::dateOfBirth);
+        PROPERTIES.put("address", UserOrderForm::address);
+        PROPERTIES.put("tel", UserOrderForm::tel);
+        PROPERTIES.put("email", UserOrderForm::email);
+        PROPERTIES.put("marriedType", UserOrderForm::marriedType);
+        PROPERTIES.put("jobType", UserOrderForm::jobType);
+        PROPERTIES.put("income", UserOrderForm::income);
+        PROPERTIES.put("treatedType", UserOrderForm::treatedType);
+        PROPERTIES.put("medicalHistory", UserOrderForm::medicalHistory);
+        PROPERTIES.put("treatedMedicalHistoryValid", UserOrderForm::isTreatedMedicalHistoryValid);
+        PROPERTIES.put("untreatedMedicalHistoryValid", UserOrderForm::isUntreatedMedicalHistoryValid);
+    }
+
+    /** Bean Validationの設定（制約のメタデータとメッセージ展開に使用） */
+    @Autowired
+    private ValidatorFactory validatorFactory;
+
+    /** 検証ルール（項目順） */
+    private Rule[] rules;
+
+    /** ロケールごとの展開済みメッセージ（{@link #rules}と同じ順。{@link #CACHED_LOCALES}のみ） */
+    private final Map<Locale, String[]> messagesByLocale = new ConcurrentHashMap<>();
+
+    /**
+     * {@link UserOrderForm}の制約を検証ルールに変換する。
+     */
+    @PostConstruct
+    void compile() {
+        List<Rule> compiled = new ArrayList<>();
+        Map<String, PropertyDescriptor> descriptors = new TreeMap<>();
+        validatorFactory.getValidator().getConstraintsForClass(UserOrderForm.class).getConstrainedProperties()
+            .forEach(property -> descriptors.put(property.getPropertyName(), property));
+        for (Map.Entry<String, Function<UserOrderForm, Object>> property : PROPERTIES.entrySet()) {
+            PropertyDescriptor descriptor = descriptors.remove(property.getKey());
+            if (descriptor == null) {
+                continue;
+            }
+            descriptor.getConstraintDescriptors().stream()
+                .filter(constraint -> constraint.getGroups().contains(Default.class))
+                .sorted((a, b) -> a.getAnnotation().annotationType().getName()
+                    .compareTo(b.getAnnotation().annotationType().getName()))
+                .forEach(constraint -> compiled.add(new Rule(property.getKey(), property.getValue(),
+                    compileCheck(property.getKey(), constraint), constraint)));
+        }
+        if (!descriptors.isEmpty()) {
+            throw new IllegalStateException("unsupported property of UserOrderForm: " + descriptors.keySet());
+        }
+        rules = compiled.toArray(new Rule[0]);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return UserOrderForm.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * 入力値を精査し、エラーを{@code errors}に追加する。
+     *
+     * @param target 入力フォーム
+     * @param errors エラーの追加先
+     */
+    @Override
+    public void validate(Object target, Errors errors) {
+        UserOrderForm form = (UserOrderForm) target;
+        Locale locale = LocaleContextHolder.getLocale();
+        String[] messages = null;
+        for (int i = 0; i < rules.length; i++) {
+            Rule rule = rules[i];
+            Object value = rule.accessor.apply(form);
+            if (rule.check.test(value)) {
+                continue;
+            }
+            if (messages == null) {
+                // ロケールはリクエストで任意に指定できるため、キャッシュするロケールを限定する
+                messages = CACHED_LOCALES.contains(locale)
+                    ? messagesByLocale.computeIfAbsent(locale, this::interpolateMessages) : new String[rules.length];
+            }
+            String message = messages[i] != null ? messages[i] : interpolate(rule.descriptor, value, locale);
+            reject(errors, rule, value, message);
+        }
+    }
+
+    /**
+     * 入力値にエラーがないかを判定する。エラーの内容が不要な場合に使用する。
+     *
+     * @param form 入力フォーム
+     * @return エラーがない場合、真
+     */
+    public boolean isValid(UserOrderForm form) {
+        for (Rule rule : rules) {
+            if (!rule.check.test(rule.accessor.apply(form))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * エラーを追加する。{@code SpringValidatorAdapter}と同じ形式の{@link FieldError}を組み立てる。
+     *
+     * @param errors  エラーの追加先
+     * @param rule    違反したルール
+     * @param value   入力値
+     * @param message メッセージ
+     */
+    private void reject(Errors errors, Rule rule, Object value, String message) {
+        String field = rule.property;
+        FieldError existing = errors.getFieldError(field);
+        if (existing != null && existing.isBindingFailure()) {
+            return;  // 型変換エラーがある項目には追加しない
+        }
+        Object[] arguments = new Object[rule.attributes.length + 1];
+        arguments[0] = new DefaultMessageSourceResolvable(
+            new String[] {errors.getObjectName() + Errors.NESTED_PATH_SEPARATOR + field, field}, field);
+        System.arraycopy(rule.attributes, 0, arguments, 1, rule.attributes.length);
+        if (errors instanceof BindingResult bindingResult) {
+            String[] codes = bindingResult.resolveMessageCodes(rule.errorCode, field);
+            bindingResult.addError(new FieldError(errors.getObjectName(), bindingResult.getNestedPath() + field,
+                value, false, codes, arguments, message));
+        } else {
+            errors.rejectValue(field, rule.errorCode, arguments, message);
+        }
+    }
+
+    /**
+     * 指定したロケールで全ルールのメッセージを展開する。入力値に依存するメッセージはnullとしておく。
+     *
+     * @param locale ロケール
+     * @return 展開済みメッセージ
+     */
+    private String[] interpolateMessages(Locale locale) {
+        String[] messages = new String[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            if (!rules[i].descriptor.getMessageTemplate().contains("${")) {
+                messages[i] = interpolate(rules[i].descriptor, null, locale);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * メッセージテンプレートを展開する。
+     *
+     * @param descriptor 制約
+     * @param value      入力値
+     * @param locale     ロケール
+     * @return メッセージ
+     */
+    private String interpolate(ConstraintDescriptor<?> descriptor, Object value, Locale locale) {
+        return validatorFactory.getMessageInterpolator()
+            .interpolate(descriptor.getMessageTemplate(), new InterpolationContext(descriptor, value), locale);
+    }
+
+    /**
+     * 制約を検証処理に変換する。
+     *
+     * @param property   プロパティ名
+     * @param descriptor 制約
+     * @return 入力値が制約を満たす場合に真を返す検証処理
+     */
+    private Predicate<Object> compileCheck(String property, ConstraintDescriptor<?> descriptor) {
+        if (!descriptor.getComposingConstraints().isEmpty()) {
+            throw new IllegalStateException("composed constraint is not supported: " + descriptor);
+        }
+        Annotation annotation = descriptor.getAnnotation();
+        if (annotation instanceof NotBlank) {
+            return value -> value != null && !isBlank((CharSequence) value);
+        }
+        if (annotation instanceof Size size) {
+            return value -> value == null || isLengthBetween((CharSequence) value, size.min(), size.max());
+        }
+        if (annotation instanceof Length length) {
+            return value -> value == null || isLengthBetween((CharSequence) value, length.min(), length.max());
+        }
+        if (annotation instanceof Pattern pattern) {
+            return compilePattern(pattern);
+        }
+        if (annotation instanceof Email) {
+            // 検証の実装はBean Validationの実装の内部のため、公開APIで項目の値を検証して@Emailの違反の有無を判定する
+            jakarta.validation.Validator validator = validatorFactory.getValidator();
+            return value -> value == null || validator.validateValue(UserOrderForm.class, property, value).stream()
+                .noneMatch(violation -> violation.getConstraintDescriptor().getAnnotation() instanceof Email);
+        }
+        if (annotation instanceof AssertTrue) {
+            return value -> value == null || (Boolean) value;
+        }
+        if (annotation instanceof Numeric) {
+            return value -> value == null || isAsciiDigits((CharSequence) value);
+        }
+        if (annotation instanceof CodeValue codeValue) {
+            int[] codes = Arrays.stream(codeValue.value().getEnumConstants()).mapToInt(CodeEnum::getCode).toArray();
+            return value -> value == null || ((String) value).isEmpty() || containsCode(codes, (String) value);
+        }
+        if (annotation instanceof YYYYMMDD yyyymmdd) {
+            return compileDate(yyyymmdd);
+        }
+        throw new IllegalStateException("unsupported constraint: " + annotation);
+    }
+
+    /**
+     * {@link Pattern}を検証処理に変換する。
+     * <p/>
+     * 「^[...]*$」のように文字クラスの繰り返しだけで構成される正規表現は、文字の範囲判定に置き換える。
+     * それ以外の正規表現は起動時にコンパイルしたものを使用する。
+     *
+     * @param pattern 制約
+     * @return 検証処理
+     */
+    private Predicate<Object> compilePattern(Pattern pattern) {
+        char[] ranges = pattern.flags().length == 0 ? parseCharClassRepetition(pattern.regexp()) : null;
+        if (ranges != null) {
+            return value -> value == null || isAllInRanges((CharSequence) value, ranges);
+        }
+        int flags = 0;
+        for (Pattern.Flag flag : pattern.flags()) {
+            flags |= flag.getValue();
+        }
+        java.util.regex.Pattern compiled = java.util.regex.Pattern.compile(pattern.regexp(), flags);
+        return value -> value == null || compiled.matcher((CharSequence) value).matches();
+    }
+
+    /**
+     * 「^[...]*$」形式の正規表現から文字の範囲を取り出す。
+     *
+     * @param regexp 正規表現
+     * @return 範囲の開始と終了を交互に並べた配列。対応していない形式の場合はnull
+     */
+    static char[] parseCharClassRepetition(String regexp) {
+        int start = regexp.startsWith("^") ? 1 : 0;
+        int end = regexp.endsWith("$") ? regexp.length() - 1 : regexp.length();
+        if (end - start < 4 || regexp.charAt(start) != '[' || regexp.charAt(end - 2) != ']'
+            || regexp.charAt(end - 1) != '*') {
+            return null;
+        }
+        String charClass = regexp.substring(start + 1, end - 2);
+        if (charClass.isEmpty() || charClass.charAt(0) == '^' || charClass.contains("&&")) {
+            return null;
+        }
+        StringBuilder ranges = new StringBuilder();
+        for (int i = 0; i < charClass.length(); i++) {
+            char c = charClass.charAt(i);
+            if (c == '\\' || c == '[' || c == ']' || Character.isSurrogate(c)) {
+                return null;
+            }
+            if (i + 2 < charClass.length() && charClass.charAt(i + 1) == '-') {
+                char last = charClass.charAt(i + 2);
+                if (last == '\\' || last == '[' || last == ']' || Character.isSurrogate(last) || last < c) {
+                    return null;
+                }
+                ranges.append(c).append(last);
+                i += 2;
+            } else if (c == '-' && i != 0 && i != charClass.length() - 1) {
+                return null;
+            } else {
+                ranges.append(c).append(c);
+            }
+        }
+        return ranges.toString().toCharArray();
+    }
+
+    /**
+     * {@link YYYYMMDD}を検証処理に変換する。
+     * <p/>
+     * 「yyyy/MM/dd」形式でグレゴリオ暦の年（1583年以降）の場合は、文字の並びと日付の妥当性を直接判定する。
+     * それ以外は{@link YYYYMMDDValidator}で判定する。
+     *
+     * @param yyyymmdd 制約
+     * @return 検証処理
+     */
+    private Predicate<Object> compileDate(YYYYMMDD yyyymmdd) {
+        YYYYMMDDValidator fallback = new YYYYMMDDValidator();
+        fallback.initialize(yyyymmdd);
+        Locale locale = Locale.getDefault();
+        boolean fastPath = "yyyy/MM/dd".equals(yyyymmdd.allowFormat())
+            && Calendar.getInstance(locale) instanceof GregorianCalendar
+            && DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+        return value -> {
+            if (value == null || ((String) value).isEmpty()) {
+                return true;
+            }
+            int result = fastPath ? checkYyyyMmDd((String) value) : -1;
+            return result < 0 ? fallback.isValid((String) value, null) : result == 1;
+        };
+    }
+
+    /**
+     * 「yyyy/MM/dd」形式の日付を判定する。
+     *
+     * @param value 入力値
+     * @return 妥当な場合は1、妥当でない場合は0、この方法で判定できない場合は-1
+     */
+    static int checkYyyyMmDd(String value) {
+        if (value.length() != 10 || value.charAt(4) != '/' || value.charAt(7) != '/') {
+            return -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            if (i != 4 && i != 7 && (value.charAt(i) < '0' || value.charAt(i) > '9')) {
+                return -1;
+            }
+        }
+        int year = (value.charAt(0) - '0') * 1000 + (value.charAt(1) - '0') * 100
+            + (value.charAt(2) - '0') * 10 + (value.charAt(3) - '0');
+        if (year < 1583) {
+            return -1;  // ユリウス暦の期間は判定しない
+        }
+        int month = (value.charAt(5) - '0') * 10 + (value.charAt(6) - '0');
+        int day = (value.charAt(8) - '0') * 10 + (value.charAt(9) - '0');
+        if (month < 1 || month > 12 || day < 1) {
+            return 0;
+        }
+        int lastDay = switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+        return day <= lastDay ? 1 : 0;
+    }
+
+    /**
+     * 空白文字（{@link String#trim()}で除去される文字）のみで構成されているかを判定する。
+     */
+    private static boolean isBlank(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 文字数が範囲内かを判定する。
+     */
+    private static boolean isLengthBetween(CharSequence value, int min, int max) {
+        int length = value.length();
+        return length >= min && length <= max;
+    }
+
+    /**
+     * 半角数字（0-9）のみで構成されているかを判定する。
+     */
+    static boolean isAsciiDigits(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * すべての文字が指定した範囲のいずれかに含まれるかを判定する。
+     */
+    private static boolean isAllInRanges(CharSequence value, char[] ranges) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean found = false;
+            for (int r = 0; r < ranges.length && !found; r += 2) {
+                found = c >= ranges[r] && c <= ranges[r + 1];
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * コード値の文字列表現が、コード値の一覧に含まれるかを判定する（{@link CodeEnum#hasCode(String)}と同じ判定）。
+     */
+    private static boolean containsCode(int[] codes, String value) {
+        int code = 0;
+        if (value.length() <= 9 && isAsciiDigits(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                code = code * 10 + (value.charAt(i) - '0');
+            }
+        } else {
+            try {
+                code = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        for (int candidate : codes) {
+            if (candidate == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 検証ルール。
+     */
+    private static final class Rule {
+
+        /** プロパティ名 */
+        private final String property;
+        /** 値の取得処理 */
+        private final Function<UserOrderForm, Object> accessor;
+        /** 検証処理 */
+        private final Predicate<Object> check;
+        /** 制約 */
+        private final ConstraintDescriptor<?> descriptor;
+        /** エラーコード（アノテーション名） */
+        private final String errorCode;
+        /** エラーの引数（項目名を除く、属性名順） */
+        private final Object[] attributes;
+
+        Rule(String property, Function<UserOrderForm, Object> accessor, Predicate<Object> check,
+             ConstraintDescriptor<?> descriptor) {
+            this.property = property;
+            this.accessor = accessor;
+            this.check = check;
+            this.descriptor = descriptor;
+            this.errorCode = descriptor.getAnnotation().annotationType().getSimpleName();
+            Map<String, Object> exposed = new TreeMap<>();
+            descriptor.getAttributes().forEach((name, value) -> {
+                if (!INTERNAL_ANNOTATION_ATTRIBUTES.contains(name)) {
+                    exposed.put(name, value instanceof String str ? new ResolvableAttribute(str) : value);
+                }
+            });
+            this.attributes = exposed.values().toArray();
+        }
+    }
+
+    /**
+     * 文字列のアノテーション属性をメッセージ引数として扱うためのクラス。
+     */
+    private static final class ResolvableAttribute implements MessageSourceResolvable, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String resolvableString;
+
+        ResolvableAttribute(String resolvableString) {
+            this.resolvableString = resolvableString;
+        }
+
+        @Override
+        public String[] getCodes() {
+            return new String[] {this.resolvableString};
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return null;
+        }
+
+        @Override
+        public String getDefaultMessage() {
+            return this.resolvableString;
+        }
+
+        @Override
+        public String toString() {
+            return this.resolvableString;
+        }
+    }
+
+    /**
+     * メッセージ展開時に制約と入力値を渡すためのクラス。
+     */
+    private static final class InterpolationContext implements MessageInterpolator.Context {
+
+        private final ConstraintDescriptor<?> constraintDescriptor;
+        private final Object validatedValue;
+
+        InterpolationContext(ConstraintDescriptor<?> constraintDescriptor, Object validatedValue) {
+            this.constraintDescriptor = constraintDescriptor;
+            this.validatedValue = validatedValue;
+        }
+
+        @Override
+        public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return constraintDescriptor;
+        }
+
+        @Override
+        public Object getValidatedValue() {
+            return validatedValue;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) {
+            if (type.isInstance(this)) {
+                return type.cast(this);
+            }
+            throw new ValidationException("Type " + type + " not supported for unwrapping.");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.tiscon10.viewhelper;
+
+import java.io.IOException;
+
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
+
+/**
+ * 静的ファイルのURLを、内容のハッシュ値を含むURLに変換するHelper。
+ * <p/>
+ * ハッシュ値付きのURLは内容が変わるとURLも変わるため、ブラウザに長期間キャッシュさせることができる。
+ *
+ * 使用例
+ * <code><pre>
+ * &lt;script src="{{asset "/js/bootstrap.min.js"}}"&gt;&lt;/script&gt;
+ * </pre></code>
+ *
+ * 以下のようにレンダリングされる。
+ *
+ * <code><pre>
+ * &lt;script src="/js/bootstrap.min-5b1c2d1e0a7d7f2f7a3c2b3a1a1f1e2d.js"&gt;&lt;/script&gt;
+ * </pre></code>
+ */
+public class AssetHelper implements Helper<String> {
+
+    /** 静的ファイルのURLを解決するクラス */
+    private final ResourceUrlProvider resourceUrlProvider;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param resourceUrlProvider 静的ファイルのURLを解決するクラス
+     */
+    public AssetHelper(ResourceUrlProvider resourceUrlProvider) {
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    /**
+     * @param path    静的ファイルのパス（例：/js/bootstrap.min.js）
+     * @param options Handlebarsのオプション
+     * @return ハッシュ値付きのURL。解決できない場合は指定したパスのまま
+     */
+    @Override
+    public Object apply(String path, Options options) throws IOException {
+        String url = resourceUrlProvider.getForLookupPath(path);
+        return url != null ? url : path;
+    }
+}
@@ -0,0 +1,172 @@
+package com.tiscon10.viewhelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.Helper;
+import com.github.jknack.handlebars.Options;
+
+/**
+ * 静的ファイルの内容をHTMLに直接埋め込むためのHelperを提供するクラス。
+ * <p/>
+ * 小さなCSSやSVGを埋め込むことで、初回表示までに必要なリクエストを減らす。
+ * 埋め込む内容は、静的ファイルのバージョン（内容のハッシュ値付きURL）ごとに1度だけ組み立ててキャッシュする。
+ */
+public class AssetInlineHelper {
+
+    /** CSS中の絶対パスのURL */
+    private static final Pattern CSS_URL = Pattern.compile("url\\(\\s*([\"']?)(/[^\"')]+)\\1\\s*\\)");
+
+    /** SVGのルート要素 */
+    private static final Pattern SVG_ROOT = Pattern.compile("<svg([^>]*)>(.*)</svg>", Pattern.DOTALL);
+
+    /** SVGのルート要素の属性のうち、シンボルに引き継ぐもの */
+    private static final Pattern SVG_SYMBOL_ATTRIBUTE = Pattern.compile("\\s(viewBox|fill)=\"[^\"]*\"");
+
+    /** 静的ファイルのURLを解決するクラス */
+    private final ResourceUrlProvider resourceUrlProvider;
+
+    /** 静的ファイルを読み込むクラス */
+    private final ResourceLoader resourceLoader;
+
+    /** 組み立て済みの埋め込み内容（キーはバージョン付きURL） */
+    private final Map<String, Handlebars.SafeString> cache = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param resourceUrlProvider 静的ファイルのURLを解決するクラス
+     * @param resourceLoader      静的ファイルを読み込むクラス
+     */
+    public AssetInlineHelper(ResourceUrlProvider resourceUrlProvider, ResourceLoader resourceLoader) {
+        this.resourceUrlProvider = resourceUrlProvider;
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * CSSファイルの内容を{@code <style>}要素として埋め込むHelperを取得する。
+     * CSS中の{@code url(/...)}はハッシュ値付きのURLに置き換える。
+     *
+     * 使用例
+     * <code><pre>
+     * {{inlineCss "/css/main.css"}}
+     * </pre></code>
+     *
+     * @return Helper
+     */
+    public Helper<String> inlineCss() {
+        return (path, options) -> cache.computeIfAbsent("css:" + versioned(path), key -> {
+            StringBuilder css = new StringBuilder("<style>");
+            Matcher matcher = CSS_URL.matcher(read(path));
+            while (matcher.find()) {
+                String url = matcher.group(1) + versioned(matcher.group(2)) + matcher.group(1);
+                matcher.appendReplacement(css, Matcher.quoteReplacement("url(" + url + ")"));
+            }
+            matcher.appendTail(css);
+            return new Handlebars.SafeString(css.append("</style>"));
+        });
+    }
+
+    /**
+     * 複数のSVGファイルを1つのスプライト（非表示の{@code <svg>}要素内の{@code <symbol>}）として埋め込むHelperを取得する。
+     * シンボルのIDはファイル名（拡張子を除く）となり、{@code <use href="#ID"/>}で参照する。
+     *
+     * 使用例
+     * <code><pre>
+     * {{svgSprite "/img/progress_input.svg" "/img/progress_confirm.svg"}}
+     * &lt;svg width="175" height="42"&gt;&lt;use href="#progress_input"/&gt;&lt;/svg&gt;
+     * </pre></code>
+     *
+     * @return Helper
+     */
+    public Helper<String> svgSprite() {
+        return (path, options) -> {
+            String[] paths = paths(path, options);
+            StringBuilder key = new StringBuilder("svg:");
+            for (String each : paths) {
+                key.append(versioned(each)).append(' ');
+            }
+            return cache.computeIfAbsent(key.toString(), k -> {
+                StringBuilder sprite = new StringBuilder(
+                    "<svg xmlns=\"http://www.w3.org/2000/svg\" style=\"display:none\">");
+                for (String each : paths) {
+                    appendSymbol(sprite, each);
+                }
+                return new Handlebars.SafeString(sprite.append("</svg>"));
+            });
+        };
+    }
+
+    /**
+     * SVGファイルを{@code <symbol>}要素に変換して追加する。
+     *
+     * @param sprite 追加先
+     * @param path   SVGファイルのパス
+     */
+    private void appendSymbol(StringBuilder sprite, String path) {
+        Matcher root = SVG_ROOT.matcher(read(path));
+        if (!root.find()) {
+            throw new IllegalArgumentException("not a svg file. path=" + path);
+        }
+        String id = path.substring(path.lastIndexOf('/') + 1, path.lastIndexOf('.'));
+        sprite.append("<symbol id=\"").append(id).append('"');
+        Matcher attribute = SVG_SYMBOL_ATTRIBUTE.matcher(root.group(1));
+        while (attribute.find()) {
+            sprite.append(attribute.group());
+        }
+        sprite.append('>').append(root.group(2).trim()).append("</symbol>");
+    }
+
+    /**
+     * Helperの引数（1つ目とそれ以降）をまとめる。
+     *
+     * @param first   1つ目の引数
+     * @param options Handlebarsのオプション
+     * @return すべての引数
+     */
+    private static String[] paths(String first, Options options) {
+        String[] paths = new String[options.params.length + 1];
+        paths[0] = first;
+        for (int i = 0; i < options.params.length; i++) {
+            paths[i + 1] = String.valueOf(options.params[i]);
+        }
+        return paths;
+    }
+
+    /**
+     * 静的ファイルのバージョン付きURLを取得する。
+     *
+     * @param path 静的ファイルのパス
+     * @return バージョン付きURL。解決できない場合は指定したパスのまま
+     */
+    private String versioned(String path) {
+        String url = resourceUrlProvider.getForLookupPath(path);
+        return url != null ? url : path;
+    }
+
+    /**
+     * 静的ファイルの内容を読み込む。
+     *
+     * @param path 静的ファイルのパス
+     * @return ファイルの内容
+     */
+    private String read(String path) {
+        Resource resource = resourceLoader.getResource("classpath:/static" + path);
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,2 +0,0 @@
-MERGE INTO AGE_ADJUSTMENT_RATE SELECT * FROM CSVREAD('classpath:/data/AGE_ADJUSTMENT_RATE.csv');
-MERGE INTO INSURANCE_TYPE SELECT * FROM CSVREAD('classpath:/data/INSURANCE_TYPE.csv');
@@ -32,7 +32,7 @@ CREATE TABLE IF NOT EXISTS INSURANCE_ORDER (
     INSURANCE_TYPE NUMBER NOT NULL,                           -- 保険種別
     KANJI_NAME VARCHAR(120) NOT NULL,                         -- 漢字氏名
     KANA_NAME VARCHAR(180) NOT NULL,                          -- カナ氏名
-    DATE_OF_BIRTH CHAR(10) NOT NULL,                          -- 生年月日
+    DATE_OF_BIRTH DATE NOT NULL,                              -- 生年月日
     ADDRESS VARCHAR(510) NOT NULL,                            -- 住所
     TEL VARCHAR(13) NOT NULL,                                 -- 電話番号
     EMAIL_ADDRESS VARCHAR(255) NOT NULL,                      -- メールアドレス
@@ -41,6 +41,89 @@ CREATE TABLE IF NOT EXISTS INSURANCE_ORDER (
     INCOME NUMBER(9) NOT NULL,                                -- 所得金額
     TREATED INTEGER NOT NULL,                                 -- 病歴有無
     MEDICAL_HISTORY VARCHAR(240),                             -- 病歴
+    IDEMPOTENCY_KEY VARCHAR(64),                              -- 冪等キー（二重送信防止）
+    ORDERED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP,           -- 申し込み日時
     PRIMARY KEY (RECEIPT_NO),
     FOREIGN KEY (INSURANCE_TYPE) REFERENCES INSURANCE_TYPE(INSURANCE_TYPE)
 );
+
+/*
+ 生年月日の型の変更（文字列 → 日付）
+
+ 生年月日を文字列（yyyy/MM/dd）で保存していたデータベースの場合のみ、値をyyyy-MM-ddに置き換えてから日付の列に変更する。
+ 日付の列に変更済み、または新規に作成したデータベースの場合は、置き換える行がなく（受付番号の範囲が空となり索引のみを参照する）、
+ 列の変更も型が同じため定義の更新のみとなる。
+*/
+UPDATE INSURANCE_ORDER SET DATE_OF_BIRTH = REPLACE(DATE_OF_BIRTH, '/', '-')
+    WHERE RECEIPT_NO <= (SELECT CASE WHEN DATA_TYPE = 'CHARACTER' THEN 999999999 ELSE -1 END
+        FROM INFORMATION_SCHEMA.COLUMNS
+        WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = 'INSURANCE_ORDER' AND COLUMN_NAME = 'DATE_OF_BIRTH');
+ALTER TABLE INSURANCE_ORDER ALTER COLUMN DATE_OF_BIRTH SET DATA TYPE DATE;
+
+/*
+ 保険申し込みテーブルの検索用インデックス
+
+ 問い合わせ対応時に検索するメールアドレス、電話番号、カナ氏名に付与する。
+*/
+CREATE INDEX IF NOT EXISTS IDX_INSURANCE_ORDER_EMAIL ON INSURANCE_ORDER(EMAIL_ADDRESS);
+CREATE INDEX IF NOT EXISTS IDX_INSURANCE_ORDER_TEL ON INSURANCE_ORDER(TEL);
+CREATE INDEX IF NOT EXISTS IDX_INSURANCE_ORDER_KANA_NAME ON INSURANCE_ORDER(KANA_NAME);
+
+/*
+ 保険種別で絞り込んだ申し込み一覧を受付番号順にページングするためのインデックス
+*/
+CREATE INDEX IF NOT EXISTS IDX_INSURANCE_ORDER_TYPE_RECEIPT ON INSURANCE_ORDER(INSURANCE_TYPE, RECEIPT_NO);
+
+/*
+ 保険申し込みの二重登録を防ぐための一意制約
+
+ 冪等キーを持つ申し込みのみが対象となる（NULLは重複可）。
+ 複数のサーバで運用する場合も、同じ冪等キーの申し込みは1件しか登録されない。
+*/
+ALTER TABLE INSURANCE_ORDER ADD COLUMN IF NOT EXISTS IDEMPOTENCY_KEY VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS UK_INSURANCE_ORDER_IDEMPOTENCY_KEY ON INSURANCE_ORDER(IDEMPOTENCY_KEY);
+
+/*
+ 保険申し込みの申し込み日時
+
+ バックオフィス向けの集計（日別の申し込み件数）に使用する。登録時にデータベースの現在日時を設定する。
+ 列の追加前に登録された申し込みは、列を追加した日時となる。
+*/
+ALTER TABLE INSURANCE_ORDER ADD COLUMN IF NOT EXISTS ORDERED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+/*
+ 分析基盤向けの差分エクスポートで、前回以降に登録された申し込みを申し込み日時の順に読み出すためのインデックス
+*/
+CREATE INDEX IF NOT EXISTS IDX_INSURANCE_ORDER_ORDERED_AT ON INSURANCE_ORDER(ORDERED_AT, RECEIPT_NO);
+
+/*
+ 料金表バージョンテーブル
+
+ 保険種別テーブル、年齢調整率テーブルを変更した際にバージョンを更新する。
+ CSVファイルから登録した場合は、そのチェックサムも記録する（変更がなければ起動時の再登録を省略する）。
+ 各ノードはバージョンを定期的に確認し、メモリ上の料金表を読み込み直す。
+*/
+CREATE TABLE IF NOT EXISTS RATE_TABLE_VERSION (
+    ID INTEGER NOT NULL,                                     -- ID（常に1）
+    VERSION BIGINT NOT NULL,                                 -- バージョン
+    CHECKSUM VARCHAR(64),                                    -- 登録に使用したCSVファイルのチェックサム
+    PRIMARY KEY (ID)
+);
+ALTER TABLE RATE_TABLE_VERSION ADD COLUMN IF NOT EXISTS CHECKSUM VARCHAR(64);
+MERGE INTO RATE_TABLE_VERSION T USING (VALUES (1, 0)) S(ID, VERSION) ON T.ID = S.ID
+    WHEN NOT MATCHED THEN INSERT (ID, VERSION) VALUES (S.ID, S.VERSION);
+
+/*
+ 受付番号払い出しテーブル
+
+ 複数ノード構成の場合に、各ノードが受付番号を一定件数ずつまとめて借り受けるために使用する。
+ 初期値は登録済みの保険申し込みの受付番号の最大値の次とする。
+*/
+CREATE TABLE IF NOT EXISTS RECEIPT_NO_LEASE (
+    ID INTEGER NOT NULL,                                     -- ID（常に1）
+    NEXT_RECEIPT_NO BIGINT NOT NULL,                         -- 次に払い出す受付番号
+    PRIMARY KEY (ID)
+);
+MERGE INTO RECEIPT_NO_LEASE T
+    USING (SELECT 1 AS ID, COALESCE(MAX(RECEIPT_NO), 0) + 1 AS NEXT_RECEIPT_NO FROM INSURANCE_ORDER) S ON T.ID = S.ID
+    WHEN NOT MATCHED THEN INSERT VALUES (S.ID, S.NEXT_RECEIPT_NO);
@@ -0,0 +1,158 @@
+package com.tiscon10;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ネイティブイメージの実行ファイルを起動し、入力〜申し込み完了までの画面遷移を確認するテスト。
+ * <p/>
+ * システムプロパティ「tiscon.native.executable」に実行ファイルのパスを指定した場合のみ実行する。
+ * <code><pre>
+ * mvn -Pnative native:compile
+ * mvn test -Dtest=NativeImageSmokeTest -Dtiscon.native.executable=target/tiscon10
+ * </pre></code>
+ */
+@EnabledIfSystemProperty(named = "tiscon.native.executable", matches = ".+")
+public class NativeImageSmokeTest {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NativeImageSmokeTest.class);
+
+    /** 起動を待つ時間(ms) */
+    private static final long STARTUP_TIMEOUT_MILLIS = 10_000;
+
+    /** 概算見積もり結果画面の冪等キー */
+    private static final Pattern IDEMPOTENCY_KEY = Pattern.compile("name=\"idempotencyKey\" value=\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private Process process;
+
+    private String baseUrl;
+
+    private Path workDirectory;
+
+    /**
+     * 空いているポートで実行ファイルを起動し、リクエストを受け付けるまで待つ。
+     */
+    @BeforeEach
+    public void start() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        workDirectory = Files.createTempDirectory("tiscon-native");
+
+        long startedAt = System.currentTimeMillis();
+        process = new ProcessBuilder(
+            Path.of(System.getProperty("tiscon.native.executable")).toAbsolutePath().toString(),
+            "--server.port=" + port,
+            "--spring.datasource.url=jdbc:h2:mem:smoke")
+            .directory(workDirectory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(workDirectory.resolve("console.log").toFile())
+            .start();
+
+        while (true) {
+            try {
+                if (get("/start").statusCode() == 200) {
+                    break;
+                }
+            } catch (ConnectException e) {
+                // 起動中
+            }
+            assertTrue(process.isAlive(), "process exited. see " + workDirectory.resolve("console.log"));
+            assertTrue(System.currentTimeMillis() - startedAt < STARTUP_TIMEOUT_MILLIS, "startup timed out");
+            Thread.sleep(20);
+        }
+        LOGGER.info("native executable started in {}ms", System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * 実行ファイルを停止する。
+     */
+    @AfterEach
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * 入力、確認、概算見積もり、申し込み完了の各画面が表示できること。
+     */
+    @Test
+    public void testEstimateFunnel() throws Exception {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("insuranceType", "1");
+        form.put("kanjiName", "試験太郎");
+        form.put("kanaName", "シケンタロウ");
+        form.put("dateOfBirth", "1990/01/01");
+        form.put("address", "東京都江東区豊洲");
+        form.put("tel", "0312345678");
+        form.put("email", "test@example.com");
+        form.put("marriedType", "0");
+        form.put("jobType", "2");
+        form.put("income", "500");
+        form.put("treatedType", "0");
+        form.put("medicalHistory", "");
+
+        HttpResponse<String> confirm = post("/confirm", form);
+        assertEquals(200, confirm.statusCode());
+        assertTrue(confirm.body().contains("試験太郎"));
+
+        form.put("proceed", "");
+        HttpResponse<String> estimate = post("/estimate", form);
+        assertEquals(200, estimate.statusCode());
+        Matcher idempotencyKey = IDEMPOTENCY_KEY.matcher(estimate.body());
+        assertTrue(idempotencyKey.find(), "idempotency key not found");
+
+        form.put("idempotencyKey", idempotencyKey.group(1));
+        HttpResponse<String> order = post("/order", form);
+        assertEquals(200, order.statusCode());
+        assertTrue(order.body().contains("詳細見積もりのお申し込みが完了しました。"));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private HttpResponse<String> post(String path, Map<String, String> form) throws IOException, InterruptedException {
+        String body = form.entrySet().stream()
+            .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("&"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+}
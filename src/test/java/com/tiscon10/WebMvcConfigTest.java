@@ -0,0 +1,45 @@
+package com.tiscon10;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+/**
+ * {@link WebMvcConfig}のテスト。
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:web-mvc-config;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class WebMvcConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    /**
+     * ハッシュ値を含むURLは長期間キャッシュさせ、含まないURLは毎回再検証させること。
+     */
+    @Test
+    public void testCacheControl() throws Exception {
+        for (String path : new String[] {"/css/main.css", "/js/jquery-3.5.1.min.js", "/img/header_logo.svg"}) {
+            String versioned = resourceUrlProvider.getForLookupPath(path);
+            assertNotEquals(path, versioned);
+
+            mockMvc.perform(get(versioned))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+            mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.tiscon10.controller.api;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.tiscon10.Tiscon10RuntimeHints;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.QuoteRequest;
+import com.tiscon10.form.UserOrderForm;
+import com.tiscon10.service.EstimateResult;
+import com.tiscon10.service.EstimateService;
+
+/**
+ * {@link QuoteApiHandler}のテスト。
+ * <p/>
+ * 申し込みを登録するため、テスト用のデータベース（メモリ上）を使用する。
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:quote-api;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class QuoteApiHandlerTest {
+
+    /** 正しい申し込み内容（冪等キーを除く） */
+    private static final String ORDER = """
+        {"insuranceType": "1", "kanjiName": "東京 太郎", "kanaName": "トウキョウ　タロウ", "dateOfBirth": "1990/04/01",
+         "address": "東京都江東区豊洲3-2-20", "tel": "03-1234-5678", "email": "taro@example.com",
+         "marriedType": "1", "jobType": "2", "income": "500", "treatedType": "0", "medicalHistory": ""}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EstimateService estimateService;
+
+    /**
+     * 見積もりの結果を返すこと。
+     */
+    @Test
+    public void testQuote() throws Exception {
+        mockMvc.perform(post("/api/quotes").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"insuranceType\": 1, \"dateOfBirth\": \"1990-04-01\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.annualFee").isNumber())
+            .andExpect(jsonPath("$.age").isNumber())
+            .andExpect(jsonPath("$.adjustmentRateByAge").isNumber());
+    }
+
+    /**
+     * 見積もりの依頼内容に誤りがある場合は400を返すこと。
+     */
+    @Test
+    public void testQuoteValidationError() throws Exception {
+        mockMvc.perform(post("/api/quotes").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"insuranceType\": 1}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("insuranceType and dateOfBirth are required"));
+        mockMvc.perform(post("/api/quotes").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"insuranceType\": 99, \"dateOfBirth\": \"1990-04-01\"}"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/quotes").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"insuranceType\": 1, \"dateOfBirth\": \"" + LocalDate.now().minusYears(19) + "\"}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.error").value("年齢は20歳以上100歳以下である必要があります"));
+    }
+
+    /**
+     * 申し込み内容に誤りがある場合は、項目ごとのエラーとともに400を返すこと。
+     */
+    @Test
+    public void testOrderValidationError() throws Exception {
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(ORDER.replace("taro@example.com", "taro")))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0].field").value("email"));
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(ORDER.replace("1990/04/01", "1900/04/01")))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.errors[0].field").value("dateOfBirth"));
+    }
+
+    /**
+     * 同じ冪等キーの再送信には最初の結果（201）を返し、他のサーバで登録済みの冪等キーには409を返すこと。
+     */
+    @Test
+    public void testRepeatedIdempotencyKey() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        order(idempotencyKey).andExpect(status().isCreated()).andExpect(jsonPath("$.registered").value(true));
+        order(idempotencyKey).andExpect(status().isCreated()).andExpect(jsonPath("$.registered").value(true));
+
+        // 他のサーバで登録された（このサーバは結果を保持していない）
+        String registeredElsewhere = UUID.randomUUID().toString();
+        estimateService.registerOrder(new InsuranceOrder(null, 1, "東京 太郎", "トウキョウ　タロウ",
+            LocalDate.of(1990, 4, 1), "東京都江東区豊洲3-2-20", "03-1234-5678", "taro@example.com", 1, 2, 500, 0, ""),
+            registeredElsewhere);
+        order(registeredElsewhere).andExpect(status().isConflict()).andExpect(jsonPath("$.registered").value(false));
+    }
+
+    /**
+     * 提携先APIのリクエスト・レスポンスが、ネイティブイメージ向けにリフレクションのヒントとして登録されていること。
+     */
+    @Test
+    public void testRuntimeHints() {
+        RuntimeHints hints = new RuntimeHints();
+        new Tiscon10RuntimeHints().registerHints(hints, getClass().getClassLoader());
+        for (Class<?> type : new Class<?>[] {QuoteRequest.class, UserOrderForm.class, EstimateResult.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type).test(hints), type.getName());
+        }
+    }
+
+    /**
+     * 申し込みを送信し、非同期の応答を待つ。
+     *
+     * @param idempotencyKey 冪等キー
+     * @return 応答
+     */
+    private ResultActions order(String idempotencyKey) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", idempotencyKey).content(ORDER))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
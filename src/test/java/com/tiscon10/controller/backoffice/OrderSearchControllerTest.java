@@ -0,0 +1,144 @@
+package com.tiscon10.controller.backoffice;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.filter.BackofficeAuthFilter;
+import com.tiscon10.service.OrderSearchService;
+
+/**
+ * {@link OrderSearchController}のテスト。
+ */
+public class OrderSearchControllerTest {
+
+    /** Basic認証のAuthorizationヘッダ */
+    private static final String AUTHORIZATION =
+        "Basic " + Base64.getEncoder().encodeToString("backoffice:secret".getBytes(StandardCharsets.UTF_8));
+
+    /** 見積もりDAO */
+    private EstimateDao estimateDao;
+
+    /** バックオフィスのBasic認証 */
+    private BackofficeAuthFilter authFilter;
+
+    /** テスト対象 */
+    private MockMvc mockMvc;
+
+    /**
+     * テーブルを作成し、コントローラーを組み立てる。
+     */
+    @BeforeEach
+    public void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:order-search-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        new JdbcTemplate(dataSource).update("INSERT INTO INSURANCE_TYPE VALUES (1, '終身医療保険', 1000)");
+        estimateDao = new EstimateDao();
+        ReflectionTestUtils.setField(estimateDao, "parameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+
+        OrderSearchService orderSearchService = new OrderSearchService();
+        ReflectionTestUtils.setField(orderSearchService, "estimateDAO", estimateDao);
+        OrderSearchController controller = new OrderSearchController();
+        ReflectionTestUtils.setField(controller, "orderSearchService", orderSearchService);
+        ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+        authFilter = new BackofficeAuthFilter();
+        ReflectionTestUtils.setField(authFilter, "username", "backoffice");
+        ReflectionTestUtils.setField(authFilter, "password", "secret");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).addFilters(authFilter).build();
+    }
+
+    /**
+     * JSON形式の検索結果で、nextAfterを次のページの検索条件に指定できること。
+     */
+    @Test
+    public void testJsonPaging() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            estimateDao.insertInsuranceOrder(order(i, "東京 太郎"));
+        }
+        mockMvc.perform(get("/backoffice/orders").param("limit", "2").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.orders.length()").value(2))
+            .andExpect(jsonPath("$.orders[0].receiptNo").value(1))
+            .andExpect(jsonPath("$.orders[0].dateOfBirth").value("1985-01-01"))
+            .andExpect(jsonPath("$.nextAfter").value(2));
+        mockMvc.perform(get("/backoffice/orders").param("limit", "2").param("after", "2")
+                .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+            .andExpect(jsonPath("$.orders.length()").value(1))
+            .andExpect(jsonPath("$.orders[0].receiptNo").value(3))
+            .andExpect(jsonPath("$.nextAfter").value(3));
+        mockMvc.perform(get("/backoffice/orders").param("after", "3").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+            .andExpect(jsonPath("$.orders.length()").value(0))
+            .andExpect(jsonPath("$.nextAfter").isEmpty());
+    }
+
+    /**
+     * CSV形式の検索結果が、ヘッダ行付きで区切り文字・ダブルクォート・改行をエスケープして出力されること。
+     */
+    @Test
+    public void testCsv() throws Exception {
+        estimateDao.insertInsuranceOrder(order(1, "東京 太郎"));
+        estimateDao.insertInsuranceOrder(order(2, "豊洲,\"次郎\"\n"));
+        mockMvc.perform(get("/backoffice/orders.csv").param("after", "0")
+                .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().bytes(("RECEIPT_NO,INSURANCE_TYPE,KANJI_NAME,KANA_NAME,DATE_OF_BIRTH,ADDRESS,TEL,"
+                + "EMAIL_ADDRESS,MARRIED,JOB,INCOME,TREATED,MEDICAL_HISTORY\r\n"
+                + "1,1,東京 太郎,トウキョウ　タロウ,1985-01-01,東京都江東区豊洲3-2-20,03-1234-5678,taro@example.com,"
+                + "0,1,500,0,\r\n"
+                + "2,1,\"豊洲,\"\"次郎\"\"\n\",トウキョウ　タロウ,1985-01-02,東京都江東区豊洲3-2-20,03-1234-5678,"
+                + "taro@example.com,0,1,500,0,\r\n").getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 認証情報がない、または誤っている場合は401、パスワードを設定していない場合は403を返すこと。
+     */
+    @Test
+    public void testAuthentication() throws Exception {
+        String wrong = "Basic " + Base64.getEncoder().encodeToString("backoffice:wrong".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/backoffice/orders.csv"))
+            .andExpect(status().isUnauthorized())
+            .andExpect(header().exists(HttpHeaders.WWW_AUTHENTICATE));
+        mockMvc.perform(get("/backoffice/orders").header(HttpHeaders.AUTHORIZATION, wrong))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(get(URI.create("/%62ackoffice/orders")))
+            .andExpect(status().isUnauthorized());
+
+        ReflectionTestUtils.setField(authFilter, "password", "");
+        mockMvc.perform(get("/backoffice/orders").header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+            .andExpect(status().isForbidden());
+    }
+
+    private static InsuranceOrder order(int receiptNo, String kanjiName) {
+        return new InsuranceOrder(receiptNo, 1, kanjiName, "トウキョウ　タロウ", LocalDate.of(1985, 1, receiptNo),
+            "東京都江東区豊洲3-2-20", "03-1234-5678", "taro@example.com", 0, 1, 500, 0, null);
+    }
+}
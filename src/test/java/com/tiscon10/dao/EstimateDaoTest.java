@@ -0,0 +1,139 @@
+package com.tiscon10.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.OrderSearchForm;
+
+/**
+ * {@link EstimateDao}のテスト（保険申し込みの検索）。
+ */
+public class EstimateDaoTest {
+
+    /** テスト対象 */
+    private EstimateDao estimateDao;
+
+    /** テストデータの操作 */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * テーブルを作成し、受付番号1〜10の保険申し込みを登録する（奇数の受付番号は配偶者あり）。
+     */
+    @BeforeEach
+    public void createTables() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:estimate-dao-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO INSURANCE_TYPE VALUES (1, '終身医療保険', 1000)");
+        estimateDao = new EstimateDao();
+        ReflectionTestUtils.setField(estimateDao, "parameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        for (int i = 1; i <= 10; i++) {
+            estimateDao.insertInsuranceOrder(order(i));
+        }
+    }
+
+    /**
+     * 前ページ最後の受付番号を指定して、受付番号の昇順に重複・欠落なく取得できること。
+     */
+    @Test
+    public void testKeysetPaging() {
+        List<Integer> all = new ArrayList<>();
+        Integer after = null;
+        List<Integer> page;
+        do {
+            page = find(new OrderSearchForm(null, null, null, null, null, null, null, after, 3), 3);
+            all.addAll(page);
+            after = page.isEmpty() ? after : page.get(page.size() - 1);
+        } while (!page.isEmpty());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), all);
+    }
+
+    /**
+     * 絞り込み条件とページングを組み合わせられること。
+     */
+    @Test
+    public void testKeysetPagingWithCondition() {
+        assertEquals(List.of(1, 3), find(new OrderSearchForm(null, null, null, null, null, null, 1, null, 2), 2));
+        assertEquals(List.of(5, 7), find(new OrderSearchForm(null, null, null, null, null, null, 1, 3, 2), 2));
+        assertEquals(List.of(5, 6, 7), find(new OrderSearchForm(1, LocalDate.of(1985, 1, 5),
+            LocalDate.of(1985, 1, 7), null, null, null, null, null, 10), 10));
+        assertEquals(List.of(), find(new OrderSearchForm(null, null, null, null, null, null, null, 10, 10), 10));
+    }
+
+    /**
+     * 申し込み日の範囲（終了日を含む）で絞り込めること。
+     */
+    @Test
+    public void testOrderedDateRange() {
+        // 受付番号nの申し込みは、2024年4月n日の23:59:59に申し込まれたものとする
+        jdbcTemplate.update(
+            "UPDATE INSURANCE_ORDER SET ORDERED_AT = DATEADD(DAY, RECEIPT_NO, TIMESTAMP '2024-03-31 23:59:59')");
+        assertEquals(List.of(2, 3), find(new OrderSearchForm(null, null, null, LocalDate.of(2024, 4, 2),
+            LocalDate.of(2024, 4, 3), null, null, null, 10), 10));
+        assertEquals(List.of(9, 10), find(new OrderSearchForm(null, null, null, LocalDate.of(2024, 4, 9),
+            null, null, null, null, 10), 10));
+    }
+
+    /**
+     * 自動採番した受付番号を、1件の登録・まとめての登録のいずれでも返すこと。
+     */
+    @Test
+    public void testInsertReturnsGeneratedReceiptNo() {
+        // 受付番号を指定して登録済みのため、自動採番の次の値を揃える
+        estimateDao.alignReceiptNoIdentity();
+        assertEquals(11, estimateDao.insertInsuranceOrder(order(1).withReceiptNo(null)).receiptNo());
+        List<InsuranceOrder> inserted = estimateDao.insertInsuranceOrders(
+            List.of(order(2).withReceiptNo(null), order(3).withReceiptNo(null)));
+        assertEquals(List.of(12, 13), inserted.stream().map(InsuranceOrder::receiptNo).toList());
+    }
+
+    /**
+     * 集計に使用する項目を、受付番号と直近に登録されたかとともに全件取得できること。
+     */
+    @Test
+    public void testScanOrderPlacedEvents() {
+        jdbcTemplate.update(
+            "UPDATE INSURANCE_ORDER SET ORDERED_AT = DATEADD(HOUR, -1, LOCALTIMESTAMP) WHERE RECEIPT_NO <= 5");
+        List<Integer> receiptNos = new ArrayList<>();
+        List<Integer> recent = new ArrayList<>();
+        estimateDao.scanOrderPlacedEvents(Duration.ofMinutes(10), (event, isRecent) -> {
+            receiptNos.add(event.receiptNo());
+            if (isRecent) {
+                recent.add(event.receiptNo());
+            }
+        });
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), receiptNos.stream().sorted().toList());
+        assertEquals(List.of(6, 7, 8, 9, 10), recent.stream().sorted().toList());
+    }
+
+    private List<Integer> find(OrderSearchForm condition, int limit) {
+        List<Integer> receiptNos = new ArrayList<>();
+        estimateDao.findInsuranceOrders(condition, limit, order -> receiptNos.add(order.receiptNo()));
+        return receiptNos;
+    }
+
+    private static InsuranceOrder order(int receiptNo) {
+        return new InsuranceOrder(receiptNo, 1, "東京 太郎", "トウキョウ　タロウ", LocalDate.of(1985, 1, receiptNo),
+            "東京都江東区豊洲3-2-20", "03-1234-5678", "taro@example.com", receiptNo % 2, 1, 500, 0, null);
+    }
+}
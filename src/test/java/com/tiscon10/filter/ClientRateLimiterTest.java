@@ -0,0 +1,118 @@
+package com.tiscon10.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * {@link ClientRateLimiter}のテスト。時刻は引数で与える。
+ */
+public class ClientRateLimiterTest {
+
+    /** 1秒 */
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** 開始時刻（タイミングホイールの1スロットの境界） */
+    private static final long START = 1_000 * SECOND;
+
+    /**
+     * 容量の分だけ連続して取得でき、それを超えると次のトークンが空くまでの時間を返すこと。
+     */
+    @Test
+    public void testBurstCapacity() {
+        ClientRateLimiter limiter = new ClientRateLimiter(new RateLimitProperties.Limit(3, 1.0), START);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("client", START));
+        }
+        assertEquals(SECOND, limiter.tryAcquire("client", START));
+        // 拒否してもトークンは消費しない
+        assertEquals(SECOND / 2, limiter.tryAcquire("client", START + SECOND / 2));
+        // クライアントごとに別のバケットを持つ
+        assertEquals(0, limiter.tryAcquire("other", START));
+    }
+
+    /**
+     * 回復時間（1 / 1秒あたりの回復数）ごとにトークンが1つ回復し、容量を超えては貯まらないこと。
+     */
+    @Test
+    public void testRefill() {
+        ClientRateLimiter limiter = new ClientRateLimiter(new RateLimitProperties.Limit(2, 0.5), START);
+        assertEquals(0, limiter.tryAcquire("client", START));
+        assertEquals(0, limiter.tryAcquire("client", START));
+        assertEquals(2 * SECOND, limiter.tryAcquire("client", START));
+
+        assertEquals(0, limiter.tryAcquire("client", START + 2 * SECOND));
+        assertEquals(2 * SECOND, limiter.tryAcquire("client", START + 2 * SECOND));
+
+        // 長く空いても容量（2）の分しか連続して取得できない
+        long later = START + 60 * SECOND;
+        assertEquals(0, limiter.tryAcquire("client", later));
+        assertEquals(0, limiter.tryAcquire("client", later));
+        assertEquals(2 * SECOND, limiter.tryAcquire("client", later));
+    }
+
+    /**
+     * トークンが満タンまで回復したクライアントのバケットは、タイミングホイールの掃除で破棄されること。
+     * まだ回復していないバケットは登録し直され、回復した後に破棄されること。
+     */
+    @Test
+    public void testIdleClientExpiry() {
+        ClientRateLimiter limiter = new ClientRateLimiter(new RateLimitProperties.Limit(3, 1.0), START);
+        limiter.tryAcquire("idle", START);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("busy", START);
+        }
+        // 生成時に、満タンから空になるまでの時間（3秒）の後のスロットに登録される
+        limiter.tryAcquire("busy", START + 3 * SECOND + SECOND / 2);
+        assertTrue(buckets(limiter).containsKey("idle"));
+
+        // 4秒後のスロットの掃除: idleは回復済み、busyは4.5秒後まで回復しないため登録し直す
+        limiter.tryAcquire("probe", START + 4 * SECOND);
+        assertFalse(buckets(limiter).containsKey("idle"));
+        assertTrue(buckets(limiter).containsKey("busy"));
+
+        limiter.tryAcquire("probe", START + 5 * SECOND);
+        assertFalse(buckets(limiter).containsKey("busy"));
+
+        // 破棄された後は新規のクライアントとして容量の分だけ取得できる
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("busy", START + 5 * SECOND));
+        }
+    }
+
+    /**
+     * タイミングホイールの1周を超えて掃除されなかった場合も、破棄できること。
+     */
+    @Test
+    public void testExpiryAfterLongPause() {
+        ClientRateLimiter limiter = new ClientRateLimiter(new RateLimitProperties.Limit(3, 1.0), START);
+        limiter.tryAcquire("idle", START);
+        limiter.tryAcquire("probe", START + 1_000 * SECOND);
+        assertFalse(buckets(limiter).containsKey("idle"));
+    }
+
+    /**
+     * 容量が1未満、または1秒あたりの回復数が0以下・非数・大きすぎる・小さすぎる設定を受け付けないこと。
+     */
+    @Test
+    public void testInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Limit(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Limit(3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Limit(3, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Limit(3, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Limit(3, 2.0 * SECOND));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Limit(3, 1e-10));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> buckets(ClientRateLimiter limiter) {
+        return (Map<String, ?>) ReflectionTestUtils.getField(limiter, "buckets");
+    }
+}
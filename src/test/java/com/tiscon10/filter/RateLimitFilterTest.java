@@ -0,0 +1,113 @@
+package com.tiscon10.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.Map;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link RateLimitFilter}のテスト。
+ */
+public class RateLimitFilterTest {
+
+    /** 流量制限の対象のエンドポイント */
+    private static final String ENDPOINT = "/estimate";
+
+    /** メトリクスの登録先 */
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * クライアントのバケットが空の場合は、処理を行わず429とRetry-Afterを返すこと。
+     */
+    @Test
+    public void testThrottled() throws Exception {
+        // 容量2、1000秒に1回の回復（テスト中には回復しない）
+        RateLimitFilter filter = newFilter(10, 2, 0.001);
+        assertNotNull(perform(filter, ENDPOINT, "192.0.2.1").chain().getRequest());
+        assertNotNull(perform(filter, ENDPOINT, "192.0.2.1").chain().getRequest());
+
+        Result rejected = perform(filter, ENDPOINT, "192.0.2.1");
+        assertNull(rejected.chain().getRequest());
+        assertEquals(429, rejected.response().getStatus());
+        long retryAfter = Long.parseLong(rejected.response().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1000, retryAfter, 1);
+        assertEquals(1.0, counter("throttled"));
+
+        // 他のクライアント、対象外のエンドポイントは制限されない
+        assertNotNull(perform(filter, ENDPOINT, "192.0.2.2").chain().getRequest());
+        assertNotNull(perform(filter, "/other", "192.0.2.1").chain().getRequest());
+    }
+
+    /**
+     * 処理中のリクエスト数が上限に達している場合は、429とRetry-After（1秒）を返すこと（負荷制限）。
+     */
+    @Test
+    public void testLoadShedding() throws Exception {
+        RateLimitFilter filter = newFilter(1, 10, 1.0);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        // 1件目の処理中に、別のクライアントから2件目が届く
+        FilterChain blocking = (request, response) -> nested[0] = perform(filter, ENDPOINT, "192.0.2.2").response();
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request(ENDPOINT, "192.0.2.1"), first, blocking);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, counter("shed"));
+
+        // 1件目の完了後は受け付ける
+        assertNotNull(perform(filter, ENDPOINT, "192.0.2.2").chain().getRequest());
+    }
+
+    private RateLimitFilter newFilter(int maxConcurrentRequests, int capacity, double refillPerSecond) {
+        return new RateLimitFilter(new RateLimitProperties(maxConcurrentRequests,
+            Map.of(ENDPOINT, new RateLimitProperties.Limit(capacity, refillPerSecond))), meterRegistry);
+    }
+
+    private Result perform(RateLimitFilter filter, String path, String remoteAddr) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(path, remoteAddr), response, chain);
+        return new Result(response, chain);
+    }
+
+    private static MockHttpServletRequest request(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private double counter(String reason) {
+        return meterRegistry.get("tiscon.rate-limit.rejected").tag("endpoint", ENDPOINT).tag("reason", reason)
+            .counter().count();
+    }
+
+    /**
+     * フィルタの実行結果。
+     *
+     * @param response レスポンス
+     * @param chain    後続の処理（処理が行われた場合はリクエストを保持する）
+     */
+    private record Result(MockHttpServletResponse response, MockFilterChain chain) {
+    }
+}
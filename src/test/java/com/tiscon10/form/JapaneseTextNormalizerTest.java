@@ -0,0 +1,68 @@
+package com.tiscon10.form;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link JapaneseTextNormalizer}のテスト。
+ */
+public class JapaneseTextNormalizerTest {
+
+    /**
+     * シメイは、ひらがな・半角カナが全角カタカナに、スペースが1つの全角スペースになること。
+     */
+    @Test
+    public void testNormalizeKana() {
+        assertEquals("ヤマダ　タロウ", JapaneseTextNormalizer.normalizeKana("やまだ たろう"));
+        assertEquals("ヤマダ　タロウ", JapaneseTextNormalizer.normalizeKana("ﾔﾏﾀﾞ  ﾀﾛｳ "));
+        assertEquals("ガギグゲゴパピプペポヴ", JapaneseTextNormalizer.normalizeKana("ｶﾞｷﾞｸﾞｹﾞｺﾞﾊﾟﾋﾟﾌﾟﾍﾟﾎﾟｳﾞ"));
+        assertEquals("ガパ", JapaneseTextNormalizer.normalizeKana("がぱ"));
+        assertEquals("サトー　アイ", JapaneseTextNormalizer.normalizeKana("　さと－　ｱｲ"));
+        // 正規化後は、精査の正規表現に合致すること
+        assertTrue(JapaneseTextNormalizer.normalizeKana("ｽｽﾞｷ ｲﾁﾛｰ").matches("^[ァ-ヶー　]*$"));
+    }
+
+    /**
+     * 氏名は、全角英数記号が半角に、半角カナが全角に、スペースが1つの半角スペースになること。
+     */
+    @Test
+    public void testNormalizeName() {
+        assertEquals("山田 太郎", JapaneseTextNormalizer.normalizeName(" 山田　　太郎 "));
+        assertEquals("John Smith", JapaneseTextNormalizer.normalizeName("Ｊｏｈｎ　Ｓｍｉｔｈ"));
+        assertEquals("ガンダム", JapaneseTextNormalizer.normalizeName("ｶﾞﾝﾀﾞﾑ"));
+        assertEquals("やまだ", JapaneseTextNormalizer.normalizeName("やまだ"));
+    }
+
+    /**
+     * 住所は、数字が半角に、番地のハイフン（数字に続く長音記号を含む）が半角ハイフンになること。
+     */
+    @Test
+    public void testNormalizeAddress() {
+        assertEquals("東京都江東区豊洲2-2-1", JapaneseTextNormalizer.normalizeAddress("東京都江東区豊洲２－２－１"));
+        assertEquals("東京都江東区豊洲2-2-1", JapaneseTextNormalizer.normalizeAddress("東京都江東区豊洲２ー２ー１"));
+        assertEquals("豊洲センタービル 1F", JapaneseTextNormalizer.normalizeAddress("豊洲センタービル　１Ｆ"));
+    }
+
+    /**
+     * 電話番号は、数字が半角に、ハイフン・スペース・括弧が取り除かれること。
+     */
+    @Test
+    public void testNormalizeTel() {
+        assertEquals("0312345678", JapaneseTextNormalizer.normalizeTel("03-1234-5678"));
+        assertEquals("0312345678", JapaneseTextNormalizer.normalizeTel("（０３）１２３４－５６７８"));
+        assertEquals("09012345678", JapaneseTextNormalizer.normalizeTel("090 1234 5678"));
+    }
+
+    /**
+     * nullと空文字は、そのまま返すこと。
+     */
+    @Test
+    public void testEmpty() {
+        assertNull(JapaneseTextNormalizer.normalizeKana(null));
+        assertEquals("", JapaneseTextNormalizer.normalizeTel(""));
+        assertEquals("", JapaneseTextNormalizer.normalizeName("　"));
+    }
+}
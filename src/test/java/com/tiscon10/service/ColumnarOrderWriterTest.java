@@ -0,0 +1,76 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * {@link ColumnarOrderWriter}、{@link ColumnarOrderReader}のテスト。
+ */
+public class ColumnarOrderWriterTest {
+
+    /**
+     * 書き出したバッチを読み込むと、元の保険申し込みに戻ること。
+     * 受付番号が減少する場合、null・区切り文字・多バイト文字を含む場合、エポック日より前の生年月日を含む。
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<InsuranceOrder> orders = List.of(
+            new InsuranceOrder(100, 1, "東京 太郎", "トウキョウ　タロウ", LocalDate.of(1990, 4, 1), "東京都江東区豊洲3-2-20",
+                "03-1234-5678", "taro@example.com", 1, 2, 500, 0, null),
+            new InsuranceOrder(42, 2, "𠮷野 花子", "ヨシノ　ハナコ", LocalDate.of(1955, 12, 31), "大阪府,\"北区\"\n",
+                "06-0000-0000", null, 0, 5, 0, 1, "高血圧"),
+            new InsuranceOrder(Integer.MAX_VALUE, 1, "", "ア", LocalDate.of(2004, 2, 29), "", "", "", 1, 2,
+                Integer.MAX_VALUE, 0, ""));
+        ColumnarOrderWriter writer = new ColumnarOrderWriter(orders.size());
+        orders.forEach(writer::add);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeBatch(out);
+        assertEquals(0, writer.size());
+
+        assertEquals(orders, ColumnarOrderReader.readBatch(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    /**
+     * バッチを使い回して書き出しても、前のバッチの内容が残らないこと。
+     */
+    @Test
+    public void testReuseBatch() throws IOException {
+        ColumnarOrderWriter writer = new ColumnarOrderWriter(2);
+        writer.add(order(1, "テスト"));
+        writer.add(order(2, "テスト"));
+        writer.writeBatch(new ByteArrayOutputStream());
+        writer.add(order(3, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeBatch(out);
+
+        assertEquals(List.of(order(3, null)), ColumnarOrderReader.readBatch(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    /**
+     * TCOL形式でない場合は例外となること。
+     */
+    @Test
+    public void testInvalidMagic() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(new byte[] {'C', 'S', 'V', ' ', 2, 0});
+        }
+        assertThrows(IOException.class, () -> ColumnarOrderReader.readBatch(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    private static InsuranceOrder order(int receiptNo, String medicalHistory) {
+        return new InsuranceOrder(receiptNo, 1, "東京 太郎", "トウキョウ　タロウ", LocalDate.of(1990, 4, 1), "東京都",
+            "03-1234-5678", "taro@example.com", 1, 2, 500, 0, medicalHistory);
+    }
+}
@@ -0,0 +1,137 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.service.DuplicateApplicantIndex.Match;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link DuplicateApplicantIndex}のテスト。
+ */
+public class DuplicateApplicantIndexTest {
+
+    /** 登録済みの申し込み */
+    private static final InsuranceOrder EXISTING = order("タナカ　タロウ", "03-1234-5678", "taro@example.com");
+
+    @Test
+    public void testExactMatch() {
+        DuplicateApplicantIndex index = newIndex(100, EXISTING);
+        assertEquals(Match.EXACT, index.find(order("ﾀﾅｶ ﾀﾛｳ", "０３１２３４５６７８", "other@example.com")));
+    }
+
+    @Test
+    public void testNearMatch() {
+        DuplicateApplicantIndex index = newIndex(100, EXISTING);
+        // 置換、削除、挿入、隣り合う2文字の入れ替え
+        assertEquals(Match.NEAR, index.find(order("タナカ　ジロウ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NEAR, index.find(order("タナカ　タロ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NEAR, index.find(order("タナカ　タロウウ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NEAR, index.find(order("タカナ　タロウ", "03-1234-5678", "a@example.com")));
+        // 2文字違い（削除と挿入、置換2か所）、生年月日・電話番号違い
+        assertEquals(Match.NONE, index.find(order("タナカ　ジロ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NONE, index.find(order("タナカ　ロウオ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NONE, index.find(order("タナカ　タウオ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NONE, index.find(order("タナキ　タロオ", "03-1234-5678", "a@example.com")));
+        assertEquals(Match.NONE, index.find(order("タナカ　タロウ", "03-1234-5679", "a@example.com")));
+    }
+
+    @Test
+    public void testEmailMatch() {
+        DuplicateApplicantIndex index = newIndex(100, EXISTING);
+        assertEquals(Match.EMAIL, index.find(order("スズキ　ハナコ", "090-0000-0000", " Taro@Example.com ")));
+    }
+
+    @Test
+    public void testCheckAndAdd() {
+        DuplicateApplicantIndex index = newIndex(100);
+        InsuranceOrder order = order("スズキ　ハナコ", "090-0000-0000", "hanako@example.com");
+        assertEquals(Match.NONE, index.checkAndAdd(order));
+        assertEquals(Match.EXACT, index.checkAndAdd(order));
+    }
+
+    @Test
+    public void testFull() {
+        // 上限に達した後の申し込みは索引に追加されない
+        DuplicateApplicantIndex index = newIndex(2, EXISTING);
+        InsuranceOrder order = order("スズキ　ハナコ", "090-0000-0000", "hanako@example.com");
+        index.checkAndAdd(order);
+        assertEquals(Match.NONE, index.find(order));
+    }
+
+    @Test
+    public void testNearFull() {
+        // 1文字違いの集合は1申し込みあたりシメイの文字数分を使用するため、一致判定の集合とは別に上限に達する
+        DuplicateApplicantIndex index = newIndex(100, 6, EXISTING);
+        InsuranceOrder order = order("スズキ　ハナコ", "090-0000-0000", "hanako@example.com");
+        index.checkAndAdd(order);
+        assertEquals(Match.EXACT, index.find(order));
+        assertEquals(Match.NONE, index.find(order("スズキ　ハナ", "090-0000-0000", "a@example.com")));
+        assertEquals(Match.NEAR, index.find(order("タナカ　タロ", "03-1234-5678", "a@example.com")));
+    }
+
+    @Test
+    public void testLongHashSet() {
+        LongHashSet set = new LongHashSet(3);
+        assertTrue(set.add(1));
+        assertTrue(set.add(-5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertFalse(set.add(7));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(-5));
+        assertFalse(set.contains(7));
+    }
+
+    /**
+     * 登録済みの申し込みから索引を作成する。
+     *
+     * @param maxFingerprints 上限件数
+     * @param orders          登録済みの申し込み
+     * @return 索引
+     */
+    private static DuplicateApplicantIndex newIndex(int maxFingerprints, InsuranceOrder... orders) {
+        return newIndex(maxFingerprints, maxFingerprints, orders);
+    }
+
+    /**
+     * 登録済みの申し込みから索引を作成する。
+     *
+     * @param maxFingerprints     一致判定の集合の上限件数
+     * @param maxNearFingerprints 1文字違いの集合の上限件数
+     * @param orders              登録済みの申し込み
+     * @return 索引
+     */
+    private static DuplicateApplicantIndex newIndex(int maxFingerprints, int maxNearFingerprints,
+                                                    InsuranceOrder... orders) {
+        DuplicateApplicantIndex index = new DuplicateApplicantIndex();
+        ReflectionTestUtils.setField(index, "estimateDAO", new EstimateDao() {
+            @Override
+            public void scanInsuranceOrders(Consumer<InsuranceOrder> consumer) {
+                List.of(orders).forEach(consumer);
+            }
+        });
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "maxFingerprints", maxFingerprints);
+        ReflectionTestUtils.setField(index, "maxNearFingerprints", maxNearFingerprints);
+        index.build();
+        return index;
+    }
+
+    private static InsuranceOrder order(String kanaName, String tel, String email) {
+        return new InsuranceOrder(null, 1, "田中太郎", kanaName, LocalDate.of(1990, 4, 1), "東京都", tel, email,
+            1, 1, 500, 0, null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.tiscon10.form.UserOrderForm;
+
+/**
+ * {@link FunnelStateStore}のテスト。
+ */
+public class FunnelStateStoreTest {
+
+    private final UserOrderForm form = new UserOrderForm("1", "山田 太郎", "ヤマダ　タロウ", "1990/01/01",
+        "東京都江東区豊洲", "0312345678", "taro@example.com", "1", "2", "500", "0", null);
+
+    /**
+     * 格納した入力内容を、トークンで取り出せること。
+     */
+    @Test
+    public void testSaveAndFind() {
+        FunnelStateStore store = new FunnelStateStore(true, 10, Duration.ofMinutes(30));
+        String token = store.save(form);
+        assertEquals(form, store.find(token));
+    }
+
+    /**
+     * 不正なトークンでは取り出せないこと。
+     */
+    @Test
+    public void testInvalidToken() {
+        FunnelStateStore store = new FunnelStateStore(true, 10, Duration.ofMinutes(30));
+        String token = store.save(form);
+        String forged = token.substring(0, token.length() - 1) + (token.endsWith("A") ? "B" : "A");
+        assertNull(store.find(forged));
+        assertNull(store.find("invalid token"));
+        assertNull(store.find(null));
+    }
+
+    /**
+     * 上限件数を超えた場合、最も古い入力内容が上書きされること。
+     */
+    @Test
+    public void testOverwriteOldest() {
+        FunnelStateStore store = new FunnelStateStore(true, 2, Duration.ofMinutes(30));
+        String first = store.save(form);
+        String second = store.save(form);
+        String third = store.save(form);
+        assertNull(store.find(first));
+        assertEquals(form, store.find(second));
+        assertEquals(form, store.find(third));
+    }
+
+    /**
+     * 保持期間を過ぎた入力内容は取り出せないこと。
+     */
+    @Test
+    public void testExpired() throws InterruptedException {
+        FunnelStateStore store = new FunnelStateStore(true, 10, Duration.ofMillis(1));
+        String token = store.save(form);
+        Thread.sleep(10);
+        assertNull(store.find(token));
+    }
+
+    /**
+     * 無効な場合は格納しないこと。
+     */
+    @Test
+    public void testDisabled() {
+        FunnelStateStore store = new FunnelStateStore(false, 10, Duration.ofMinutes(30));
+        assertNull(store.save(form));
+    }
+}
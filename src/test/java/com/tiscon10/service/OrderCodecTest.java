@@ -0,0 +1,161 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.tiscon10.domain.InsuranceOrder;
+import com.tiscon10.form.UserOrderForm;
+
+/**
+ * {@link OrderCodec}のテスト。
+ */
+public class OrderCodecTest {
+
+    /** ランダムな値での往復変換の回数 */
+    private static final int FUZZ_ITERATIONS = 20000;
+
+    /** 文字列の生成に使用する文字（整数・日付として扱われうる文字を多めに含める） */
+    private static final String ALPHABET = "0123456789/-+ 　abcXYZ山田太郎ヤマダタロウー東京都江東区豊洲@.\"\\\n";
+
+    private final Random random = new Random(20241019L);
+
+    /**
+     * 一般的な入力内容が往復変換でき、コード値・所得金額・生年月日が整数として格納されること。
+     */
+    @Test
+    public void testTypicalForm() {
+        UserOrderForm form = new UserOrderForm("1", "山田 太郎", "ヤマダ　タロウ", "1990/01/01",
+            "東京都江東区豊洲", "0312345678", "taro@example.com", "1", "2", "500", "0", null);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        OrderCodec.encode(form, buffer);
+        // 保険種別(1) + 生年月日(3) + コード値・所得金額(1 + 1 + 2 + 1) + 病歴(1) + 文字列6項目
+        assertEquals(10 + (1 + 13) + (1 + 21) + (1 + 24) + (1 + 10) + (1 + 16), buffer.position());
+        buffer.flip();
+        assertEquals(form, OrderCodec.decodeForm(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * 整数・日付として格納できない文字列が、元の文字列のまま往復変換できること。
+     */
+    @Test
+    public void testFormEscapedValues() {
+        UserOrderForm form = new UserOrderForm("007", "", "𠮷野家", "2023/02/30",
+            "\uD800", "+81312345678", "", "-1", "1.5", "9999999999999999999", "", "\uDC00\uD800");
+        assertEquals(form, roundTrip(form));
+        UserOrderForm nulls = new UserOrderForm(null, null, null, null, null, null, null, null, null, null, null, null);
+        assertEquals(nulls, roundTrip(nulls));
+    }
+
+    /**
+     * ランダムな入力内容が往復変換できること。
+     */
+    @Test
+    public void testFormFuzz() {
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            UserOrderForm form = new UserOrderForm(randomNumberText(), randomText(), randomText(), randomDateText(),
+                randomText(), randomText(), randomText(), randomNumberText(), randomNumberText(), randomNumberText(),
+                randomNumberText(), randomText());
+            assertEquals(form, roundTrip(form));
+        }
+    }
+
+    /**
+     * ランダムな保険申し込みが往復変換できること。
+     */
+    @Test
+    public void testOrderFuzz() {
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            InsuranceOrder order = new InsuranceOrder(randomInteger(), randomInteger(), randomText(), randomText(),
+                random.nextInt(10) == 0 ? null : LocalDate.ofEpochDay(random.nextInt(200000) - 100000),
+                randomText(), randomText(), randomText(), randomInteger(), randomInteger(), randomInteger(),
+                randomInteger(), randomText());
+            ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+            OrderCodec.encode(order, buffer);
+            buffer.flip();
+            assertEquals(order, OrderCodec.decodeOrder(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    /**
+     * 途中で切れたバイナリは、例外となること。
+     */
+    @Test
+    public void testTruncated() {
+        UserOrderForm form = new UserOrderForm("1", "山田 太郎", "ヤマダ　タロウ", "1990/01/01",
+            "東京都江東区豊洲", "0312345678", "taro@example.com", "1", "2", "500", "0", null);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        OrderCodec.encode(form, buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 2);
+        assertThrows(BufferUnderflowException.class, () -> OrderCodec.decodeForm(buffer));
+    }
+
+    /**
+     * 入力内容を変換し、復元する。
+     *
+     * @param form 入力内容
+     * @return 復元した入力内容
+     */
+    private UserOrderForm roundTrip(UserOrderForm form) {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        OrderCodec.encode(form, buffer);
+        buffer.flip();
+        UserOrderForm decoded = OrderCodec.decodeForm(buffer);
+        assertFalse(buffer.hasRemaining());
+        return decoded;
+    }
+
+    private String randomText() {
+        int kind = random.nextInt(10);
+        if (kind == 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(40);
+        for (int i = 0; i < length; i++) {
+            if (kind == 1) {
+                text.append((char) random.nextInt(Character.MAX_VALUE + 1));  // サロゲートを含む任意の文字
+            } else if (kind == 2) {
+                text.appendCodePoint(0x10000 + random.nextInt(0x100000));
+            } else {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+        return text.toString();
+    }
+
+    private String randomNumberText() {
+        return switch (random.nextInt(4)) {
+            case 0 -> Integer.toString(random.nextInt(10));
+            case 1 -> Long.toString(random.nextLong() & Long.MAX_VALUE);
+            case 2 -> "0" + random.nextInt(100);
+            default -> randomText();
+        };
+    }
+
+    private String randomDateText() {
+        return switch (random.nextInt(3)) {
+            case 0 -> String.format("%04d/%02d/%02d", random.nextInt(10000), random.nextInt(14), random.nextInt(33));
+            case 1 -> LocalDate.ofEpochDay(random.nextInt(100000) - 50000).toString().replace('-', '/');
+            default -> randomText();
+        };
+    }
+
+    private Integer randomInteger() {
+        return switch (random.nextInt(4)) {
+            case 0 -> null;
+            case 1 -> random.nextInt(10);
+            default -> random.nextInt();
+        };
+    }
+}
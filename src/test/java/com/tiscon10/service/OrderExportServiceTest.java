@@ -0,0 +1,127 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * {@link OrderExportService}のテスト。
+ */
+public class OrderExportServiceTest {
+
+    /** 出力先ディレクトリ */
+    @TempDir
+    Path exportDirectory;
+
+    /** 見積もりDAO */
+    private EstimateDao estimateDao;
+
+    /** テストデータの操作 */
+    private JdbcTemplate jdbcTemplate;
+
+    /** テスト対象 */
+    private OrderExportService exportService;
+
+    /**
+     * テーブルを作成する。
+     */
+    @BeforeEach
+    public void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:order-export-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO INSURANCE_TYPE VALUES (1, '終身医療保険', 1000)");
+        estimateDao = new EstimateDao();
+        ReflectionTestUtils.setField(estimateDao, "parameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        exportService = new OrderExportService();
+        ReflectionTestUtils.setField(exportService, "estimateDAO", estimateDao);
+        ReflectionTestUtils.setField(exportService, "exportDirectory", exportDirectory);
+        ReflectionTestUtils.setField(exportService, "batchSize", 2);
+        ReflectionTestUtils.setField(exportService, "delay", Duration.ofMinutes(1));
+    }
+
+    /**
+     * 前回より小さい受付番号の申し込みが後からコミットされた場合も、重複・欠落なくエクスポートすること。
+     * 申し込み日時から一定時間が過ぎていない申し込みは、次回以降にエクスポートすること。
+     */
+    @Test
+    public void testLateCommitWithLowerReceiptNo() throws IOException {
+        LocalDateTime fiveMinutesAgo = jdbcTemplate.queryForObject("SELECT DATEADD(MINUTE, -5, LOCALTIMESTAMP)",
+            LocalDateTime.class);
+        for (int receiptNo = 10; receiptNo <= 12; receiptNo++) {
+            insert(receiptNo, fiveMinutesAgo);
+        }
+        insert(20, "LOCALTIMESTAMP");
+        assertEquals(3, exportService.export());
+        assertEquals(fiveMinutesAgo + ",12", Files.readString(exportDirectory.resolve("checkpoint")).trim());
+
+        // 受付番号は前回より小さいが、前回のエクスポートの後にコミットされた（申し込み日時は前回の最後より後）
+        insert(5, "DATEADD(SECOND, -90, LOCALTIMESTAMP)");
+        // 前回の最後と同じ申し込み日時で、受付番号が大きい
+        insert(13, fiveMinutesAgo);
+        assertEquals(2, exportService.export());
+
+        // 一定時間が過ぎた（待つ代わりに時間を短くする）
+        ReflectionTestUtils.setField(exportService, "delay", Duration.ZERO);
+        assertEquals(1, exportService.export());
+        assertEquals(0, exportService.export());
+
+        assertEquals(List.of(10, 11, 12, 13, 5, 20), readExported());
+    }
+
+    private void insert(int receiptNo, Object orderedAt) {
+        estimateDao.insertInsuranceOrder(new InsuranceOrder(receiptNo, 1, "東京 太郎", "トウキョウ　タロウ",
+            LocalDate.of(1990, 4, 1), "東京都江東区豊洲3-2-20", "03-1234-5678", "taro@example.com", 1, 2, 500, 0, null));
+        if (orderedAt instanceof String expression) {
+            jdbcTemplate.update("UPDATE INSURANCE_ORDER SET ORDERED_AT = " + expression + " WHERE RECEIPT_NO = ?",
+                receiptNo);
+        } else {
+            jdbcTemplate.update("UPDATE INSURANCE_ORDER SET ORDERED_AT = ? WHERE RECEIPT_NO = ?", orderedAt, receiptNo);
+        }
+    }
+
+    /**
+     * エクスポートしたファイルを、ファイル名の順に読み込む。
+     *
+     * @return 受付番号
+     */
+    private List<Integer> readExported() throws IOException {
+        List<Integer> receiptNos = new ArrayList<>();
+        try (Stream<Path> files = Files.list(exportDirectory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(".tcol.gz")).sorted().toList()) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    ColumnarOrderReader.readBatch(in).forEach(order -> receiptNos.add(order.receiptNo()));
+                }
+            }
+        }
+        return receiptNos;
+    }
+}
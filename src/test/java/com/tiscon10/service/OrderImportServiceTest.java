@@ -0,0 +1,110 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * {@link OrderImportService}のテスト。
+ * <p/>
+ * 申し込みを登録するため、テスト用のデータベース（メモリ上）を使用する。
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-import;DB_CLOSE_DELAY=-1")
+public class OrderImportServiceTest {
+
+    /** 正しい申し込みの、メールアドレスより後の値 */
+    private static final String VALID_TAIL = ",1,2,500,0,";
+
+    /** 出力先ディレクトリ */
+    @TempDir
+    Path directory;
+
+    /** テスト対象 */
+    @Autowired
+    private OrderImportService orderImportService;
+
+    /** 登録内容の確認 */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 複数のパーティションに分けて登録し、入力エラーの行を理由とともに出力すること。
+     * ダブルクォートで囲まれた項目内のカンマ・改行・ダブルクォートを値として取り込むこと。
+     */
+    @Test
+    public void testImportOrders() throws IOException {
+        Path input = write("orders.csv", String.join("\n",
+            "保険種別,氏名,シメイ,生年月日,住所,電話番号,メールアドレス,配偶者有無,ご職業,昨年の所得,病歴有無,病歴",
+            "1,山田太郎,ヤマダ　タロウ,1990/01/31,\"東京都江東区豊洲3-2-20, \"\"豊洲ビル\"\"\",0312345678,import-1@example.com"
+                + VALID_TAIL,
+            "1,山田太郎,ヤマダ　タロウ,1990/01/31,東京都,0312345678,import-2@example.com,1,2,500,1,\"骨折\n入院\"",
+            "1,山田太郎,ヤマダ　タロウ,1990/01/31,東京都,0312345678,import-3.example.com" + VALID_TAIL,
+            "1,山田太郎,ヤマダ　タロウ,2020/01/31,東京都,0312345678,import-4@example.com" + VALID_TAIL,
+            "1,山田花子,ヤマダ　ハナコ,1985/05/05,東京都,0312345678,import-5@example.com" + VALID_TAIL,
+            "1,山田次郎,ヤマダ　ジロウ,1995/12/31,東京都,0312345678,import-6@example.com" + VALID_TAIL,
+            "1,山田三郎,\"ヤマダ　サブロウ,1990/01/31"));
+        Path rejectFile = directory.resolve("rejects.csv");
+
+        OrderImportResult result = orderImportService.importOrders(input, rejectFile, true, 2, 2);
+
+        assertEquals(7, result.read());
+        assertEquals(4, result.imported());
+        assertEquals(3, result.rejected());
+        assertEquals(List.of("import-1@example.com", "import-2@example.com", "import-5@example.com",
+            "import-6@example.com"), jdbcTemplate.queryForList(
+            "SELECT EMAIL_ADDRESS FROM INSURANCE_ORDER WHERE EMAIL_ADDRESS LIKE 'import-%' ORDER BY EMAIL_ADDRESS",
+            String.class));
+        assertEquals("東京都江東区豊洲3-2-20, \"豊洲ビル\"", jdbcTemplate.queryForObject(
+            "SELECT ADDRESS FROM INSURANCE_ORDER WHERE EMAIL_ADDRESS = 'import-1@example.com'", String.class));
+        assertEquals("骨折\n入院", jdbcTemplate.queryForObject(
+            "SELECT MEDICAL_HISTORY FROM INSURANCE_ORDER WHERE EMAIL_ADDRESS = 'import-2@example.com'", String.class));
+
+        // パーティションは並列に処理するため、出力順は不定
+        List<String> rejects = Files.readAllLines(rejectFile, StandardCharsets.UTF_8).stream().sorted().toList();
+        assertEquals(3, rejects.size());
+        assertTrue(rejects.get(0).startsWith("3,\"email: "));
+        assertTrue(rejects.get(1).startsWith("4,\"dateOfBirth: " + EstimateService.AGE_ERROR_MESSAGE + "\","));
+        assertTrue(rejects.get(2).startsWith("7,\"ダブルクォートが閉じられていません\","));
+    }
+
+    /**
+     * ダブルクォートが閉じられない場合、上限の文字数を超えたところで1レコードのエラーとし、次の行から読み込みを続けること。
+     */
+    @Test
+    public void testUnterminatedQuote() throws IOException {
+        StringBuilder csv = new StringBuilder("1,\"unterminated\n");
+        String line = "x".repeat(99) + "\n";
+        int lines = OrderImportService.MAX_RECORD_CHARS / line.length() + 10;
+        csv.append(line.repeat(lines));
+        BufferedReader reader = new BufferedReader(new StringReader(csv.toString()));
+
+        OrderImportService.CsvRecord rejected = OrderImportService.readRecord(reader);
+        assertNotNull(rejected.error());
+        assertTrue(String.join(",", rejected.columns()).length() <= OrderImportService.MAX_RECORD_CHARS + line.length());
+
+        // 残りの行は、それぞれ1レコードとして読み込む
+        OrderImportService.CsvRecord next = OrderImportService.readRecord(reader);
+        assertNull(next.error());
+        assertArrayEquals(new String[] {"x".repeat(99)}, next.columns());
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        return Files.writeString(directory.resolve(fileName), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,209 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * {@link OrderJournal}のテスト。
+ */
+public class OrderJournalTest {
+
+    /**
+     * 追記した申し込みが、追記順に適用されること。終了後に開き直した場合は、適用済みの申し込みを適用しないこと。
+     */
+    @Test
+    public void testAppendAndApply() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("journal.dat");
+        List<String> applied = new CopyOnWriteArrayList<>();
+        try (OrderJournal journal = OrderJournal.open(file, 1 << 20, (order, key) -> applied.add(key))) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(order(i), "key-" + i);
+            }
+        }
+        assertEquals(IntStream.range(0, 100).mapToObj(i -> "key-" + i).toList(), applied);
+
+        applied.clear();
+        try (OrderJournal journal = OrderJournal.open(file, 1 << 20, (order, key) -> applied.add(key))) {
+            journal.append(order(100), "key-100");
+        }
+        assertEquals(List.of("key-100"), applied);
+    }
+
+    /**
+     * 適用前に停止した場合、開き直した時に未適用の申し込みを適用すること。
+     */
+    @Test
+    public void testRecover() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("journal.dat");
+        CountDownLatch blocked = new CountDownLatch(1);
+        OrderJournal crashed = OrderJournal.open(file, 1 << 20, (order, key) -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        crashed.append(order(1), "key-1");
+        crashed.append(order(2), "key-2");
+
+        // 適用が止まったままのファイルを開き直す（停止後の再起動に相当する）
+        List<InsuranceOrder> applied = new CopyOnWriteArrayList<>();
+        try {
+            OrderJournal.replay(file, (order, key) -> applied.add(order));
+            assertEquals(List.of(order(1), order(2)), applied);
+        } finally {
+            blocked.countDown();
+            crashed.close();
+        }
+    }
+
+    /**
+     * 適用した内容の永続化が完了するまでは適用済みの位置を記録せず、その前に停止した場合は開き直した時に再度適用すること。
+     */
+    @Test
+    public void testSyncBeforeCheckpoint() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("journal.dat");
+        CountDownLatch synced = new CountDownLatch(1);
+        List<String> applied = new CopyOnWriteArrayList<>();
+        OrderJournal crashed = OrderJournal.open(file, 1 << 20, new OrderJournal.Applier() {
+            @Override
+            public void apply(InsuranceOrder order, String idempotencyKey) {
+                applied.add(idempotencyKey);
+            }
+
+            @Override
+            public void sync() {
+                try {
+                    synced.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        crashed.append(order(1), "key-1");
+        waitFor(applied, 1);
+
+        // 適用後、永続化の前に停止したファイルを開き直す
+        List<String> reapplied = new CopyOnWriteArrayList<>();
+        try {
+            OrderJournal.replay(file, (order, key) -> reapplied.add(key));
+            assertEquals(List.of("key-1"), reapplied);
+        } finally {
+            synced.countDown();
+            crashed.close();
+        }
+    }
+
+    /**
+     * ジャーナルを無効に切り替えた後の起動時に、未適用のレコードを適用すること。ファイルがない場合は何もしないこと。
+     */
+    @Test
+    public void testReplay() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("journal.dat");
+        List<String> applied = new CopyOnWriteArrayList<>();
+        OrderJournal.replay(file, (order, key) -> applied.add(key));
+        assertFalse(Files.exists(file));
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        OrderJournal crashed = OrderJournal.open(file, 1 << 20, (order, key) -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        crashed.append(order(1), "key-1");
+        try {
+            OrderJournal.replay(file, (order, key) -> applied.add(key));
+            assertEquals(List.of("key-1"), applied);
+        } finally {
+            blocked.countDown();
+            crashed.close();
+        }
+    }
+
+    /**
+     * 適用に失敗し続けている間に割り込まれた場合、適用スレッドが再試行をやめて終了すること。
+     * 未適用の申し込みは、開き直した時に適用すること。
+     */
+    @Test
+    public void testInterruptedWhileRetrying() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("journal.dat");
+        AtomicInteger attempts = new AtomicInteger();
+        OrderJournal failing = OrderJournal.open(file, 1 << 20, (order, key) -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        });
+        failing.append(order(1), "key-1");
+        Thread applier = Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().equals("order-journal-applier"))
+            .findFirst().orElseThrow();
+        applier.interrupt();
+        applier.join(5000);
+        assertFalse(applier.isAlive());
+        assertTrue(attempts.get() <= 2);
+        failing.close();
+
+        List<String> applied = new CopyOnWriteArrayList<>();
+        OrderJournal.replay(file, (order, key) -> applied.add(key));
+        assertEquals(List.of("key-1"), applied);
+    }
+
+    /**
+     * ファイルの末尾に達した場合、適用を待って先頭から追記し直すこと（複数スレッドから追記する）。
+     */
+    @Test
+    public void testRewind() throws Exception {
+        Path file = Files.createTempDirectory("order-journal").resolve("journal.dat");
+        List<String> applied = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (OrderJournal journal = OrderJournal.open(file, 2048, (order, key) -> applied.add(key))) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                int receiptNo = i;
+                futures.add(executor.submit(() -> journal.append(order(receiptNo), "key-" + receiptNo)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(400, applied.size());
+        assertEquals(400, applied.stream().distinct().count());
+    }
+
+    /**
+     * 適用された申し込みが指定の件数になるまで待つ。
+     */
+    private static <T> List<T> waitFor(List<T> applied, int count) throws InterruptedException {
+        for (int i = 0; i < 500 && applied.size() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(applied.size() >= count);
+        return applied;
+    }
+
+    private static InsuranceOrder order(int receiptNo) {
+        return new InsuranceOrder(receiptNo, 1, "東京 太郎", "トウキョウ　タロウ", LocalDate.of(1990, 4, 1),
+            "東京都江東区豊洲3-2-20", "03-1234-5678", "taro@example.com", 1, 1, 500, 0, null);
+    }
+}
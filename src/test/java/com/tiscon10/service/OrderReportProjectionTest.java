@@ -0,0 +1,92 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.OrderPlacedEvent;
+
+/**
+ * {@link OrderReportProjection}のテスト。
+ */
+public class OrderReportProjectionTest {
+
+    /** 集計の基準日 */
+    private static final LocalDate TODAY = LocalDate.of(2024, 4, 1);
+
+    /**
+     * 保険申し込みテーブルから作成した集計に、登録イベントが反映されること。
+     */
+    @Test
+    public void testRebuildAndApplyEvents() throws Exception {
+        OrderReportProjection projection = new OrderReportProjection();
+        ReflectionTestUtils.setField(projection, "estimateDAO", new EstimateDao() {
+            @Override
+            public void scanOrderPlacedEvents(Duration recent, BiConsumer<OrderPlacedEvent, Boolean> consumer) {
+                consumer.accept(new OrderPlacedEvent(1, 1, 2, LocalDate.of(1990, 4, 2), TODAY.minusDays(1)), false);
+                consumer.accept(new OrderPlacedEvent(2, 1, 2, LocalDate.of(1980, 4, 1), TODAY), false);
+                consumer.accept(new OrderPlacedEvent(3, 2, 1, LocalDate.of(1980, 4, 2), TODAY), false);
+            }
+        });
+        projection.rebuild().get();
+
+        assertEquals(List.of(new DailyOrderCount(TODAY, 1, 2, 1), new DailyOrderCount(TODAY, 2, 1, 1)),
+            projection.findDailyCounts(TODAY, TODAY));
+        // 1990/04/02生まれは前日時点で33歳、1980/04/01生まれは当日時点で44歳、1980/04/02生まれは当日時点で43歳
+        assertEquals(List.of(new AgeBandCount(1, 30, 1), new AgeBandCount(1, 40, 1), new AgeBandCount(2, 40, 1)),
+            projection.findAgeDistribution());
+
+        projection.onOrderPlaced(new OrderPlacedEvent(4, 1, 2, LocalDate.of(1985, 1, 1), TODAY));
+        for (int i = 0; i < 500 && projection.findDailyCounts(TODAY, TODAY).get(0).count() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, projection.findDailyCounts(TODAY.minusDays(1), TODAY).size());
+        assertEquals(new DailyOrderCount(TODAY, 1, 2, 2), projection.findDailyCounts(TODAY, TODAY).get(0));
+        assertEquals(new AgeBandCount(1, 30, 2), projection.findAgeDistribution().get(0));
+        projection.shutdown();
+    }
+
+    /**
+     * 作成し直す処理と同時に登録され、全件の読み出しに含まれた申し込みのイベントは、二重に数えないこと。
+     */
+    @Test
+    public void testEventDuringRebuildNotDoubleCounted() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch published = new CountDownLatch(1);
+        OrderReportProjection projection = new OrderReportProjection();
+        ReflectionTestUtils.setField(projection, "estimateDAO", new EstimateDao() {
+            @Override
+            public void scanOrderPlacedEvents(Duration recent, BiConsumer<OrderPlacedEvent, Boolean> consumer) {
+                scanning.countDown();
+                try {
+                    published.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                consumer.accept(new OrderPlacedEvent(1, 1, 2, LocalDate.of(1990, 4, 2), TODAY), false);
+                consumer.accept(new OrderPlacedEvent(2, 1, 2, LocalDate.of(1990, 4, 2), TODAY), true);
+            }
+        });
+        Future<?> rebuilt = projection.rebuild();
+        scanning.await();
+        // 受付番号2は読み出しに含まれ、受付番号3は読み出しの後にコミットされた
+        projection.onOrderPlaced(new OrderPlacedEvent(2, 1, 2, LocalDate.of(1990, 4, 2), TODAY));
+        projection.onOrderPlaced(new OrderPlacedEvent(3, 1, 2, LocalDate.of(1990, 4, 2), TODAY));
+        published.countDown();
+        rebuilt.get();
+        // 作成し直した後に反映されるイベントを待つ
+        ((ExecutorService) ReflectionTestUtils.getField(projection, "executor")).submit(() -> { }).get();
+        assertEquals(List.of(new DailyOrderCount(TODAY, 1, 2, 3)), projection.findDailyCounts(TODAY, TODAY));
+        projection.shutdown();
+    }
+}
@@ -0,0 +1,62 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link PostalCodeIndex}のテスト。
+ */
+public class PostalCodeIndexTest {
+
+    /**
+     * 郵便番号の前方一致で、郵便番号の昇順に検索できること。
+     */
+    @Test
+    public void testSearch() throws IOException {
+        PostalCodeIndex index = createIndex(List.of(
+            new PostalAddress("1350062", "東京都", "江東区", "東雲"),
+            new PostalAddress("0600000", "北海道", "札幌市中央区", ""),
+            new PostalAddress("1350061", "東京都", "江東区", "豊洲"),
+            new PostalAddress("1360071", "東京都", "江東区", "亀戸"),
+            new PostalAddress("1350061", "東京都", "江東区", "豊洲（重複）")));
+
+        assertEquals(5, index.size());
+        assertEquals(List.of(new PostalAddress("0600000", "北海道", "札幌市中央区", "")), index.search("06", 10));
+        assertEquals(List.of("豊洲", "豊洲（重複）"), towns(index.search("1350061", 10)));
+        assertEquals(List.of("豊洲", "豊洲（重複）", "東雲"), towns(index.search("135", 10)));
+        assertEquals(List.of("豊洲", "豊洲（重複）"), towns(index.search("13", 2)));
+        assertEquals(List.of("豊洲", "豊洲（重複）", "東雲", "亀戸"), towns(index.search("1", 10)));
+        assertEquals(List.of(), index.search("9", 10));
+        assertEquals(List.of(), index.search("1350060", 10));
+    }
+
+    /**
+     * 索引ファイルに記録したチェックサムを読み込めること。
+     */
+    @Test
+    public void testChecksum() throws IOException {
+        Path file = Files.createTempDirectory("postal-code").resolve("postal-code.idx");
+        byte[] checksum = new byte[PostalCodeIndex.CHECKSUM_BYTES];
+        checksum[0] = 1;
+        PostalCodeIndex.write(List.of(), checksum, file);
+        assertArrayEquals(checksum, PostalCodeIndex.readChecksum(file));
+        assertEquals(0, PostalCodeIndex.open(file).size());
+    }
+
+    private PostalCodeIndex createIndex(List<PostalAddress> addresses) throws IOException {
+        Path file = Files.createTempDirectory("postal-code").resolve("postal-code.idx");
+        PostalCodeIndex.write(addresses, new byte[PostalCodeIndex.CHECKSUM_BYTES], file);
+        return PostalCodeIndex.open(file);
+    }
+
+    private List<String> towns(List<PostalAddress> addresses) {
+        return addresses.stream().map(PostalAddress::town).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * {@link PremiumCalculator}のテスト。
+ * <p/>
+ * 料金表のCSVファイルと価格ルールの全保険種別×全年齢の計算結果を、正解ファイル（premium-golden.csv）と比較する。
+ * 正解ファイルは整数演算で別途算出したもの。料金表を変更した場合は正解ファイルも更新すること。
+ */
+public class PremiumCalculatorTest {
+
+    /**
+     * 全保険種別×全年齢の保険料（年額）と還付額が正解ファイルと一致すること。
+     */
+    @Test
+    public void testGoldenFile() throws IOException {
+        Map<Integer, Integer> monthlyFees = new HashMap<>();
+        for (String[] columns : readCsv("/data/INSURANCE_TYPE.csv")) {
+            monthlyFees.put(Integer.parseInt(columns[0]), Integer.parseInt(columns[2]));
+        }
+        Map<Integer, Long> adjustmentRates = new HashMap<>();
+        for (String[] columns : readCsv("/data/AGE_ADJUSTMENT_RATE.csv")) {
+            adjustmentRates.put(Integer.parseInt(columns[0]), PremiumCalculator.toScaledRate(new BigDecimal(columns[1])));
+        }
+
+        PricingRuleTable pricingRules = PricingRuleTable.load(new ClassPathResource("data/PRICING_RULE.csv"));
+
+        List<String[]> golden = readCsv("premium-golden.csv");
+        assertEquals(monthlyFees.size() * (EstimateService.MAX_AGE - EstimateService.MIN_AGE + 1), golden.size());
+        for (String[] columns : golden) {
+            int insuranceType = Integer.parseInt(columns[0]);
+            int age = Integer.parseInt(columns[1]);
+            String cell = "insuranceType=" + insuranceType + ", age=" + age;
+
+            int annualFee = PremiumCalculator.annualFee(monthlyFees.get(insuranceType), adjustmentRates.get(age));
+            assertEquals(Integer.parseInt(columns[2]), annualFee, cell);
+            long rebateRate = pricingRules.rebateRate(pricingRules.find(insuranceType, PricingRuleTable.UNKNOWN,
+                PricingRuleTable.UNKNOWN, PricingRuleTable.UNKNOWN, PricingRuleTable.UNKNOWN));
+            assertEquals(Long.parseLong(columns[3]), PremiumCalculator.rebateAmount(annualFee, rebateRate), cell);
+        }
+    }
+
+    /**
+     * 2進数の浮動小数点では誤差が生じる調整率でも、保険料（年額）が正確に計算されること。
+     */
+    @Test
+    public void testAnnualFeeIsExact() {
+        // 1000 * 12 * 2.3 は double では 27599.999... となり、切り捨てると27599円になる
+        assertEquals(27600, PremiumCalculator.annualFee(1000, 230));
+    }
+
+    /**
+     * 割増・割引率が円未満切り捨てで適用されること。
+     */
+    @Test
+    public void testApplyLoading() {
+        assertEquals(13200, PremiumCalculator.applyLoading(12000, 10));
+        assertEquals(11399, PremiumCalculator.applyLoading(11999, -5));
+        assertEquals(0, PremiumCalculator.applyLoading(12000, -150));
+    }
+
+    /**
+     * 端数処理が指定どおりに行われること。
+     */
+    @Test
+    public void testDivide() {
+        assertEquals(1, PremiumCalculator.divide(199, 100, RoundingMode.DOWN));
+        assertEquals(1, PremiumCalculator.divide(149, 100, RoundingMode.HALF_UP));
+        assertEquals(2, PremiumCalculator.divide(150, 100, RoundingMode.HALF_UP));
+        assertEquals(-2, PremiumCalculator.divide(-150, 100, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * CSVファイルを読み込む（1行目は見出しとして読み飛ばす）。
+     *
+     * @param name ファイル名（クラスパス上の、このクラスからの相対パスまたは絶対パス）
+     * @return 各行の値
+     */
+    private List<String[]> readCsv(String name) throws IOException {
+        try (InputStream in = PremiumCalculatorTest.class.getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                .skip(1)
+                .filter(line -> !line.isBlank())
+                .map(line -> line.split(","))
+                .toList();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link PricingRuleTable}のテスト。
+ */
+public class PricingRuleTableTest {
+
+    private final PricingRuleTable table = PricingRuleTable.compile(List.of(
+        new PricingRule(PricingRule.Kind.REBATE, 1, null, null, null, null, null, 20),
+        new PricingRule(PricingRule.Kind.REBATE, 1, 7, null, null, null, null, 99),
+        new PricingRule(PricingRule.Kind.REBATE, null, null, null, null, null, null, 15),
+        new PricingRule(PricingRule.Kind.LOADING, null, 7, null, null, null, null, -5),
+        new PricingRule(PricingRule.Kind.LOADING, null, null, null, 1, null, null, 10),
+        new PricingRule(PricingRule.Kind.LOADING, null, null, null, null, 300, 600, 3),
+        new PricingRule(PricingRule.Kind.LOADING, null, null, null, null, 500, null, 4)
+    ));
+
+    /**
+     * 還付率は、合致するルールのうち先頭のものが適用されること。
+     */
+    @Test
+    public void testRebateRateFirstMatch() {
+        assertEquals(20, table.rebateRate(table.find(1, 7, 0, 0, 100)));
+        assertEquals(15, table.rebateRate(table.find(2, 7, 0, 0, 100)));
+        assertEquals(15, table.rebateRate(table.find(99, 2, 1, 0, 100)));
+    }
+
+    /**
+     * 割増・割引率は、合致するすべてのルールの合計が適用されること。
+     */
+    @Test
+    public void testLoadingSum() {
+        assertEquals(0, table.loading(table.find(1, 2, 0, 0, 100)));
+        assertEquals(-5, table.loading(table.find(1, 7, 0, 0, 100)));
+        assertEquals(5, table.loading(table.find(1, 7, 0, 1, 100)));
+    }
+
+    /**
+     * 所得の条件は、下限を含み上限を含まないこと。
+     */
+    @Test
+    public void testIncomeBands() {
+        assertEquals(0, table.loading(table.find(1, 2, 0, 0, 299)));
+        assertEquals(3, table.loading(table.find(1, 2, 0, 0, 300)));
+        assertEquals(3, table.loading(table.find(1, 2, 0, 0, 499)));
+        assertEquals(7, table.loading(table.find(1, 2, 0, 0, 500)));
+        assertEquals(4, table.loading(table.find(1, 2, 0, 0, 600)));
+    }
+
+    /**
+     * 属性が不明な場合は、その属性の条件がないルールのみ合致すること。
+     */
+    @Test
+    public void testUnknownAttributes() {
+        int cell = table.find(1, PricingRuleTable.UNKNOWN, PricingRuleTable.UNKNOWN,
+            PricingRuleTable.UNKNOWN, PricingRuleTable.UNKNOWN);
+        assertEquals(20, table.rebateRate(cell));
+        assertEquals(0, table.loading(cell));
+    }
+}
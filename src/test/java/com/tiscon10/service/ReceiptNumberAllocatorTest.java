@@ -0,0 +1,172 @@
+package com.tiscon10.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tiscon10.dao.EstimateDao;
+import com.tiscon10.domain.InsuranceOrder;
+
+/**
+ * {@link ReceiptNumberAllocator}のテスト。
+ * <p/>
+ * 1つのデータベースに、それぞれ別のデータソースで接続した複数のノード（書き込み元）から登録する。
+ */
+public class ReceiptNumberAllocatorTest {
+
+    /** 1回に借り受ける受付番号の件数（借り受けが頻繁に競合するよう小さくする） */
+    private static final int LEASE_SIZE = 10;
+
+    /** データベースのURL（テストごとに別のデータベースとする） */
+    private String url;
+
+    /**
+     * テーブルを作成する。
+     */
+    @BeforeEach
+    public void createTables() {
+        url = "jdbc:h2:mem:receipt-no-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        DataSource dataSource = newDataSource();
+        populator.execute(dataSource);
+        new JdbcTemplate(dataSource).update("INSERT INTO INSURANCE_TYPE VALUES (1, '終身医療保険', 1000)");
+    }
+
+    /**
+     * 単一ノード構成で自動採番した後に複数ノード構成に切り替え、2つのノードから並行して登録しても受付番号が重複しないこと。
+     * 単一ノード構成に戻した後の自動採番も、払い出し済みの受付番号と重複しないこと。
+     */
+    @Test
+    public void testTwoWritersNeverCollide() throws Exception {
+        // 受付番号払い出しテーブルは空のデータベースで作成済み（次に払い出す受付番号は1のまま）
+        Node single = newNode(false);
+        for (int i = 0; i < 5; i++) {
+            single.insert(order());
+        }
+
+        List<Node> cluster = List.of(newNode(true), newNode(true));
+        ExecutorService executor = Executors.newFixedThreadPool(cluster.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Node node : cluster) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        node.insert(order());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(205, count("SELECT COUNT(*) FROM INSURANCE_ORDER"));
+        assertEquals(200, count("SELECT COUNT(*) FROM INSURANCE_ORDER WHERE RECEIPT_NO > 5"));
+
+        Node restarted = newNode(false);
+        for (int i = 0; i < 5; i++) {
+            restarted.insert(order());
+        }
+        assertEquals(210, count("SELECT COUNT(*) FROM INSURANCE_ORDER"));
+    }
+
+    /**
+     * 冪等キーの重複と受付番号の重複を区別できること。
+     */
+    @Test
+    public void testIdempotencyKeyViolation() {
+        Node node = newNode(true);
+        InsuranceOrder registered = node.allocator().assign(order());
+        node.insert(registered, "key-1");
+
+        DuplicateKeyException sameKey = assertThrows(DuplicateKeyException.class,
+            () -> node.insert(node.allocator().assign(order()), "key-1"));
+        assertTrue(EstimateDao.isIdempotencyKeyViolation(sameKey));
+
+        DuplicateKeyException sameReceiptNo = assertThrows(DuplicateKeyException.class,
+            () -> node.insert(order().withReceiptNo(registered.receiptNo()), "key-2"));
+        assertFalse(EstimateDao.isIdempotencyKeyViolation(sameReceiptNo));
+    }
+
+    /**
+     * 独自のデータソースでデータベースに接続するノードを作成する。
+     *
+     * @param cluster 複数ノード構成の場合、真
+     * @return ノード
+     */
+    private Node newNode(boolean cluster) {
+        DataSource dataSource = newDataSource();
+        EstimateDao estimateDao = new EstimateDao();
+        ReflectionTestUtils.setField(estimateDao, "parameterJdbcTemplate", new NamedParameterJdbcTemplate(dataSource));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        ReceiptNumberAllocator allocator = new ReceiptNumberAllocator();
+        ReflectionTestUtils.setField(allocator, "estimateDAO", estimateDao);
+        ReflectionTestUtils.setField(allocator, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(allocator, "enabled", cluster);
+        ReflectionTestUtils.setField(allocator, "leaseSize", LEASE_SIZE);
+        allocator.init();
+        return new Node(estimateDao, allocator, new TransactionTemplate(transactionManager));
+    }
+
+    private DataSource newDataSource() {
+        return new DriverManagerDataSource(url, "sa", "");
+    }
+
+    private long count(String sql) {
+        return new JdbcTemplate(newDataSource()).queryForObject(sql, Long.class);
+    }
+
+    private static InsuranceOrder order() {
+        return new InsuranceOrder(null, 1, "東京 太郎", "トウキョウ　タロウ", LocalDate.of(1990, 4, 1),
+            "東京都江東区豊洲3-2-20", "03-1234-5678", "taro@example.com", 1, 1, 500, 0, null);
+    }
+
+    /**
+     * ノード（データソース、受付番号の払い出し）。
+     *
+     * @param estimateDao 見積もりDAO
+     * @param allocator   受付番号の払い出し
+     * @param transaction 登録のトランザクション制御
+     */
+    private record Node(EstimateDao estimateDao, ReceiptNumberAllocator allocator, TransactionTemplate transaction) {
+
+        /**
+         * 受付番号を払い出して保険申し込みを登録する。
+         */
+        void insert(InsuranceOrder order) {
+            transaction.executeWithoutResult(status -> estimateDao.insertInsuranceOrder(allocator.assign(order)));
+        }
+
+        /**
+         * 保険申し込みを冪等キーとともに登録する。
+         */
+        void insert(InsuranceOrder order, String idempotencyKey) {
+            transaction.executeWithoutResult(status -> estimateDao.insertInsuranceOrder(order, idempotencyKey));
+        }
+    }
+}
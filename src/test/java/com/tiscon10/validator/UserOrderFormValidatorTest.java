@@ -0,0 +1,108 @@
+package com.tiscon10.validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.tiscon10.form.UserOrderForm;
+
+@SpringBootTest
+public class UserOrderFormValidatorTest {
+
+    @Autowired
+    private UserOrderFormValidator userOrderFormValidator;
+
+    /** 比較対象とするBean Validation標準の精査 */
+    @Autowired
+    private LocalValidatorFactoryBean beanValidator;
+
+    /**
+     * 事前に組み立てた精査と、Bean Validation標準の精査で同じエラーになることを確認する。
+     * 比較するのは、項目名、エラーコード、引数、メッセージ、入力値。
+     */
+    @ParameterizedTest
+    @MethodSource("forms")
+    public void testSameErrorsAsBeanValidation(UserOrderForm form) {
+
+        BindingResult expected = new BeanPropertyBindingResult(form, "userOrderForm");
+        beanValidator.validate(form, expected);
+
+        BindingResult actual = new BeanPropertyBindingResult(form, "userOrderForm");
+        userOrderFormValidator.validate(form, actual);
+
+        assertEquals(describe(expected.getFieldErrors()), describe(actual.getFieldErrors()));
+        assertEquals(!expected.hasErrors(), userOrderFormValidator.isValid(form));
+    }
+
+    /**
+     * 画面で使用しないロケールでも同じエラーになり、そのロケールのメッセージをキャッシュしないことを確認する。
+     */
+    @Test
+    public void testUncachedLocale() {
+        UserOrderForm form = forms().skip(5).findFirst().orElseThrow();
+        Map<?, ?> messagesByLocale = (Map<?, ?>) ReflectionTestUtils.getField(userOrderFormValidator, "messagesByLocale");
+        LocaleContextHolder.setLocale(Locale.forLanguageTag("en-x-client" + System.nanoTime()));
+        try {
+            int cached = messagesByLocale.size();
+            BindingResult expected = new BeanPropertyBindingResult(form, "userOrderForm");
+            beanValidator.validate(form, expected);
+            BindingResult actual = new BeanPropertyBindingResult(form, "userOrderForm");
+            userOrderFormValidator.validate(form, actual);
+
+            assertEquals(describe(expected.getFieldErrors()), describe(actual.getFieldErrors()));
+            assertEquals(cached, messagesByLocale.size());
+        } finally {
+            LocaleContextHolder.resetLocaleContext();
+        }
+    }
+
+    static Stream<UserOrderForm> forms() {
+        return Stream.of(
+            form("1", "山田太郎", "ヤマダ　タロウ", "1990/01/31", "東京都", "0312345678", "taro@example.com", "1", "2", "500", "0", ""),
+            form("1", "山田太郎", "ヤマダ　タロウ", "1990/01/31", "東京都", "0312345678", "taro@example.com", "1", "2", "500", "1", "骨折"),
+            form("", "", "", "", "", "", "", "", "", "", "", ""),
+            form(null, null, null, null, null, null, null, null, null, null, null, null),
+            form(" ", "　", " ", " ", " ", " ", " ", " ", " ", " ", " ", " "),
+            form("a", "山田", "やまだ", "1990/1/31", "東京都", "03-1234", "taro", "2", "12", "五百", "3", "骨折"),
+            form("１", "山田", "ﾔﾏﾀﾞ", "2000/02/30", "東京都", "０３", "taro@", "01", "+1", "-1", "１", ""),
+            form("1", "山田", "ヤマダ", "1500/02/29", "東京都", "03", "@example.com", "1", "1", "1", "0", "骨折"),
+            form("1", "山田", "ヤマダ", "10000/01/01", "東京都", "03", "taro@example..com", "1", "1", "1", "1", " "),
+            form("1", "あ".repeat(61), "ア".repeat(91), "abc", "あ".repeat(256), "0".repeat(14),
+                "a".repeat(250) + "@example.com", "1", "11", "1234567890", "0", "あ".repeat(121))
+        );
+    }
+
+    private static UserOrderForm form(String... values) {
+        return new UserOrderForm(values[0], values[1], values[2], values[3], values[4], values[5],
+            values[6], values[7], values[8], values[9], values[10], values[11]);
+    }
+
+    /**
+     * エラーの順序に依存せず比較できるよう、エラーを文字列にして並べ替える。
+     */
+    private static List<String> describe(List<FieldError> errors) {
+        return errors.stream()
+            .map(error -> String.join("|", error.getObjectName(), error.getField(),
+                Arrays.toString(error.getCodes()), Arrays.deepToString(error.getArguments()),
+                error.getDefaultMessage(), String.valueOf(error.getRejectedValue()),
+                String.valueOf(error.isBindingFailure())))
+            .sorted()
+            .toList();
+    }
+}